@@ -51,20 +51,17 @@ public class PermissionOverlay extends Gui implements IMessageHandler<Packet3Pla
         }
         else
         {
-            permissions.placeIds.addAll(message.placeIds);
-            permissions.breakIds.addAll(message.breakIds);
+            permissions.placeIds.andNot(message.removedPlaceIds);
+            permissions.placeIds.or(message.placeIds);
+            permissions.breakIds.or(message.breakIds);
 
             EntityPlayerSP player = Minecraft.getMinecraft().player;
             ItemStack stack = player.getHeldItemMainhand();
             if (stack != ItemStack.EMPTY)
             {
                 int itemId = Item.REGISTRY.getIDForObject((stack.getItem()));
-                for (int id : message.placeIds)
-                    if (itemId == id)
-                    {
-                        player.stopActiveHand();
-                        break;
-                    }
+                if (itemId >= 0 && message.placeIds.get(itemId))
+                    player.stopActiveHand();
             }
         }
         return null;
@@ -90,7 +87,7 @@ public class PermissionOverlay extends Gui implements IMessageHandler<Packet3Pla
                 if (stack == ItemStack.EMPTY)
                     continue;
                 int id = Item.REGISTRY.getIDForObject(stack.getItem());
-                if (!permissions.placeIds.contains(id))
+                if (id < 0 || !permissions.placeIds.get(id))
                     continue;
                 int x = width / 2 - 90 + i * 20 + 2;
                 int y = height - 16 - 3;
@@ -108,7 +105,7 @@ public class PermissionOverlay extends Gui implements IMessageHandler<Packet3Pla
             {
                 IBlockState block = Minecraft.getMinecraft().world.getBlockState(mop.getBlockPos());
                 int blockId = Block.REGISTRY.getIDForObject(block.getBlock());
-                if (permissions.breakIds.contains(blockId))
+                if (blockId >= 0 && permissions.breakIds.get(blockId))
                 {
                     Minecraft.getMinecraft().renderEngine.bindTexture(deniedBreakTexture);
                     drawTexturedRect(width / 2 - 5, height / 2 - 5, 10, 10);
@@ -25,6 +25,7 @@ import com.forgeessentials.core.misc.Translator;
 import com.forgeessentials.core.moduleLauncher.FEModule;
 import com.forgeessentials.util.PlayerUtil;
 import com.forgeessentials.util.ServerUtil;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleInitEvent;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerInitEvent;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerStopEvent;
@@ -39,6 +40,8 @@ import com.forgeessentials.util.output.ChatOutputHandler;
 public class ModuleAfterlife extends ServerEventHandler
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", ModuleAfterlife.class);
+
     @FEModule.Instance
     public static ModuleAfterlife instance;
 
@@ -127,11 +130,13 @@ public class ModuleAfterlife extends ServerEventHandler
     {
         if (event.phase == Phase.END)
             return;
+        long start = TickProfiler.start();
         if (FMLCommonHandler.instance().getMinecraftServerInstance().getEntityWorld().getWorldInfo().getWorldTotalTime() % 20 == 0)
         {
             for (Grave grave : new ArrayList<Grave>(Grave.graves.values()))
                 grave.updateBlocks();
         }
+        TICK_SECTION.end(start);
     }
 
     @SubscribeEvent
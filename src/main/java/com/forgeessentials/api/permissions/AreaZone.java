@@ -57,6 +57,21 @@ public class AreaZone extends Zone implements Comparable<AreaZone>
         this.worldZone.addAreaZone(this);
     }
 
+    /**
+     * Creates a copy of the zone for a snapshot of the world zone, which is not yet added to it. See
+     * {@link WorldZone#addAreaZones(java.util.Collection)}.
+     */
+    AreaZone createDetachedCopy(WorldZone worldCopy)
+    {
+        AreaZone copy = new AreaZone(getId());
+        copy.worldZone = worldCopy;
+        copy.name = name;
+        copy.area = area;
+        copy.shape = shape;
+        copy.priority = priority;
+        return copy;
+    }
+
     @Override
     public boolean isInZone(WorldPoint point)
     {
@@ -144,6 +159,7 @@ public class AreaZone extends Zone implements Comparable<AreaZone>
         else
             this.shape = shape;
         setDirty();
+        getServerZone().zoneLayoutChanged();
     }
 
     public int getPriority()
@@ -155,6 +171,7 @@ public class AreaZone extends Zone implements Comparable<AreaZone>
     {
         this.priority = priority;
         setDirty();
+        getServerZone().zoneLayoutChanged();
     }
 
     @Override
@@ -0,0 +1,255 @@
+package com.forgeessentials.api.permissions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.forgeessentials.commons.selections.AreaBase;
+import com.forgeessentials.commons.selections.Point;
+import com.forgeessentials.commons.selections.WorldArea;
+import com.forgeessentials.commons.selections.WorldPoint;
+
+/**
+ * Chunk-bucketed spatial index over the {@link AreaZone}s of a {@link WorldZone}. Lookups only test zones whose bounds
+ * overlap the chunk of the queried position and return them in the same priority order as
+ * {@link WorldZone#getAreaZones()}.
+ */
+class AreaZoneIndex
+{
+
+    /**
+     * Zones spanning more chunks than this are not put into buckets, but tested on every lookup instead
+     */
+    public static final int MAX_BUCKET_CHUNKS = 1024;
+
+    private static final Comparator<Entry> ORDER_COMPARATOR = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b)
+        {
+            return Integer.compare(a.order, b.order);
+        }
+    };
+
+    private static final List<Entry> EMPTY = Collections.emptyList();
+
+    private static class Entry
+    {
+
+        final AreaZone zone;
+
+        int order = Integer.MAX_VALUE;
+
+        int minX, minZ, maxX, maxZ;
+
+        boolean large;
+
+        Entry(AreaZone zone)
+        {
+            this.zone = zone;
+        }
+
+        boolean updateBounds()
+        {
+            AreaBase area = zone.getArea();
+            int newMinX = area.getLowPoint().getX() >> 4;
+            int newMinZ = area.getLowPoint().getZ() >> 4;
+            int newMaxX = area.getHighPoint().getX() >> 4;
+            int newMaxZ = area.getHighPoint().getZ() >> 4;
+            if (newMinX == minX && newMinZ == minZ && newMaxX == maxX && newMaxZ == maxZ)
+                return false;
+            minX = newMinX;
+            minZ = newMinZ;
+            maxX = newMaxX;
+            maxZ = newMaxZ;
+            large = (long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_BUCKET_CHUNKS;
+            return true;
+        }
+
+    }
+
+    private Map<AreaZone, Entry> entries = new HashMap<>();
+
+    private Map<Long, List<Entry>> buckets = new HashMap<>();
+
+    private List<Entry> largeEntries = new ArrayList<>();
+
+    // ------------------------------------------------------------
+
+    public AreaZoneIndex(Collection<AreaZone> sortedZones)
+    {
+        for (AreaZone zone : sortedZones)
+            add(zone);
+        updateOrder(sortedZones);
+    }
+
+    public static long getChunkKey(int chunkX, int chunkZ)
+    {
+        return (long) chunkX << 32 | chunkZ & 0xFFFFFFFFL;
+    }
+
+    // ------------------------------------------------------------
+
+    /**
+     * Adds a zone to the index. The zone only gets its final position after the next call to
+     * {@link #updateOrder(Collection)}.
+     */
+    public void add(AreaZone zone)
+    {
+        if (entries.containsKey(zone))
+            return;
+        Entry entry = new Entry(zone);
+        entry.updateBounds();
+        entries.put(zone, entry);
+        insert(entry);
+    }
+
+    public void remove(AreaZone zone)
+    {
+        Entry entry = entries.remove(zone);
+        if (entry != null)
+            erase(entry);
+    }
+
+    /**
+     * Must be called whenever the zone list was sorted. Assigns the new priority order to all entries and moves entries
+     * whose area changed since they were indexed.
+     */
+    public void updateOrder(Collection<AreaZone> sortedZones)
+    {
+        int order = 0;
+        for (AreaZone zone : sortedZones)
+        {
+            Entry entry = entries.get(zone);
+            if (entry == null)
+            {
+                add(zone);
+                entry = entries.get(zone);
+            }
+            else
+            {
+                int oldMinX = entry.minX, oldMinZ = entry.minZ, oldMaxX = entry.maxX, oldMaxZ = entry.maxZ;
+                boolean oldLarge = entry.large;
+                if (entry.updateBounds())
+                {
+                    erase(entry, oldMinX, oldMinZ, oldMaxX, oldMaxZ, oldLarge);
+                    insert(entry);
+                }
+            }
+            entry.order = order++;
+        }
+        for (List<Entry> bucket : buckets.values())
+            Collections.sort(bucket, ORDER_COMPARATOR);
+        Collections.sort(largeEntries, ORDER_COMPARATOR);
+    }
+
+    private void insert(Entry entry)
+    {
+        if (entry.large)
+        {
+            largeEntries.add(entry);
+            return;
+        }
+        for (int x = entry.minX; x <= entry.maxX; x++)
+            for (int z = entry.minZ; z <= entry.maxZ; z++)
+            {
+                long key = getChunkKey(x, z);
+                List<Entry> bucket = buckets.get(key);
+                if (bucket == null)
+                {
+                    bucket = new ArrayList<>(2);
+                    buckets.put(key, bucket);
+                }
+                bucket.add(entry);
+            }
+    }
+
+    private void erase(Entry entry)
+    {
+        erase(entry, entry.minX, entry.minZ, entry.maxX, entry.maxZ, entry.large);
+    }
+
+    private void erase(Entry entry, int minX, int minZ, int maxX, int maxZ, boolean large)
+    {
+        if (large)
+        {
+            largeEntries.remove(entry);
+            return;
+        }
+        for (int x = minX; x <= maxX; x++)
+            for (int z = minZ; z <= maxZ; z++)
+            {
+                long key = getChunkKey(x, z);
+                List<Entry> bucket = buckets.get(key);
+                if (bucket == null)
+                    continue;
+                bucket.remove(entry);
+                if (bucket.isEmpty())
+                    buckets.remove(key);
+            }
+    }
+
+    // ------------------------------------------------------------
+
+    /**
+     * Adds all zones containing the point to the result in priority order
+     */
+    public void getZonesAt(WorldPoint point, Collection<? super AreaZone> result)
+    {
+        List<Entry> bucket = getBucket(point);
+        int i = 0, j = 0;
+        while (i < bucket.size() || j < largeEntries.size())
+        {
+            Entry entry;
+            if (j >= largeEntries.size() || i < bucket.size() && bucket.get(i).order <= largeEntries.get(j).order)
+                entry = bucket.get(i++);
+            else
+                entry = largeEntries.get(j++);
+            if (entry.zone.isInZone(point))
+                result.add(entry.zone);
+        }
+    }
+
+    /**
+     * Adds all zones entirely containing the area to the result in priority order
+     */
+    public void getZonesAt(WorldArea area, Collection<? super AreaZone> result)
+    {
+        // A zone containing the whole area must also contain the low point
+        List<Entry> bucket = getBucket(area.getLowPoint());
+        int i = 0, j = 0;
+        while (i < bucket.size() || j < largeEntries.size())
+        {
+            Entry entry;
+            if (j >= largeEntries.size() || i < bucket.size() && bucket.get(i).order <= largeEntries.get(j).order)
+                entry = bucket.get(i++);
+            else
+                entry = largeEntries.get(j++);
+            if (entry.zone.isInZone(area))
+                result.add(entry.zone);
+        }
+    }
+
+    /**
+     * Checks if any zone overlaps the chunk. If not, all positions in the chunk are in the same zones.
+     */
+    public boolean hasZonesInChunk(int chunkX, int chunkZ)
+    {
+        if (buckets.containsKey(getChunkKey(chunkX, chunkZ)))
+            return true;
+        for (Entry entry : largeEntries)
+            if (chunkX >= entry.minX && chunkX <= entry.maxX && chunkZ >= entry.minZ && chunkZ <= entry.maxZ)
+                return true;
+        return false;
+    }
+
+    private List<Entry> getBucket(Point point)
+    {
+        List<Entry> bucket = buckets.get(getChunkKey(point.getX() >> 4, point.getZ() >> 4));
+        return bucket == null ? EMPTY : bucket;
+    }
+
+}
@@ -1,10 +1,13 @@
 package com.forgeessentials.api.permissions;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.SortedSet;
+import java.util.function.Function;
 
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.server.permission.DefaultPermissionLevel;
 import net.minecraftforge.server.permission.IPermissionHandler;
 
@@ -43,6 +46,8 @@ public interface IPermissionsHelper extends IPermissionHandler
 
     String getPermission(UserIdent ident, WorldPoint point, WorldArea area, List<String> groups, String permissionNode, boolean isProperty);
 
+    String getPermission(UserIdent ident, WorldPoint point, WorldArea area, List<String> groups, PermissionNode permissionNode, boolean isProperty);
+
     /**
      * Checks a permission for a player
      * 
@@ -135,6 +140,14 @@ public interface IPermissionsHelper extends IPermissionHandler
      */
     boolean checkUserPermission(UserIdent ident, String permissionNode);
 
+    /**
+     * Checks a permission for a player
+     * 
+     * @param ident
+     * @param permissionNode
+     */
+    boolean checkUserPermission(UserIdent ident, PermissionNode permissionNode);
+
     /**
      * Gets a permission-property for a player
      * 
@@ -164,6 +177,15 @@ public interface IPermissionsHelper extends IPermissionHandler
      */
     boolean checkUserPermission(UserIdent ident, WorldPoint targetPoint, String permissionNode);
 
+    /**
+     * Checks a permission for a player at a certain position
+     * 
+     * @param ident
+     * @param targetPoint
+     * @param permissionNode
+     */
+    boolean checkUserPermission(UserIdent ident, WorldPoint targetPoint, PermissionNode permissionNode);
+
     /**
      * Gets a permission-property for a player at a certain position
      * 
@@ -174,6 +196,19 @@ public interface IPermissionsHelper extends IPermissionHandler
      */
     String getUserPermissionProperty(UserIdent ident, WorldPoint targetPoint, String permissionNode);
 
+    /**
+     * Checks a permission for a player at many positions at once. Positions with the same zones are grouped, so each
+     * permission node only needs to be evaluated once per distinct set of zones.
+     * 
+     * @param ident
+     * @param dimension
+     * @param positions
+     * @param permissionNodes
+     *            returns the permission node to check for a position
+     * @return set of the indexes of all positions where the permission is granted
+     */
+    BitSet checkUserPermissions(UserIdent ident, int dimension, List<BlockPos> positions, Function<BlockPos, PermissionNode> permissionNodes);
+
     // ---------------------------------------------------------------------------
 
     /**
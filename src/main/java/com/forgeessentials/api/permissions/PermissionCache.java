@@ -0,0 +1,260 @@
+package com.forgeessentials.api.permissions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.forgeessentials.api.UserIdent;
+
+/**
+ * Caches resolved permission values by (user, groups, zone chain, node). The cache is held by the {@link ServerZone}
+ * and must be invalidated whenever stored permissions change. Zone chains and group lists are part of the key, so moving
+ * or resizing zones does not require invalidation.
+ * <p>
+ * Lookups can happen on other threads than the server thread (e.g. remote sessions). Values are only stored if no
+ * invalidation happened while they were resolved, see {@link #getGeneration()}.
+ */
+public class PermissionCache
+{
+
+    /**
+     * Maximum number of cached values. If exceeded, the cache is cleared.
+     */
+    public static final int MAX_SIZE = 1 << 16;
+
+    public static boolean enabled = true;
+
+    private static final String NULL_VALUE = new String("null");
+
+    public static class Key
+    {
+
+        private final Collection<Zone> zones;
+
+        private final UserIdent ident;
+
+        private final List<String> groups;
+
+        private final PermissionNode node;
+
+        private final boolean isProperty;
+
+        private final int hashCode;
+
+        public Key(Collection<Zone> zones, UserIdent ident, List<String> groups, PermissionNode node, boolean isProperty)
+        {
+            this.zones = zones;
+            this.ident = ident;
+            this.groups = groups;
+            this.node = node;
+            this.isProperty = isProperty;
+            int hash = zones.hashCode();
+            hash = 31 * hash + Objects.hashCode(ident);
+            hash = 31 * hash + Objects.hashCode(groups);
+            hash = 31 * hash + node.hashCode();
+            this.hashCode = isProperty ? ~hash : hash;
+        }
+
+        /**
+         * Creates a copy of the key which does not share the (mutable) zone and group lists
+         */
+        private Key copy()
+        {
+            return new Key(new ArrayList<>(zones), ident, groups == null ? null : new ArrayList<>(groups), node, isProperty);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hashCode == other.hashCode && isProperty == other.isProperty && node.equals(other.node) && Objects.equals(ident, other.ident)
+                    && Objects.equals(groups, other.groups) && zones.equals(other.zones);
+        }
+
+    }
+
+    private final Map<Key, String> values = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    // ------------------------------------------------------------
+
+    /**
+     * Returns the cached value for the key or null, if nothing is cached. Cached null values are returned as a
+     * placeholder which needs to be converted with {@link #unwrap(String)}.
+     */
+    public String get(Key key)
+    {
+        String value = values.get(key);
+        if (value != null)
+            hits.increment();
+        else
+            misses.increment();
+        return value;
+    }
+
+    public static String unwrap(String value)
+    {
+        return value == NULL_VALUE ? null : value;
+    }
+
+    /**
+     * Returns the current generation, which changes on every invalidation. It needs to be retrieved before resolving a
+     * value that is passed to {@link #put(Key, String, long)}.
+     */
+    public long getGeneration()
+    {
+        return generation.get();
+    }
+
+    /**
+     * Stores the value, unless the cache was invalidated since the generation was retrieved
+     */
+    public void put(Key key, String value, long generation)
+    {
+        if (values.size() >= MAX_SIZE)
+            clear();
+        if (this.generation.get() != generation)
+            return;
+        values.put(key.copy(), value == null ? NULL_VALUE : value);
+        // Drop the value again, if it was invalidated while it was stored
+        if (this.generation.get() != generation)
+            values.remove(key);
+    }
+
+    // ------------------------------------------------------------
+
+    public void clear()
+    {
+        generation.incrementAndGet();
+        if (!values.isEmpty())
+            invalidations.increment();
+        values.clear();
+    }
+
+    /**
+     * Invalidates all cached values for a user that could be affected by a change of the permission node
+     *
+     * @param ident
+     * @param changedNode
+     *            the changed node or null, if all values for the user should be invalidated
+     */
+    public void invalidateUser(UserIdent ident, String changedNode)
+    {
+        generation.incrementAndGet();
+        for (Iterator<Key> it = values.keySet().iterator(); it.hasNext();)
+        {
+            Key key = it.next();
+            if (Objects.equals(key.ident, ident) && isAffected(key, changedNode))
+            {
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Invalidates all cached values for a group that could be affected by a change of the permission node
+     *
+     * @param group
+     * @param changedNode
+     *            the changed node or null, if all values for the group should be invalidated
+     */
+    public void invalidateGroup(String group, String changedNode)
+    {
+        generation.incrementAndGet();
+        for (Iterator<Key> it = values.keySet().iterator(); it.hasNext();)
+        {
+            Key key = it.next();
+            if (key.groups != null && key.groups.contains(group) && isAffected(key, changedNode))
+            {
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Invalidates all cached values which were resolved with the zone being part of the zone chain
+     */
+    public void invalidateZone(Zone zone)
+    {
+        generation.incrementAndGet();
+        for (Iterator<Key> it = values.keySet().iterator(); it.hasNext();)
+        {
+            if (it.next().zones.contains(zone))
+            {
+                it.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    private static boolean isAffected(Key key, String changedNode)
+    {
+        String node = key.node.getName();
+        if (changedNode == null || changedNode.equals(node))
+            return true;
+        if (key.isProperty)
+            return false;
+        // Wildcard nodes (fe.commands.*, *) affect all child nodes
+        if (changedNode.equals(Zone.PERMISSION_ASTERIX))
+            return true;
+        if (!changedNode.endsWith(Zone.ALL_PERMS))
+            return false;
+        String prefix = changedNode.substring(0, changedNode.length() - Zone.ALL_PERMS.length());
+        return node.equals(prefix) || node.startsWith(prefix) && node.charAt(prefix.length()) == '.';
+    }
+
+    // ------------------------------------------------------------
+
+    public int size()
+    {
+        return values.size();
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    public long getInvalidations()
+    {
+        return invalidations.sum();
+    }
+
+    public void resetStats()
+    {
+        hits.reset();
+        misses.reset();
+        invalidations.reset();
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.forgeessentials.api.permissions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.forgeessentials.api.UserIdent;
+
+/**
+ * Records which parts of the permission data changed since the last save, so persistence providers only need to write
+ * the changed zones, groups and players.
+ * <p>
+ * A zone marked as dirty needs to be written completely (zone data and all permissions). A full journal requires all
+ * data to be rewritten, which is needed when zones are deleted. New zones are only marked as dirty.
+ */
+public class PermissionChangeJournal
+{
+
+    private boolean full;
+
+    private Set<Integer> dirtyZones = new HashSet<>();
+
+    private Map<Integer, Set<String>> dirtyGroups = new HashMap<>();
+
+    private Map<Integer, Set<UserIdent>> dirtyPlayers = new HashMap<>();
+
+    public PermissionChangeJournal(boolean full)
+    {
+        this.full = full;
+    }
+
+    // ------------------------------------------------------------
+
+    public void markFull()
+    {
+        full = true;
+    }
+
+    public void markZone(Zone zone)
+    {
+        if (!full)
+            dirtyZones.add(zone.getId());
+    }
+
+    public void markGroup(Zone zone, String group)
+    {
+        if (full || dirtyZones.contains(zone.getId()))
+            return;
+        Set<String> groups = dirtyGroups.get(zone.getId());
+        if (groups == null)
+        {
+            groups = new HashSet<>();
+            dirtyGroups.put(zone.getId(), groups);
+        }
+        groups.add(group);
+    }
+
+    public void markPlayer(Zone zone, UserIdent ident)
+    {
+        if (full || dirtyZones.contains(zone.getId()))
+            return;
+        Set<UserIdent> players = dirtyPlayers.get(zone.getId());
+        if (players == null)
+        {
+            players = new HashSet<>();
+            dirtyPlayers.put(zone.getId(), players);
+        }
+        players.add(ident);
+    }
+
+    /**
+     * Returns a journal with all recorded changes and resets this one
+     */
+    public PermissionChangeJournal drain()
+    {
+        PermissionChangeJournal result = new PermissionChangeJournal(full);
+        result.dirtyZones = dirtyZones;
+        result.dirtyGroups = dirtyGroups;
+        result.dirtyPlayers = dirtyPlayers;
+        clear();
+        return result;
+    }
+
+    public void clear()
+    {
+        full = false;
+        dirtyZones = new HashSet<>();
+        dirtyGroups = new HashMap<>();
+        dirtyPlayers = new HashMap<>();
+    }
+
+    // ------------------------------------------------------------
+
+    public boolean isFull()
+    {
+        return full;
+    }
+
+    public boolean isEmpty()
+    {
+        return !full && dirtyZones.isEmpty() && dirtyGroups.isEmpty() && dirtyPlayers.isEmpty();
+    }
+
+    public boolean isZoneDirty(int zoneId)
+    {
+        return full || dirtyZones.contains(zoneId);
+    }
+
+    /**
+     * Checks if any data of the zone changed
+     */
+    public boolean isZoneTouched(int zoneId)
+    {
+        return isZoneDirty(zoneId) || dirtyGroups.containsKey(zoneId) || dirtyPlayers.containsKey(zoneId);
+    }
+
+    public boolean isGroupDirty(int zoneId, String group)
+    {
+        if (isZoneDirty(zoneId))
+            return true;
+        Set<String> groups = dirtyGroups.get(zoneId);
+        return groups != null && groups.contains(group);
+    }
+
+    public boolean isPlayerDirty(int zoneId, UserIdent ident)
+    {
+        if (isZoneDirty(zoneId))
+            return true;
+        Set<UserIdent> players = dirtyPlayers.get(zoneId);
+        return players != null && players.contains(ident);
+    }
+
+    /**
+     * Returns the dirty groups of a zone which is not completely dirty
+     */
+    public Set<String> getDirtyGroups(int zoneId)
+    {
+        Set<String> groups = dirtyGroups.get(zoneId);
+        return groups == null ? Collections.<String> emptySet() : groups;
+    }
+
+    /**
+     * Returns the dirty players of a zone which is not completely dirty
+     */
+    public Set<UserIdent> getDirtyPlayers(int zoneId)
+    {
+        Set<UserIdent> players = dirtyPlayers.get(zoneId);
+        return players == null ? Collections.<UserIdent> emptySet() : players;
+    }
+
+}
@@ -2,6 +2,7 @@ package com.forgeessentials.api.permissions;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.minecraftforge.fml.common.eventhandler.Event;
 
@@ -31,4 +32,34 @@ public class PermissionCheckEvent extends Event
         this.isProperty = isProperty;
     }
 
+    // ------------------------------------------------------------
+
+    private static final AtomicInteger listeners = new AtomicInteger();
+
+    /**
+     * Checks whether any handler listens for this event. Permission checks skip creating and posting the event if
+     * there is none.
+     */
+    public static boolean hasListeners()
+    {
+        return listeners.get() > 0;
+    }
+
+    /**
+     * Needs to be called when registering a handler for this event on the FE event bus. Otherwise the event is not
+     * posted.
+     */
+    public static void addListener()
+    {
+        listeners.incrementAndGet();
+    }
+
+    /**
+     * Needs to be called when unregistering a handler added with {@link #addListener()}
+     */
+    public static void removeListener()
+    {
+        listeners.decrementAndGet();
+    }
+
 }
@@ -0,0 +1,197 @@
+package com.forgeessentials.api.permissions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interned permission node. Each node string maps to one instance, which holds the precomputed list of nodes checked
+ * during permission resolution (e.g. fe.commands.time, fe.commands.time.*, fe.commands.*, fe.*, *).
+ * <p>
+ * The intern table is bounded by {@link #MAX_NODES}. Once it is full, unknown nodes are created on every lookup
+ * instead, so nodes built from item names or metadata cannot grow it forever. Use {@link #equals(Object)} to compare
+ * nodes, which is an identity check for interned ones.
+ */
+public final class PermissionNode
+{
+
+    private static final int MAX_INDEX_CHILDREN = 1 << 12;
+
+    /**
+     * Maximum number of interned nodes
+     */
+    public static final int MAX_NODES = 1 << 16;
+
+    private static final ConcurrentMap<String, PermissionNode> nodes = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+
+    private final int id;
+
+    private final String name;
+
+    private final PermissionNode parent;
+
+    private final boolean interned;
+
+    private final List<String> checkNodes;
+
+    private final List<String> propertyNodes;
+
+    private final ConcurrentMap<String, PermissionNode> children = new ConcurrentHashMap<>();
+
+    private volatile PermissionNode[] indexChildren = new PermissionNode[0];
+
+    private PermissionNode(String name, boolean interned)
+    {
+        this.id = interned ? nextId.getAndIncrement() : -1;
+        this.name = name;
+        this.interned = interned;
+
+        int idx = name.lastIndexOf('.');
+        this.parent = idx > 0 ? get(name.substring(0, idx)) : null;
+
+        List<String> checkNodes = new ArrayList<>();
+        checkNodes.add(name);
+        if (!name.equals(Zone.PERMISSION_ASTERIX))
+        {
+            checkNodes.add(name + Zone.ALL_PERMS);
+            for (PermissionNode p = parent; p != null; p = p.parent)
+                checkNodes.add(p.name + Zone.ALL_PERMS);
+            checkNodes.add(Zone.PERMISSION_ASTERIX);
+        }
+        this.checkNodes = Collections.unmodifiableList(checkNodes);
+        this.propertyNodes = Collections.singletonList(name);
+    }
+
+    /**
+     * Returns the interned node for the given node string
+     */
+    public static PermissionNode get(String name)
+    {
+        PermissionNode node = nodes.get(name);
+        if (node != null)
+            return node;
+        if (nodes.size() >= MAX_NODES)
+            return new PermissionNode(name, false);
+        node = new PermissionNode(name, true);
+        PermissionNode existing = nodes.putIfAbsent(name, node);
+        return existing != null ? existing : node;
+    }
+
+    /**
+     * Returns the node <code>this + "." + suffix</code>. The result is cached per suffix, so repeated lookups with the
+     * same suffix do not build any strings, as long as the child is interned. The suffix may contain dots itself.
+     */
+    public PermissionNode getChild(String suffix)
+    {
+        if (suffix == null)
+            suffix = "null";
+        PermissionNode child = children.get(suffix);
+        if (child == null)
+        {
+            child = get(name + '.' + suffix);
+            if (child.interned)
+                children.putIfAbsent(suffix, child);
+        }
+        return child;
+    }
+
+    /**
+     * Returns the node <code>this + "." + index</code> (e.g. for metadata values) without building a string for
+     * already known indices
+     */
+    public PermissionNode getChild(int index)
+    {
+        PermissionNode[] cache = indexChildren;
+        if (index >= 0 && index < cache.length && cache[index] != null)
+            return cache[index];
+        if (index < 0 || index >= MAX_INDEX_CHILDREN)
+            return getChild(Integer.toString(index));
+        synchronized (this)
+        {
+            cache = indexChildren;
+            if (index >= cache.length)
+                cache = Arrays.copyOf(cache, Math.max(index + 1, cache.length * 2));
+            PermissionNode child = cache[index];
+            if (child == null)
+            {
+                child = getChild(Integer.toString(index));
+                if (!child.interned)
+                    return child;
+                cache[index] = child;
+            }
+            indexChildren = cache;
+            return child;
+        }
+    }
+
+    // ------------------------------------------------------------
+
+    /**
+     * Returns the id of an interned node or -1
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    public boolean isInterned()
+    {
+        return interned;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public PermissionNode getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * Returns the nodes which need to be checked for a permission value in order of precedence
+     */
+    public List<String> getCheckNodes()
+    {
+        return checkNodes;
+    }
+
+    /**
+     * Returns the nodes which need to be checked for a permission property
+     */
+    public List<String> getPropertyNodes()
+    {
+        return propertyNodes;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return name.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof PermissionNode))
+            return false;
+        PermissionNode other = (PermissionNode) obj;
+        return !(interned && other.interned) && name.equals(other.name);
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+}
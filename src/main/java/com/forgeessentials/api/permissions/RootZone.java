@@ -1,5 +1,6 @@
 package com.forgeessentials.api.permissions;
 
+import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.ServerZone.PermissionDebugger;
 import com.forgeessentials.commons.selections.WorldArea;
 import com.forgeessentials.commons.selections.WorldPoint;
@@ -87,4 +88,16 @@ public class RootZone extends Zone
         permissionHelper.setDirty(true);
     }
 
+    @Override
+    public void setGroupDirty(String group)
+    {
+        setDirty();
+    }
+
+    @Override
+    public void setPlayerDirty(UserIdent ident)
+    {
+        setDirty();
+    }
+
 }
@@ -1,8 +1,8 @@
 package com.forgeessentials.api.permissions;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -12,8 +12,12 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 
@@ -48,6 +52,49 @@ public class ServerZone extends Zone implements Loadable
     @Expose(serialize = false)
     private Set<UserIdent> knownPlayers = new HashSet<UserIdent>();
 
+    @Expose(serialize = false)
+    private volatile PermissionCache permissionCache;
+
+    @Expose(serialize = false)
+    private PermissionChangeJournal changeJournal;
+
+    @Expose(serialize = false)
+    private Map<UUID, PlayerZones> playerZones = new ConcurrentHashMap<>();
+
+    @Expose(serialize = false)
+    private volatile int zoneLayoutVersion;
+
+    /**
+     * Zones at the block position of a player, see {@link ServerZone#getPlayerZones(EntityPlayer)}. Entries are replaced
+     * instead of updated, because permission checks can also happen on other threads.
+     */
+    private static class PlayerZones
+    {
+
+        private final int version;
+
+        private final int dimension;
+
+        private final int x;
+
+        private final int y;
+
+        private final int z;
+
+        private final List<Zone> zones;
+
+        public PlayerZones(int version, int dimension, int x, int y, int z, List<Zone> zones)
+        {
+            this.version = version;
+            this.dimension = dimension;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.zones = zones;
+        }
+
+    }
+
     // ------------------------------------------------------------
 
     public ServerZone()
@@ -57,6 +104,15 @@ public class ServerZone extends Zone implements Loadable
         addZone(this);
     }
 
+    /**
+     * Creates a detached server zone for {@link #createSnapshot(PermissionChangeJournal)} without posting any events
+     */
+    private ServerZone(int id)
+    {
+        super(id);
+        addZone(this);
+    }
+
     public ServerZone(RootZone rootZone)
     {
         this();
@@ -151,7 +207,7 @@ public class ServerZone extends Zone implements Loadable
     {
         worldZones.put(zone.getDimensionID(), zone);
         addZone(zone);
-        setDirty();
+        zone.setDirty();
     }
 
     public WorldZone getWorldZone(int dimensionId)
@@ -187,7 +243,24 @@ public class ServerZone extends Zone implements Loadable
             return false;
         setGroupPermission(name, FEPermissions.GROUP, true);
         setGroupPermissionProperty(name, FEPermissions.GROUP_PRIORITY, Integer.toString(FEPermissions.GROUP_PRIORITY_DEFAULT));
+        setGroupDirty(name);
+        return true;
+    }
+
+    /**
+     * Deletes the group and removes all players from it
+     */
+    public boolean deleteGroup(String name)
+    {
+        if (!groupExists(name) || APIRegistry.getFEEventBus().post(new PermissionEvent.Group.Delete(this, name)))
+            return false;
+        for (Set<String> groups : playerGroups.values())
+            groups.remove(name);
+        getGroupPermissions().remove(name);
+        // Deleted groups can only be removed from storage with a full save
+        getChangeJournal().markFull();
         setDirty();
+        getPermissionCache().invalidateGroup(name, null);
         return true;
     }
 
@@ -262,6 +335,8 @@ public class ServerZone extends Zone implements Loadable
             if (APIRegistry.getFEEventBus().post(new PermissionEvent.User.ModifyGroups(this, ident, PermissionEvent.User.ModifyGroups.Action.ADD, group)))
                 return false;
             groupSet.add(group);
+            setPlayerDirty(ident);
+            getPermissionCache().invalidateUser(ident, null);
         }
         return true;
     }
@@ -275,7 +350,8 @@ public class ServerZone extends Zone implements Loadable
         Set<String> groupSet = playerGroups.get(ident);
         if (groupSet != null)
             groupSet.remove(group);
-        setDirty();
+        setPlayerDirty(ident);
+        getPermissionCache().invalidateUser(ident, null);
         return true;
     }
 
@@ -463,15 +539,17 @@ public class ServerZone extends Zone implements Loadable
     {
         WorldZone w = getWorldZone(worldPoint.getDimension());
         List<Zone> result = new ArrayList<Zone>();
-        for (AreaZone zone : w.getAreaZones())
-            if (zone.isInZone(worldPoint))
-                result.add(zone);
+        w.getAreaZonesAt(worldPoint, result);
         result.add(w);
         result.add(this);
         result.add(rootZone);
         return result;
     }
 
+    /**
+     * Returns the zones at the position of the player. For online players the cached result of
+     * {@link #getPlayerZones(EntityPlayer)} is returned, which must not be modified.
+     */
     public List<Zone> getZonesAt(UserIdent ident)
     {
         if (ident == null)
@@ -480,7 +558,7 @@ public class ServerZone extends Zone implements Loadable
         }
         else if (ident.hasPlayer())
         {
-            return getZonesAt(new WorldPoint(ident.getPlayer()));
+            return getPlayerZones(ident.getPlayer());
         }
         else
         {
@@ -490,6 +568,47 @@ public class ServerZone extends Zone implements Loadable
         }
     }
 
+    /**
+     * Returns the zones at the block position of the player. The result is cached until the player changes the block
+     * position or the zone layout changes, and must not be modified.
+     */
+    public List<Zone> getPlayerZones(EntityPlayer player)
+    {
+        int x = MathHelper.floor(player.posX);
+        int y = MathHelper.floor(player.posY);
+        int z = MathHelper.floor(player.posZ);
+        int dimension = player.dimension;
+        int version = zoneLayoutVersion;
+        PlayerZones cached = playerZones.get(player.getPersistentID());
+        if (cached != null && cached.version == version && cached.dimension == dimension && cached.x == x && cached.y == y && cached.z == z)
+            return cached.zones;
+        cached = new PlayerZones(version, dimension, x, y, z, Collections.unmodifiableList(getZonesAt(new WorldPoint(dimension, x, y, z))));
+        playerZones.put(player.getPersistentID(), cached);
+        return cached.zones;
+    }
+
+    public void removePlayerZones(UUID uuid)
+    {
+        playerZones.remove(uuid);
+    }
+
+    /**
+     * Must be called whenever area zones are added, removed, moved or reordered, so cached zones of players get
+     * recomputed
+     */
+    public void zoneLayoutChanged()
+    {
+        zoneLayoutVersion++;
+    }
+
+    /**
+     * Returns a counter which is incremented whenever the zone layout changes
+     */
+    public int getZoneLayoutVersion()
+    {
+        return zoneLayoutVersion;
+    }
+
     public Zone getZoneAt(WorldPoint worldPoint)
     {
         List<Zone> zones = getZonesAt(worldPoint);
@@ -500,9 +619,7 @@ public class ServerZone extends Zone implements Loadable
     {
         WorldZone w = getWorldZone(worldPoint.getDimension());
         List<AreaZone> result = new ArrayList<AreaZone>();
-        for (AreaZone zone : w.getAreaZones())
-            if (zone.isInZone(worldPoint))
-                result.add(zone);
+        w.getAreaZonesAt(worldPoint, result);
         return result;
     }
 
@@ -519,6 +636,7 @@ public class ServerZone extends Zone implements Loadable
         if (ident == null || knownPlayers.contains(ident))
             return;
         knownPlayers.add(ident);
+        getChangeJournal().markPlayer(this, ident);
         PermissionList map = getOrCreatePlayerPermissions(ident);
         if (map.isEmpty())
             map.put(FEPermissions.PLAYER_KNOWN, PERMISSION_TRUE);
@@ -533,25 +651,40 @@ public class ServerZone extends Zone implements Loadable
 
     public String getPermission(Collection<Zone> zones, UserIdent ident, List<String> groups, String permissionNode, WorldPoint point)
     {
-        // Build node list
-        List<String> nodes = new ArrayList<String>();
-        nodes.add(permissionNode);
-        String[] nodeParts = permissionNode.split("\\.");
-        for (int i = nodeParts.length; i > 0; i--)
+        return getPermission(zones, ident, groups, PermissionNode.get(permissionNode), point);
+    }
+
+    public String getPermission(Collection<Zone> zones, UserIdent ident, List<String> groups, PermissionNode permissionNode, WorldPoint point)
+    {
+        // Node list (e.g. fe.commands.time, fe.commands.time.*, fe.commands.*, fe.*, *)
+        List<String> nodes = permissionNode.getCheckNodes();
+
+        if (PermissionCheckEvent.hasListeners())
         {
-            String node = "";
-            for (int j = 0; j < i; j++)
-            {
-                node += nodeParts[j] + ".";
-            }
-            nodes.add(node + PERMISSION_ASTERIX);
+            PermissionCheckEvent event = postPermissionCheckEvent(zones, ident, groups, nodes, false);
+            if (event.result != null)
+                return event.result;
         }
-        nodes.add(PERMISSION_ASTERIX);
 
-        PermissionCheckEvent event = postPermissionCheckEvent(zones, ident, groups, nodes, false);
-        if (event.result != null)
-            return event.result;
+        PermissionCache.Key cacheKey = null;
+        long generation = 0;
+        if (isPermissionCacheActive())
+        {
+            cacheKey = new PermissionCache.Key(zones, ident, groups, permissionNode, false);
+            generation = getPermissionCache().getGeneration();
+            String cached = getPermissionCache().get(cacheKey);
+            if (cached != null)
+                return PermissionCache.unwrap(cached);
+        }
+        String result = resolvePermission(zones, ident, groups, permissionNode.getName(), nodes, point);
+        if (cacheKey != null)
+            getPermissionCache().put(cacheKey, result, generation);
+        return result;
+    }
 
+    private String resolvePermission(Collection<Zone> zones, UserIdent ident, List<String> groups, String permissionNode, List<String> nodes,
+            WorldPoint point)
+    {
         // Check player permissions
         if (ident != null)
         {
@@ -604,10 +737,36 @@ public class ServerZone extends Zone implements Loadable
 
     public String getPermissionProperty(Collection<Zone> zones, UserIdent ident, List<String> groups, String node, WorldPoint point)
     {
-        PermissionCheckEvent event = postPermissionCheckEvent(zones, ident, groups, Arrays.asList(node), true);
-        if (event.result != null)
-            return event.result;
+        return getPermissionProperty(zones, ident, groups, PermissionNode.get(node), point);
+    }
+
+    public String getPermissionProperty(Collection<Zone> zones, UserIdent ident, List<String> groups, PermissionNode node, WorldPoint point)
+    {
+        if (PermissionCheckEvent.hasListeners())
+        {
+            PermissionCheckEvent event = postPermissionCheckEvent(zones, ident, groups, node.getPropertyNodes(), true);
+            if (event.result != null)
+                return event.result;
+        }
+
+        PermissionCache.Key cacheKey = null;
+        long generation = 0;
+        if (isPermissionCacheActive())
+        {
+            cacheKey = new PermissionCache.Key(zones, ident, groups, node, true);
+            generation = getPermissionCache().getGeneration();
+            String cached = getPermissionCache().get(cacheKey);
+            if (cached != null)
+                return PermissionCache.unwrap(cached);
+        }
+        String result = resolvePermissionProperty(zones, ident, groups, node.getName(), point);
+        if (cacheKey != null)
+            getPermissionCache().put(cacheKey, result, generation);
+        return result;
+    }
 
+    private String resolvePermissionProperty(Collection<Zone> zones, UserIdent ident, List<String> groups, String node, WorldPoint point)
+    {
         // Check player permissions
         if (ident != null)
         {
@@ -652,6 +811,110 @@ public class ServerZone extends Zone implements Loadable
         return null;
     }
 
+    public PermissionCache getPermissionCache()
+    {
+        PermissionCache cache = permissionCache;
+        if (cache == null)
+        {
+            synchronized (this)
+            {
+                if (permissionCache == null)
+                    permissionCache = new PermissionCache();
+                cache = permissionCache;
+            }
+        }
+        return cache;
+    }
+
+    // ------------------------------------------------------------
+
+    /**
+     * Returns the changes since the last save. A freshly created or loaded zone starts with a full journal.
+     */
+    public PermissionChangeJournal getChangeJournal()
+    {
+        if (changeJournal == null)
+            changeJournal = new PermissionChangeJournal(true);
+        return changeJournal;
+    }
+
+    /**
+     * Creates a detached copy of the permission data which can be persisted from another thread. Zones and group
+     * permissions are always copied completely, while player permissions are only copied for players changed in the
+     * journal. The player groups are stored as {@link FEPermissions#PLAYER_GROUPS} in the copy.
+     *
+     * @param changes
+     *            changes to copy or null, to copy everything
+     */
+    public ServerZone createSnapshot(PermissionChangeJournal changes)
+    {
+        ServerZone copy = new ServerZone(getId());
+        copy.maxZoneID = maxZoneID;
+        copySnapshotPermissions(this, copy, changes);
+        for (WorldZone worldZone : worldZones.values())
+        {
+            WorldZone worldCopy = new WorldZone(copy, worldZone.getDimensionID(), worldZone.getId());
+            copySnapshotPermissions(worldZone, worldCopy, changes);
+            List<AreaZone> areaCopies = new ArrayList<>(worldZone.getAreaZones().size());
+            for (AreaZone areaZone : worldZone.getAreaZones())
+            {
+                AreaZone areaCopy = areaZone.createDetachedCopy(worldCopy);
+                copySnapshotPermissions(areaZone, areaCopy, changes);
+                areaCopies.add(areaCopy);
+            }
+            worldCopy.addAreaZones(areaCopies);
+        }
+
+        Set<UserIdent> players = new HashSet<>(copy.getPlayerPermissions().keySet());
+        if (changes == null || changes.isZoneDirty(getId()))
+        {
+            players.addAll(playerGroups.keySet());
+            players.addAll(knownPlayers);
+        }
+        else
+            players.addAll(changes.getDirtyPlayers(getId()));
+        for (UserIdent ident : players)
+        {
+            if (knownPlayers.contains(ident))
+                copy.knownPlayers.add(ident);
+            Set<String> groups = playerGroups.get(ident);
+            if (groups == null)
+                continue;
+            copy.playerGroups.put(ident, new HashSet<>(groups));
+            if (!groups.isEmpty())
+                copy.getOrCreatePlayerPermissions(ident).put(FEPermissions.PLAYER_GROUPS, StringUtils.join(groups, ","));
+        }
+        return copy;
+    }
+
+    private static void copySnapshotPermissions(Zone zone, Zone target, PermissionChangeJournal changes)
+    {
+        for (Entry<String, PermissionList> group : zone.getGroupPermissions().entrySet())
+            target.getOrCreateGroupPermissions(group.getKey()).putAll(group.getValue());
+        if (changes == null || changes.isZoneDirty(zone.getId()))
+        {
+            for (Entry<UserIdent, PermissionList> player : zone.getPlayerPermissions().entrySet())
+                target.getOrCreatePlayerPermissions(player.getKey()).putAll(player.getValue());
+        }
+        else
+        {
+            for (UserIdent ident : changes.getDirtyPlayers(zone.getId()))
+            {
+                PermissionList permissions = zone.getPlayerPermissions(ident);
+                if (permissions != null)
+                    target.getOrCreatePlayerPermissions(ident).putAll(permissions);
+            }
+        }
+    }
+
+    /**
+     * The cache is bypassed while permission debugging is active, so every check still shows up in the debug output
+     */
+    private boolean isPermissionCacheActive()
+    {
+        return PermissionCache.enabled && (rootZone.permissionDebugger == null || !rootZone.permissionDebugger.isDebugActive());
+    }
+
     public static PermissionCheckEvent postPermissionCheckEvent(Collection<Zone> zones, UserIdent ident, List<String> groups, List<String> nodes,
             boolean isProperty)
     {
@@ -666,6 +929,8 @@ public class ServerZone extends Zone implements Loadable
         void debugPermission(Zone zone, UserIdent ident, String group, String permissionNode, String node, String value, WorldPoint point,
                 boolean isGroupPermission);
 
+        boolean isDebugActive();
+
     }
 
 }
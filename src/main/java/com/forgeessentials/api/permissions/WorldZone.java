@@ -26,6 +26,9 @@ public class WorldZone extends Zone implements Loadable
 
     private List<AreaZone> areaZones = new ArrayList<AreaZone>();
 
+    @Expose(serialize = false)
+    private AreaZoneIndex areaZoneIndex;
+
     public WorldZone(int id)
     {
         super(id);
@@ -49,6 +52,8 @@ public class WorldZone extends Zone implements Loadable
     {
         for (AreaZone zone : areaZones)
             zone.worldZone = this;
+        areaZoneIndex = null;
+        serverZone.zoneLayoutChanged();
     }
     
     @Override
@@ -114,7 +119,17 @@ public class WorldZone extends Zone implements Loadable
     {
         if (APIRegistry.getFEEventBus().post(new PermissionEvent.Zone.Delete(getServerZone(), zone)))
             return false;
-        return serverZone.removeZone(zone) | areaZones.remove(zone);
+        getAreaZoneIndex().remove(zone);
+        getServerZone().zoneLayoutChanged();
+        boolean removed = serverZone.removeZone(zone) | areaZones.remove(zone);
+        getServerZone().getPermissionCache().invalidateZone(zone);
+        if (removed)
+        {
+            // Deleted zones can only be removed from storage with a full save
+            getServerZone().getChangeJournal().markFull();
+            setDirty();
+        }
+        return removed;
     }
 
     public Collection<AreaZone> getAreaZones()
@@ -125,15 +140,63 @@ public class WorldZone extends Zone implements Loadable
     public void sortAreaZones()
     {
         Collections.sort(areaZones);
+        getAreaZoneIndex().updateOrder(areaZones);
+        getServerZone().zoneLayoutChanged();
     }
 
     void addAreaZone(AreaZone areaZone)
     {
         areaZones.add(areaZone);
+        getAreaZoneIndex().add(areaZone);
         getServerZone().addZone(areaZone);
         sortAreaZones();
-        setDirty();
+        areaZone.setDirty();
     }
 
+    /**
+     * Adds several area-zones at once, sorting them only once. The zones are not marked as dirty.
+     */
+    void addAreaZones(Collection<AreaZone> zones)
+    {
+        for (AreaZone areaZone : zones)
+        {
+            areaZones.add(areaZone);
+            getServerZone().addZone(areaZone);
+        }
+        Collections.sort(areaZones);
+        areaZoneIndex = null;
+        getServerZone().zoneLayoutChanged();
+    }
+
+    private AreaZoneIndex getAreaZoneIndex()
+    {
+        if (areaZoneIndex == null)
+            areaZoneIndex = new AreaZoneIndex(areaZones);
+        return areaZoneIndex;
+    }
+
+    /**
+     * Checks if any area-zone overlaps the chunk
+     */
+    public boolean hasAreaZonesInChunk(int chunkX, int chunkZ)
+    {
+        return getAreaZoneIndex().hasZonesInChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * Adds all area-zones containing the point to the result, ordered by priority
+     */
+    public void getAreaZonesAt(WorldPoint point, Collection<? super AreaZone> result)
+    {
+        getAreaZoneIndex().getZonesAt(point, result);
+    }
+
+    /**
+     * Adds all area-zones that entirely contain the area to the result, ordered by priority
+     */
+    public void getAreaZonesAt(WorldArea area, Collection<? super AreaZone> result)
+    {
+        getAreaZoneIndex().getZonesAt(area, result);
+    }
 
 }
\ No newline at end of file
@@ -234,7 +234,40 @@ public abstract class Zone
 
     public abstract ServerZone getServerZone();
 
+    /**
+     * Marks the whole zone as changed
+     */
     public void setDirty()
+    {
+        ServerZone serverZone = getServerZone();
+        if (serverZone != null)
+            serverZone.getChangeJournal().markZone(this);
+        notifyDirty();
+    }
+
+    /**
+     * Marks the permissions of a group in this zone as changed
+     */
+    public void setGroupDirty(String group)
+    {
+        ServerZone serverZone = getServerZone();
+        if (serverZone != null)
+            serverZone.getChangeJournal().markGroup(this, group);
+        notifyDirty();
+    }
+
+    /**
+     * Marks the permissions of a player in this zone as changed
+     */
+    public void setPlayerDirty(UserIdent ident)
+    {
+        ServerZone serverZone = getServerZone();
+        if (serverZone != null)
+            serverZone.getChangeJournal().markPlayer(this, ident);
+        notifyDirty();
+    }
+
+    private void notifyDirty()
     {
         if (getServerZone() != null && getServerZone().getRootZone() != null)
             getServerZone().getRootZone().getPermissionHelper().setDirty(false);
@@ -350,7 +383,8 @@ public abstract class Zone
                 map.remove(permissionNode);
             else
                 map.put(permissionNode, value);
-            setDirty();
+            setPlayerDirty(ident);
+            getServerZone().getPermissionCache().invalidateUser(ident, permissionNode);
             return true;
         }
         return false;
@@ -382,6 +416,8 @@ public abstract class Zone
             if (map != null && !APIRegistry.getFEEventBus().post(new PermissionEvent.User.ModifyPermission(getServerZone(), ident, this, permissionNode, null)))
             {
                 map.remove(permissionNode);
+                setPlayerDirty(ident);
+                getServerZone().getPermissionCache().invalidateUser(ident, permissionNode);
                 return true;
             }
         }
@@ -409,6 +445,7 @@ public abstract class Zone
         Set<String> groups = getPlayerGroups(ident);
         groups.add(group);
         setPlayerPermissionProperty(ident, FEPermissions.PLAYER_GROUPS, StringUtils.join(groups, ","));
+        getServerZone().getPermissionCache().invalidateUser(ident, null);
         return true;
     }
 
@@ -423,6 +460,7 @@ public abstract class Zone
             setPlayerPermissionProperty(ident, FEPermissions.PLAYER_GROUPS, StringUtils.join(groups, ","));
         else
             clearPlayerPermission(ident, FEPermissions.PLAYER_GROUPS);
+        getServerZone().getPermissionCache().invalidateUser(ident, null);
         return true;
     }
 
@@ -541,7 +579,8 @@ public abstract class Zone
                 map.remove(permissionNode);
             else
                 map.put(permissionNode, value);
-            setDirty();
+            setGroupDirty(group);
+            getServerZone().getPermissionCache().invalidateGroup(group, permissionNode);
             return true;
         }
         return false;
@@ -574,6 +613,8 @@ public abstract class Zone
                     && !APIRegistry.getFEEventBus().post(new PermissionEvent.Group.ModifyPermission(getServerZone(), group, this, permissionNode, null)))
             {
                 map.remove(permissionNode);
+                setGroupDirty(group);
+                getServerZone().getPermissionCache().invalidateGroup(group, permissionNode);
                 return true;
             }
         }
@@ -589,7 +630,8 @@ public abstract class Zone
         PermissionList oldPerms = playerPermissions.remove(event.oldValue);
         if (oldPerms == null)
             return;
-        setDirty();
+        setPlayerDirty(event.oldValue);
+        setPlayerDirty(event.newValue);
 
         PermissionList newPerms = playerPermissions.get(event.newValue);
         if (newPerms == null)
@@ -610,6 +652,15 @@ public abstract class Zone
         Map<UserIdent, PermissionList> swapPlayerPermissions = zone.playerPermissions;
         zone.playerPermissions = playerPermissions;
         playerPermissions = swapPlayerPermissions;
+
+        ServerZone serverZone = getServerZone();
+        if (serverZone != null)
+        {
+            serverZone.getPermissionCache().invalidateZone(this);
+            serverZone.getPermissionCache().invalidateZone(zone);
+        }
+        setDirty();
+        zone.setDirty();
     }
 
     /**
@@ -11,6 +11,21 @@ public interface RemoteManager
 
     Gson getGson();
 
+    /**
+     * Registers a topic remote sessions can subscribe to
+     */
+    void registerTopic(RemoteTopic topic);
+
+    /**
+     * Pushes data to all sessions subscribed to the topic
+     */
+    void publish(String topic, Object data);
+
+    /**
+     * Checks if any session is subscribed to the topic, so data only needs to be prepared when it is pushed
+     */
+    boolean hasSubscribers(String topic);
+
     public static class DefaultRemoteHandlerManager implements RemoteManager
     {
 
@@ -49,6 +64,24 @@ public interface RemoteManager
             return null;
         }
 
+        @Override
+        public void registerTopic(RemoteTopic topic)
+        {
+            /* do nothing */
+        }
+
+        @Override
+        public void publish(String topic, Object data)
+        {
+            /* do nothing */
+        }
+
+        @Override
+        public boolean hasSubscribers(String topic)
+        {
+            return false;
+        }
+
     }
 
 }
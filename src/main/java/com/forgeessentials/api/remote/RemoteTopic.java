@@ -0,0 +1,58 @@
+package com.forgeessentials.api.remote;
+
+/**
+ * Topic remote sessions can subscribe to.
+ * <p>
+ * Sampled topics are sampled on the server thread at the interval requested by each subscriber, and only changed values
+ * are pushed. All other topics push the data passed to {@link RemoteManager#publish(String, Object)}.
+ */
+public class RemoteTopic
+{
+
+    private final String id;
+
+    private final String permission;
+
+    /**
+     * @param id
+     * @param permission
+     *            permission required to subscribe or null to allow everyone with remote access
+     */
+    public RemoteTopic(String id, String permission)
+    {
+        this.id = id;
+        this.permission = permission;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public String getPermission()
+    {
+        return permission;
+    }
+
+    public boolean isSampled()
+    {
+        return false;
+    }
+
+    /**
+     * Returns the current value of a sampled topic. Maps are pushed as changed and removed entries.
+     */
+    public Object sample()
+    {
+        return null;
+    }
+
+    /**
+     * Returns the smallest sampling interval in milliseconds subscribers may request
+     */
+    public int getMinInterval()
+    {
+        return 1000;
+    }
+
+}
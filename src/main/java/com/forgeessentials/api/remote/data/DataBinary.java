@@ -0,0 +1,32 @@
+package com.forgeessentials.api.remote.data;
+
+import org.apache.commons.codec.binary.Base64;
+
+/**
+ * Raw binary payload of a remote response.
+ * <p>
+ * Sessions using a frame encoding send the bytes unchanged in a binary frame. Sessions using the JSON encoding receive
+ * the payload as Base64 string.
+ */
+public class DataBinary
+{
+
+    public final byte[] data;
+
+    /**
+     * Content type of the data, like "image/png"
+     */
+    public final String type;
+
+    public DataBinary(byte[] data, String type)
+    {
+        this.data = data;
+        this.type = type;
+    }
+
+    public String toBase64()
+    {
+        return Base64.encodeBase64String(data);
+    }
+
+}
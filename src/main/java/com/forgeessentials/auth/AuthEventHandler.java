@@ -29,6 +29,7 @@ import com.forgeessentials.commons.network.Packet6AuthLogin;
 import com.forgeessentials.util.events.FEPlayerEvent.ClientHandshakeEstablished;
 import com.forgeessentials.util.events.PlayerAuthLoginEvent;
 import com.forgeessentials.util.events.PlayerAuthLoginEvent.Success.Source;
+import com.forgeessentials.util.events.PlayerMinorMoveEvent;
 import com.forgeessentials.util.events.PlayerMoveEvent;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -82,6 +83,15 @@ public class AuthEventHandler extends ServerEventHandler
         }
     }
 
+    @SubscribeEvent(priority = EventPriority.HIGHEST)
+    public void playerMinorMoveEvent(PlayerMinorMoveEvent event)
+    {
+        if (!ModuleAuth.isEnabled() || ModuleAuth.canMoveWithoutLogin || notPlayer(event.getEntityPlayer()))
+            return;
+        if (!ModuleAuth.isAuthenticated(event.getEntityPlayer()))
+            event.setCanceled(true);
+    }
+
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public void serverChatEvent(ServerChatEvent event)
     {
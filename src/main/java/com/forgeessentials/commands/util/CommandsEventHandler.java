@@ -6,12 +6,15 @@ import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
 import com.forgeessentials.commands.player.CommandNoClip;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.google.common.collect.HashMultimap;
 
 public class CommandsEventHandler extends ServerEventHandler
 {
 
+    private static final TickProfiler.Section PLAYER_TICK_SECTION = TickProfiler.section("playertick", CommandsEventHandler.class);
+
     public static HashMultimap<EntityPlayer, PlayerInvChest> map = HashMultimap.create();
 
     public static int getWorldHour(World world)
@@ -47,6 +50,7 @@ public class CommandsEventHandler extends ServerEventHandler
     @SubscribeEvent
     public void tickStart(TickEvent.PlayerTickEvent event)
     {
+        long start = TickProfiler.start();
         if (map.containsKey(event.player))
         {
             for (PlayerInvChest inv : map.get(event.player))
@@ -56,6 +60,7 @@ public class CommandsEventHandler extends ServerEventHandler
         }
         if (event.phase == TickEvent.Phase.END)
             CommandNoClip.checkClip(event.player);
+        PLAYER_TICK_SECTION.end(start);
     }
 
 }
@@ -23,6 +23,7 @@ import com.forgeessentials.core.misc.Translator;
 import com.forgeessentials.util.PlayerInfo;
 import com.forgeessentials.util.ServerUtil;
 import com.forgeessentials.util.events.FEPlayerEvent.PlayerAFKEvent;
+import com.forgeessentials.util.events.PlayerMinorMoveEvent;
 import com.forgeessentials.util.events.PlayerMoveEvent;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -140,6 +141,12 @@ public class ModuleCommandsEventHandler extends ServerEventHandler implements Ru
         playerActive((EntityPlayerMP) event.getEntityPlayer());
     }
 
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void playerMinorMoveEvent(PlayerMinorMoveEvent event)
+    {
+        playerActive(event.getPlayer());
+    }
+
     @SubscribeEvent(priority = EventPriority.LOWEST)
     public void playerMoveEvent(PlayerInteractEvent event)
     {
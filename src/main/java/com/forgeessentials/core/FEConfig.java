@@ -21,6 +21,8 @@ public class FEConfig extends ConfigLoaderBase
 
     public static boolean checkSpacesInNames;
 
+    public static double significantMoveDistance;
+
     public static SimpleDateFormat FORMAT_DATE = new SimpleDateFormat("yyyy-MM-dd");
 
     public static SimpleDateFormat FORMAT_DATE_TIME = new SimpleDateFormat("dd.MM HH:mm");
@@ -51,6 +53,8 @@ public class FEConfig extends ConfigLoaderBase
                 "Once this percent of player sleeps, allow the night to pass. Set to 100 to disable.").getInt(50) / 100.0f;
         checkSpacesInNames = config.get(CONFIG_CAT_MISC, "CheckSpacesInNames", true, //
                 "Check if a player's name contains spaces (can gum up some things in FE)").getBoolean();
+        significantMoveDistance = Math.max(0, config.get(CONFIG_CAT_MISC, "SignificantMoveDistance", 0.0, //
+                "Also fire move events when a player moved this many blocks without changing the block position (0 = only on block changes)").getDouble());
     }
 
 }
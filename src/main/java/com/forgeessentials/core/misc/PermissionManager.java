@@ -1,5 +1,6 @@
 package com.forgeessentials.core.misc;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -10,12 +11,16 @@ import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.server.permission.DefaultPermissionLevel;
 import net.minecraftforge.server.permission.PermissionAPI;
 
+import com.forgeessentials.api.permissions.PermissionNode;
+
 /**
  * Transition class to the new Permissions API
  */
 public class PermissionManager
 {
     protected static Map<ICommand, String> commandPermissions = new WeakHashMap<>();
+
+    protected static Map<ICommand, PermissionNode> commandPermissionNodes = Collections.synchronizedMap(new WeakHashMap<ICommand, PermissionNode>());
     public static String getCommandPermission(ICommand command)
     {
         if (command instanceof PermissionObject)
@@ -30,6 +35,20 @@ public class PermissionManager
         return "command." + command.getName();
     }
 
+    /**
+     * Returns the interned permission node of a command. The node is resolved once per command instance.
+     */
+    public static PermissionNode getCommandPermissionNode(ICommand command)
+    {
+        PermissionNode node = commandPermissionNodes.get(command);
+        if (node == null)
+        {
+            node = PermissionNode.get(getCommandPermission(command));
+            commandPermissionNodes.put(command, node);
+        }
+        return node;
+    }
+
     public static DefaultPermissionLevel getCommandLevel(ICommand command)
     {
         if (command instanceof PermissionObject)
@@ -61,6 +80,7 @@ public class PermissionManager
     public static void registerCommandPermission(ICommand command, String permission, DefaultPermissionLevel permissionLevel)
     {
         commandPermissions.put(command, permission);
+        commandPermissionNodes.remove(command);
         PermissionAPI.registerNode(permission, permissionLevel, "");
     }
 
@@ -7,10 +7,12 @@ import java.util.TimerTask;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerStopEvent;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.LoggingHandler;
 
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
@@ -63,6 +65,8 @@ public class TaskRegistry extends ServerEventHandler
 
     public static int MAX_BLOCK_TASKS = 6;
 
+    private static final TickProfiler.Section RUN_LATER_SECTION = TickProfiler.section("task:runLater");
+
     protected static ConcurrentLinkedQueue<TickTask> tickTasks = new ConcurrentLinkedQueue<>();
 
     protected static ConcurrentLinkedQueue<Runnable> runLater = new ConcurrentLinkedQueue<>();
@@ -113,9 +117,11 @@ public class TaskRegistry extends ServerEventHandler
     @SubscribeEvent
     public void onTick(TickEvent.ServerTickEvent event)
     {
+        long start = TickProfiler.start();
         for (Runnable task : runLater)
             task.run();
         runLater.clear();
+        RUN_LATER_SECTION.end(start);
 
         int blockTaskCount = 0;
         for (Iterator<TickTask> iterator = tickTasks.iterator(); iterator.hasNext(); )
@@ -127,11 +133,24 @@ public class TaskRegistry extends ServerEventHandler
                     continue;
                 blockTaskCount++;
             }
-            if (task.tick())
+            start = TickProfiler.start();
+            boolean done = task.tick();
+            TickProfiler.section("task", task.getClass()).end(start);
+            if (done)
                 iterator.remove();
         }
     }
 
+    /**
+     * Closes the profiled tick after all other tick handlers are done
+     */
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onTickEnd(TickEvent.ServerTickEvent event)
+    {
+        if (event.phase == TickEvent.Phase.END)
+            TickProfiler.tickEnd();
+    }
+
     /* ------------------------------------------------------------ */
     /* Timers */
 
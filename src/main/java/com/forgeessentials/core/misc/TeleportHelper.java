@@ -37,6 +37,7 @@ import com.forgeessentials.commons.selections.WorldPoint;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.util.PlayerInfo;
 import com.forgeessentials.util.ServerUtil;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.PlayerChangedZone;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -45,6 +46,8 @@ import com.forgeessentials.util.output.LoggingHandler;
 public class TeleportHelper extends ServerEventHandler
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", TeleportHelper.class);
+
     public static class SimpleTeleporter extends Teleporter
     {
 
@@ -261,6 +264,7 @@ public class TeleportHelper extends ServerEventHandler
     {
         if (e.phase == TickEvent.Phase.START)
         {
+            long start = TickProfiler.start();
             for (Iterator<TeleportInfo> it = tpInfos.values().iterator(); it.hasNext();)
             {
                 TeleportInfo tpInfo = it.next();
@@ -269,6 +273,7 @@ public class TeleportHelper extends ServerEventHandler
                     it.remove();
                 }
             }
+            TICK_SECTION.end(start);
         }
     }
 
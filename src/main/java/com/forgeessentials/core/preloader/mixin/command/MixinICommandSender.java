@@ -17,6 +17,7 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import com.forgeessentials.api.APIRegistry;
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.GroupEntry;
+import com.forgeessentials.api.permissions.PermissionNode;
 import com.forgeessentials.commons.selections.WorldPoint;
 import com.forgeessentials.core.misc.PermissionManager;
 
@@ -29,16 +30,16 @@ public abstract class MixinICommandSender implements ICommandSender
     @Inject(method = "canUseCommand(ILjava/lang/String;)Z", at = @At("HEAD"), cancellable = true)
     private void canUseCommand(final int permissionLevel, final String commandName, final CallbackInfoReturnable<Boolean> cir) {
         ICommand cmd;
-        String permNode;
+        PermissionNode permNode;
         if ((cmd = FMLCommonHandler.instance().getMinecraftServerInstance().commandManager.getCommands().get(commandName)) != null)
         {
-            permNode = PermissionManager.getCommandPermission(cmd);
+            permNode = PermissionManager.getCommandPermissionNode(cmd);
         }
         else if ("@".equals(commandName)) {
             return;
         } else
         {
-            permNode = commandName;
+            permNode = PermissionNode.get(commandName);
         }
         UserIdent ident = UserIdent.get(this);
         WorldPoint point = null;
@@ -46,7 +47,7 @@ public abstract class MixinICommandSender implements ICommandSender
             point = new WorldPoint(ident.getPlayer());
         String permValue = APIRegistry.perms.getPermission(ident, point, null, GroupEntry.toList(APIRegistry.perms.getPlayerGroups(ident)), permNode, false);
         if (permValue == null) {
-            APIRegistry.perms.registerPermission(permNode, PermissionManager.fromIntegerLevel(permissionLevel),
+            APIRegistry.perms.registerPermission(permNode.getName(), PermissionManager.fromIntegerLevel(permissionLevel),
                     String.format("Autogenerated Command Node for '%s' with permission level of '%s'", permNode, permissionLevel));
             permValue = APIRegistry.perms.getPermission(ident, point, null, GroupEntry.toList(APIRegistry.perms.getPlayerGroups(ident)), permNode, false);
         }
@@ -3,13 +3,17 @@ package com.forgeessentials.economy.plots;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 
 import net.minecraft.command.ICommandSender;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.server.permission.DefaultPermissionLevel;
 
@@ -22,6 +26,7 @@ import com.forgeessentials.api.permissions.RootZone;
 import com.forgeessentials.api.permissions.ServerZone;
 import com.forgeessentials.api.permissions.WorldZone;
 import com.forgeessentials.api.permissions.Zone;
+import com.forgeessentials.commons.selections.Point;
 import com.forgeessentials.commons.selections.Selection;
 import com.forgeessentials.commons.selections.WorldArea;
 import com.forgeessentials.commons.selections.WorldPoint;
@@ -97,8 +102,24 @@ public class Plot
     public static final String PERM_FEE_TIMEOUT = PERM_DATA + ".fee.timeout";
     public static final String PERM_SELL_PRICE = PERM_DATA + ".price";
 
+    /**
+     * Plots spanning more chunks than this are not put into the chunk index, but tested on every lookup instead
+     */
+    public static final int MAX_INDEX_CHUNKS = 1024;
+
     private static Map<Integer, Plot> plots = new HashMap<>();
 
+    private static Map<UserIdent, Set<Plot>> plotsByOwner = new HashMap<>();
+
+    /* Plots by dimension and chunk key. Rebuilt whenever the zone layout changed. */
+    private static Map<Integer, Map<Long, List<Plot>>> chunkIndex = new HashMap<>();
+
+    private static List<Plot> largePlots = new ArrayList<>();
+
+    private static ServerZone indexedServerZone;
+
+    private static int indexedLayoutVersion = -1;
+
     private AreaZone zone;
 
     private UserIdent owner;
@@ -145,7 +166,9 @@ public class Plot
             zone.removePlayerFromGroup(owner, GROUP_PLOT_OWNER);
 
         // Set new owner
+        removeFromOwnerIndex(this);
         owner = newOwner;
+        addToOwnerIndex(this);
         zone.setGroupPermissionProperty(GROUP_ALL, PERM_OWNER, owner.getOrGenerateUuid().toString());
         zone.addPlayerToGroup(newOwner, GROUP_PLOT_OWNER);
         APIRegistry.getFEEventBus().post(event);
@@ -342,15 +365,25 @@ public class Plot
         return plots.get(zoneId);
     }
 
+    /**
+     * Returns the plot at the point. Plots cannot overlap, so only the plots indexed for the chunk of the point need to
+     * be tested.
+     */
     public static Plot getPlot(WorldPoint point)
     {
-        List<Zone> zones = APIRegistry.perms.getServerZone().getZonesAt(point);
-        for (Zone zone : zones)
+        updateChunkIndex();
+        Map<Long, List<Plot>> chunks = chunkIndex.get(point.getDimension());
+        if (chunks != null)
         {
-            Plot plot = plots.get(zone.getId());
-            if (plot != null)
-                return plot;
+            List<Plot> candidates = chunks.get(ChunkPos.asLong(point.getX() >> 4, point.getZ() >> 4));
+            if (candidates != null)
+                for (Plot plot : candidates)
+                    if (plot.getZone().isInZone(point))
+                        return plot;
         }
+        for (Plot plot : largePlots)
+            if (plot.getZone().isInZone(point))
+                return plot;
         return null;
     }
 
@@ -359,6 +392,15 @@ public class Plot
         return plots.values();
     }
 
+    /**
+     * Returns all plots of an owner. Pass null to get plots without owner.
+     */
+    public static Collection<Plot> getPlots(UserIdent owner)
+    {
+        Set<Plot> ownerPlots = plotsByOwner.get(owner);
+        return ownerPlots == null ? Collections.<Plot> emptySet() : Collections.unmodifiableSet(ownerPlots);
+    }
+
     public static boolean hasPlots(Selection selection) {
         return plots.values().stream().anyMatch(isPartOfZone(selection));
     }
@@ -372,12 +414,112 @@ public class Plot
     private static void registerPlot(Plot plot)
     {
         plots.put(plot.getZone().getId(), plot);
+        addToOwnerIndex(plot);
+        indexedLayoutVersion = -1;
+    }
+
+    private static void unregisterPlot(Plot plot)
+    {
+        plots.remove(plot.getZone().getId());
+        removeFromOwnerIndex(plot);
+        indexedLayoutVersion = -1;
+    }
+
+    private static void addToOwnerIndex(Plot plot)
+    {
+        Set<Plot> ownerPlots = plotsByOwner.get(plot.owner);
+        if (ownerPlots == null)
+        {
+            ownerPlots = new LinkedHashSet<>();
+            plotsByOwner.put(plot.owner, ownerPlots);
+        }
+        ownerPlots.add(plot);
+    }
+
+    private static void removeFromOwnerIndex(Plot plot)
+    {
+        Set<Plot> ownerPlots = plotsByOwner.get(plot.owner);
+        if (ownerPlots != null)
+        {
+            ownerPlots.remove(plot);
+            if (ownerPlots.isEmpty())
+                plotsByOwner.remove(plot.owner);
+        }
+    }
+
+    /**
+     * Returns the plots which could intersect the area
+     */
+    private static Collection<Plot> getCandidates(WorldArea area)
+    {
+        updateChunkIndex();
+        int minX = area.getLowPoint().getX() >> 4, minZ = area.getLowPoint().getZ() >> 4;
+        int maxX = area.getHighPoint().getX() >> 4, maxZ = area.getHighPoint().getZ() >> 4;
+        Map<Long, List<Plot>> chunks = chunkIndex.get(area.getDimension());
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_INDEX_CHUNKS)
+            return plots.values();
+        Set<Plot> result = new LinkedHashSet<>(largePlots);
+        if (chunks != null)
+            for (int x = minX; x <= maxX; x++)
+                for (int z = minZ; z <= maxZ; z++)
+                {
+                    List<Plot> bucket = chunks.get(ChunkPos.asLong(x, z));
+                    if (bucket != null)
+                        result.addAll(bucket);
+                }
+        return result;
+    }
+
+    /**
+     * Rebuilds the chunk index if plots were added or removed, or any zone was moved since it was built
+     */
+    private static void updateChunkIndex()
+    {
+        ServerZone serverZone = APIRegistry.perms.getServerZone();
+        if (serverZone == indexedServerZone && serverZone.getZoneLayoutVersion() == indexedLayoutVersion)
+            return;
+        indexedServerZone = serverZone;
+        indexedLayoutVersion = serverZone.getZoneLayoutVersion();
+        chunkIndex.clear();
+        largePlots.clear();
+        for (Plot plot : plots.values())
+        {
+            // Skip plots whose zone was deleted by other means
+            if (serverZone.getZoneMap().get(plot.getZone().getId()) != plot.getZone())
+                continue;
+            Point low = plot.getZone().getArea().getLowPoint();
+            Point high = plot.getZone().getArea().getHighPoint();
+            int minX = low.getX() >> 4, minZ = low.getZ() >> 4, maxX = high.getX() >> 4, maxZ = high.getZ() >> 4;
+            if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_INDEX_CHUNKS)
+            {
+                largePlots.add(plot);
+                continue;
+            }
+            Map<Long, List<Plot>> chunks = chunkIndex.get(plot.getDimension());
+            if (chunks == null)
+            {
+                chunks = new HashMap<>();
+                chunkIndex.put(plot.getDimension(), chunks);
+            }
+            for (int x = minX; x <= maxX; x++)
+                for (int z = minZ; z <= maxZ; z++)
+                {
+                    long key = ChunkPos.asLong(x, z);
+                    List<Plot> bucket = chunks.get(key);
+                    if (bucket == null)
+                    {
+                        bucket = new ArrayList<>(1);
+                        chunks.put(key, bucket);
+                    }
+                    bucket.add(plot);
+                }
+        }
     }
 
     public static Plot define(WorldArea area, UserIdent owner) throws EventCancelledException, PlotRedefinedException
     {
         WorldZone worldZone = APIRegistry.perms.getServerZone().getWorldZone(area.getDimension());
-        for (Plot zone : plots.values())
+        for (Plot zone : getCandidates(area))
             if (zone.getZone().getArea().contains(area) || zone.getZone().getArea().intersectsWith(area))
             {
                 throw new PlotRedefinedException();
@@ -397,6 +539,8 @@ public class Plot
     public static void loadPlots()
     {
         plots.clear();
+        plotsByOwner.clear();
+        indexedLayoutVersion = -1;
         for (Zone zone : APIRegistry.perms.getZones())
             if (zone instanceof AreaZone)
             {
@@ -409,7 +553,7 @@ public class Plot
     public static void deletePlot(Plot plot)
     {
         plot.getZone().getWorldZone().removeAreaZone(plot.getZone());
-        plots.remove(plot.getZone().getId());
+        unregisterPlot(plot);
     }
 
     static void registerPermissions()
@@ -310,12 +310,11 @@ public class CommandPlot extends ParserCommandBase
         int limitSize = ServerUtil.parseIntDefault(APIRegistry.perms.getUserPermissionProperty(arguments.ident, Plot.PERM_LIMIT_SIZE), Integer.MAX_VALUE);
         int usedCount = 0;
         long usedSize = 0;
-        for (Plot plot : Plot.getPlots())
-            if (arguments.ident.equals(plot.getOwner()))
-            {
-                usedCount++;
-                usedSize += plot.getAccountedSize();
-            }
+        for (Plot plot : Plot.getPlots(arguments.ident))
+        {
+            usedCount++;
+            usedSize += plot.getAccountedSize();
+        }
         if (usedCount + 1 > limitCount)
             throw new TranslatedCommandException("You have reached your limit of %s plots already!", limitCount);
         if (usedSize + plotSize > limitSize)
@@ -364,7 +363,15 @@ public class CommandPlot extends ParserCommandBase
             }
         });
 
-        for (Plot plot : Plot.getPlots())
+        Collection<Plot> candidates = Plot.getPlots();
+        if (listType == PlotListingType.OWN)
+        {
+            // Only the own plots and plots without owner can match
+            candidates = new ArrayList<>(Plot.getPlots(null));
+            if (arguments.senderPlayer != null)
+                candidates.addAll(Plot.getPlots(arguments.ident));
+        }
+        for (Plot plot : candidates)
             if (listType.check(arguments.sender, plot))
                 plots.add(plot);
 
@@ -385,12 +392,11 @@ public class CommandPlot extends ParserCommandBase
 
         int usedCount = 0;
         long usedSize = 0;
-        for (Plot plot : Plot.getPlots())
-            if (arguments.ident.equals(plot.getOwner()))
-            {
-                usedCount++;
-                usedSize += plot.getAccountedSize();
-            }
+        for (Plot plot : Plot.getPlots(arguments.ident))
+        {
+            usedCount++;
+            usedSize += plot.getAccountedSize();
+        }
 
         arguments.confirm("You use %d of %s allowed plot count.", usedCount, limitCount);
         arguments.confirm("You use %d of %s allowed plot size.", usedSize, limitSize);
@@ -1,5 +1,6 @@
 package com.forgeessentials.factions;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
@@ -373,19 +374,23 @@ public class CommandFaction extends ParserCommandBase
 
                 }
                 String factionGroup = ModuleFactions.getFactionGroup(faction);
+                List<UserIdent> members = new ArrayList<>();
                 for (Entry<UserIdent, Set<String>> player : APIRegistry.perms.getServerZone().getPlayerGroups().entrySet())
-                    for (Iterator<String> it = player.getValue().iterator(); it.hasNext();)
-                        if (factionGroup.equals(it.next()))
-                            it.remove();
-                for (Entry<UserIdent, Set<String>> player : APIRegistry.perms.getServerZone().getPlayerGroups().entrySet())
+                    if (player.getValue().contains(factionGroup))
+                        members.add(player.getKey());
+                if (!APIRegistry.perms.getServerZone().deleteGroup(factionGroup))
                 {
-                    if (player.getValue().remove(factionGroup) && player.getKey().hasPlayer())
-                        ChatOutputHandler.chatNotification(player.getKey().getPlayer(), Translator.format("Faction %s has been deleted", faction));
+                    arguments.error("Could not delete faction %s", faction);
+                    return;
+                }
+                for (Entry<UserIdent, Set<String>> player : APIRegistry.perms.getServerZone().getPlayerGroups().entrySet())
                     for (Iterator<String> it = player.getValue().iterator(); it.hasNext();)
                         if (it.next().startsWith(ModuleFactions.RANK_PREFIX))
                             it.remove();
-                }
-                APIRegistry.perms.getServerZone().getGroupPermissions().remove(factionGroup);
+                APIRegistry.perms.getServerZone().getPermissionCache().clear();
+                for (UserIdent member : members)
+                    if (member.hasPlayer())
+                        ChatOutputHandler.chatNotification(member.getPlayer(), Translator.format("Faction %s has been deleted", faction));
                 arguments.confirm("Deleted faction %s", faction);
             }
         };
@@ -9,14 +9,13 @@ import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.server.permission.DefaultPermissionLevel;
 
-import org.apache.commons.codec.binary.Base64;
-
 import com.forgeessentials.api.APIRegistry;
 import com.forgeessentials.api.remote.FERemoteHandler;
 import com.forgeessentials.api.remote.GenericRemoteHandler;
 import com.forgeessentials.api.remote.RemoteRequest;
 import com.forgeessentials.api.remote.RemoteResponse;
 import com.forgeessentials.api.remote.RemoteSession;
+import com.forgeessentials.api.remote.data.DataBinary;
 import com.forgeessentials.mapper.ModuleMapper;
 import com.forgeessentials.mapper.remote.QueryRegionHandler.Request;
 
@@ -51,7 +50,7 @@ public class QueryRegionHandler extends GenericRemoteHandler<Request>
             {
                 is.read(data);
             }
-            return new RemoteResponse<String>(request, Base64.encodeBase64String(data));
+            return new RemoteResponse<DataBinary>(request, new DataBinary(data, "image/png"));
         }
         catch (IOException e)
         {
@@ -45,6 +45,7 @@ import com.forgeessentials.api.permissions.WorldZone;
 import com.forgeessentials.api.permissions.Zone;
 import com.forgeessentials.data.v2.DataManager;
 import com.forgeessentials.multiworld.MultiworldException.Type;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.LoggingHandler;
 import com.google.common.base.Throwables;
@@ -60,6 +61,8 @@ import static net.minecraftforge.common.DimensionManager.getRegisteredDimensions
 public class MultiworldManager extends ServerEventHandler implements NamedWorldHandler
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", MultiworldManager.class);
+
     public static final String PERM_PROP_MULTIWORLD = FEPermissions.FE_INTERNAL + ".multiworld";
 
     public static final String PROVIDER_NORMAL = "normal";
@@ -417,8 +420,10 @@ public class MultiworldManager extends ServerEventHandler implements NamedWorldH
     @SubscribeEvent
     public void serverTickEvent(ServerTickEvent event)
     {
+        long start = TickProfiler.start();
         unregisterDimensions();
         deleteDimensions();
+        TICK_SECTION.end(start);
     }
 
     /**
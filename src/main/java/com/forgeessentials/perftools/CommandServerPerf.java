@@ -1,13 +1,26 @@
 package com.forgeessentials.perftools;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import net.minecraft.command.CommandException;
 import net.minecraft.command.ICommandSender;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.server.permission.DefaultPermissionLevel;
 
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.permissions.PermissionCache;
 import com.forgeessentials.core.commands.ForgeEssentialsCommandBase;
+import com.forgeessentials.core.misc.TranslatedCommandException;
+import com.forgeessentials.protection.ModuleProtection;
+import com.forgeessentials.protection.SpawnPermissionCache;
+import com.forgeessentials.util.TickProfiler;
+import com.forgeessentials.util.TickProfiler.Section;
+import com.forgeessentials.util.TickProfiler.Stats;
 import com.forgeessentials.util.output.ChatOutputHandler;
 
 public class CommandServerPerf extends ForgeEssentialsCommandBase
@@ -15,6 +28,10 @@ public class CommandServerPerf extends ForgeEssentialsCommandBase
 
     private static final DecimalFormat formatNumbers = new DecimalFormat("########0.000");
 
+    private static final int MAX_HANDLERS = 15;
+
+    private static final String[] subCommands = { "handlers", "dimensions", "reset" };
+
     @Override
     public String getPrimaryAlias()
     {
@@ -23,6 +40,23 @@ public class CommandServerPerf extends ForgeEssentialsCommandBase
 
     @Override
     public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException
+    {
+        if (args.length == 0)
+            showOverview(server, sender);
+        else if (args[0].equalsIgnoreCase("handlers"))
+            showHandlers(server, sender);
+        else if (args[0].equalsIgnoreCase("dimensions"))
+            showDimensions(server, sender);
+        else if (args[0].equalsIgnoreCase("reset"))
+        {
+            TickProfiler.reset();
+            ChatOutputHandler.chatConfirmation(sender, "Reset handler statistics");
+        }
+        else
+            throw new TranslatedCommandException(getUsage(sender));
+    }
+
+    private void showOverview(MinecraftServer server, ICommandSender sender)
     {
         ChatOutputHandler.chatNotification(sender, "Memory usage:");
         ChatOutputHandler.chatNotification(sender, "Max: " + (Runtime.getRuntime().maxMemory() / 1024 / 1024) + " MiB");
@@ -32,9 +66,53 @@ public class CommandServerPerf extends ForgeEssentialsCommandBase
         ChatOutputHandler.chatNotification(sender, "Used: " + (used / 1024 / 1024) + " MiB");
         ChatOutputHandler.chatNotification(sender,
                 "Average tick time: " + formatNumbers.format(this.func_120035_a(server.tickTimeArray) * 1.0E-6D) + " ms");
+        PermissionCache permissionCache = APIRegistry.perms.getServerZone().getPermissionCache();
+        long lookups = permissionCache.getHits() + permissionCache.getMisses();
+        ChatOutputHandler.chatNotification(sender, String.format("Permission cache: %d hits, %d misses (%s%% hit rate), %d entries, %d invalidations",
+                permissionCache.getHits(), permissionCache.getMisses(),
+                lookups == 0 ? "0" : formatNumbers.format(100.0 * permissionCache.getHits() / lookups), permissionCache.size(),
+                permissionCache.getInvalidations()));
+        SpawnPermissionCache spawnCache = ModuleProtection.getSpawnPermissionCache();
+        if (spawnCache != null)
+        {
+            lookups = spawnCache.getHits() + spawnCache.getMisses();
+            ChatOutputHandler.chatNotification(sender, String.format("Spawn cache: %d hits, %d misses (%s%% hit rate), %d uncached, %d entries, %d invalidations",
+                    spawnCache.getHits(), spawnCache.getMisses(), lookups == 0 ? "0" : formatNumbers.format(100.0 * spawnCache.getHits() / lookups),
+                    spawnCache.getUncached(), spawnCache.size(), spawnCache.getInvalidations()));
+        }
         ChatOutputHandler.chatNotification(sender, "For TPS information, run /forge tps.");
     }
 
+    private void showHandlers(MinecraftServer server, ICommandSender sender)
+    {
+        if (!TickProfiler.enabled)
+            ChatOutputHandler.chatWarning(sender, "Handler profiling is disabled. Enable profileHandlers in the perftools config.");
+        ChatOutputHandler.chatNotification(sender, "Server tick: " + formatStats(TickProfiler.getStats(server.tickTimeArray, server.tickTimeArray.length)));
+        ChatOutputHandler.chatNotification(sender, String.format("Time per tick over the last %d ticks (mean / p95 / max ms, calls per tick):",
+                TickProfiler.WINDOW));
+        List<Section> sections = TickProfiler.getSections();
+        for (int i = 0; i < sections.size() && i < MAX_HANDLERS; i++)
+        {
+            Stats stats = sections.get(i).getStats();
+            ChatOutputHandler.chatNotification(sender, String.format("%s: %s / %s / %s, %s", sections.get(i).getName(), formatNumbers.format(stats.mean),
+                    formatNumbers.format(stats.p95), formatNumbers.format(stats.max), stats.calls));
+        }
+    }
+
+    private void showDimensions(MinecraftServer server, ICommandSender sender)
+    {
+        ChatOutputHandler.chatNotification(sender, "Server tick: " + formatStats(TickProfiler.getStats(server.tickTimeArray, server.tickTimeArray.length)));
+        for (Entry<Integer, long[]> entry : new TreeMap<>(server.worldTickTimes).entrySet())
+            ChatOutputHandler.chatNotification(sender,
+                    "Dim " + entry.getKey() + ": " + formatStats(TickProfiler.getStats(entry.getValue(), entry.getValue().length)));
+    }
+
+    private static String formatStats(Stats stats)
+    {
+        return String.format("mean %s, p50 %s, p95 %s, p99 %s, max %s ms", formatNumbers.format(stats.mean), formatNumbers.format(stats.p50),
+                formatNumbers.format(stats.p95), formatNumbers.format(stats.p99), formatNumbers.format(stats.max));
+    }
+
     @Override
     public boolean canConsoleUseCommand()
     {
@@ -57,7 +135,15 @@ public class CommandServerPerf extends ForgeEssentialsCommandBase
     public String getUsage(ICommandSender sender)
     {
 
-        return "/perfstats Displays server performance stats (memory usage, average tick time).";
+        return "/perfstats [handlers|dimensions|reset] Displays server performance stats (memory usage, tick times, FE handler times, permission and spawn caches).";
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, BlockPos pos)
+    {
+        if (args.length == 1)
+            return getListOfStringsMatchingLastWord(args[0], subCommands);
+        return new ArrayList<>();
     }
 
     private double func_120035_a(long[] p_120035_1_)
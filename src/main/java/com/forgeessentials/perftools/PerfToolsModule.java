@@ -8,6 +8,7 @@ import com.forgeessentials.core.misc.FECommandManager;
 import com.forgeessentials.core.misc.TaskRegistry;
 import com.forgeessentials.core.moduleLauncher.FEModule;
 import com.forgeessentials.core.moduleLauncher.config.ConfigLoaderBase;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleInitEvent;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerInitEvent;
 
@@ -49,5 +50,8 @@ public class PerfToolsModule extends ConfigLoaderBase
         warn = config.get(FEConfig.CONFIG_CAT, "warnHighMemUsage", true, "Warn server ops when we detect high memory usage.").getBoolean(true);
         percentageWarn = config.get(FEConfig.CONFIG_CAT, "percentageWarn", 90, "Percentage at which to warn server ops").getInt(90);
         checkInterval = config.get(FEConfig.CONFIG_CAT, "checkInterval", 5, "Interval in minutes to check memory use.").getInt(5);
+        TickProfiler.enabled = config.get(FEConfig.CONFIG_CAT, "profileHandlers", false,
+                "Measure the time spent in FE tick handlers, tasks and permission lookups (see /perfstats handlers). Adds a small overhead to every permission check.")
+                .getBoolean(false);
     }
 }
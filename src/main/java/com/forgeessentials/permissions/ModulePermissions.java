@@ -15,6 +15,7 @@ import org.apache.commons.io.FileUtils;
 
 import com.forgeessentials.api.APIRegistry;
 import com.forgeessentials.api.permissions.FEPermissions;
+import com.forgeessentials.api.permissions.PermissionCache;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.core.mcstats.Metrics.Plotter;
 import com.forgeessentials.core.misc.FECommandManager;
@@ -161,6 +162,7 @@ public class ModulePermissions extends ConfigLoaderBase
         // permissionHelper.verbosePermissionDebug = false;
         permissionHelper.disableAutoSave = false;
         permissionHelper.save();
+        permissionHelper.waitForSave();
         permissionHelper.clear();
         permissionScheduler.saveAll();
     }
@@ -228,6 +230,10 @@ public class ModulePermissions extends ConfigLoaderBase
         persistenceBackend = config.get(CONFIG_CAT, "persistenceBackend", "singlejson", PERSISTENCE_HELP).getString();
         dbConnector.loadOrGenerate(config, CONFIG_CAT + ".SQL");
 
+        PermissionCache.enabled = config.getBoolean(CONFIG_CAT, "permissionCache", true,
+                "Cache resolved permission values. The cache is invalidated on every permission change.");
+        permissionHelper.asyncSave = config.getBoolean(CONFIG_CAT, "asyncSave", true,
+                "Write changed permissions on a separate thread. Only changed zones, groups and players are written by the sql and flatfile backends.");
         fakePlayerIsSpecialBunny = config.getBoolean(CONFIG_CAT, "fakePlayerIsSpecialBunny", true, "Should we force override UUID for fake players? This is by default true because mods are randomly generating UUID each boot!");
     }
 
@@ -158,8 +158,7 @@ public class PermissionCommandParser
             return;
         if (arguments.isEmpty())
         {
-            ModulePermissions.permissionHelper.setDirty(false);
-            ModulePermissions.permissionHelper.save();
+            ModulePermissions.permissionHelper.save(true);
             arguments.confirm("Permissions saved!");
         }
         else
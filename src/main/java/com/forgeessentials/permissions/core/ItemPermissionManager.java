@@ -60,19 +60,61 @@ public class ItemPermissionManager extends ServerEventHandler implements ConfigL
 
     /* ------------------------------------------------------------ */
 
-    @SubscribeEvent
-    public void permissionCheckEvent(PermissionCheckEvent event)
+    /**
+     * Only registered while item permissions are enabled, so permission checks do not need to post a
+     * {@link PermissionCheckEvent} otherwise
+     */
+    public static class PermissionCheckListener
     {
-        if (!enabled || event.ident == null || !event.ident.hasPlayer())
+
+        @SubscribeEvent
+        public void permissionCheckEvent(PermissionCheckEvent event)
+        {
+            if (!enabled || event.ident == null || !event.ident.hasPlayer())
+                return;
+            InventoryPlayer inventory = event.ident.getPlayer().inventory;
+            for (int slotIdx = 0; slotIdx < inventory.getSizeInventory(); slotIdx++)
+            {
+                ItemStack stack = inventory.getStackInSlot(slotIdx);
+                if (stack == ItemStack.EMPTY)
+                    continue;
+                boolean isEquipped = slotIdx == inventory.currentItem || slotIdx > inventory.mainInventory.size();
+                check(event, stack, isEquipped);
+            }
+        }
+
+    }
+
+    private final PermissionCheckListener permissionCheckListener = new PermissionCheckListener();
+
+    private boolean listenerRegistered;
+
+    @Override
+    protected void register()
+    {
+        super.register();
+        if (listenerRegistered)
             return;
-        InventoryPlayer inventory = event.ident.getPlayer().inventory;
-        for (int slotIdx = 0; slotIdx < inventory.getSizeInventory(); slotIdx++)
+        listenerRegistered = true;
+        APIRegistry.getFEEventBus().register(permissionCheckListener);
+        PermissionCheckEvent.addListener();
+    }
+
+    @Override
+    protected void unregister()
+    {
+        super.unregister();
+        if (!listenerRegistered)
+            return;
+        listenerRegistered = false;
+        PermissionCheckEvent.removeListener();
+        try
         {
-            ItemStack stack = inventory.getStackInSlot(slotIdx);
-            if (stack == ItemStack.EMPTY)
-                continue;
-            boolean isEquipped = slotIdx == inventory.currentItem || slotIdx > inventory.mainInventory.size();
-            check(event, stack, isEquipped);
+            APIRegistry.getFEEventBus().unregister(permissionCheckListener);
+        }
+        catch (NullPointerException ex)
+        {
+            // listener was not registered to begin with
         }
     }
 
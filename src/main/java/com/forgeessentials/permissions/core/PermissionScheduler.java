@@ -17,6 +17,7 @@ import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.core.moduleLauncher.config.ConfigLoader;
 import com.forgeessentials.data.v2.DataManager;
 import com.forgeessentials.util.ServerUtil;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerPreInitEvent;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -28,6 +29,8 @@ import net.minecraftforge.fml.common.gameevent.TickEvent;
 public class PermissionScheduler extends ServerEventHandler implements ConfigLoader
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", PermissionScheduler.class);
+
     public static final int CHECK_INTERVAL = 1000;
 
     private static final String HELP = "Enable the permission scheduler which can toggle permissions based on game / server time";
@@ -85,11 +88,13 @@ public class PermissionScheduler extends ServerEventHandler implements ConfigLoa
     @SubscribeEvent
     public void serverTickEvent(TickEvent.ServerTickEvent e)
     {
+        long start = TickProfiler.start();
         if (System.currentTimeMillis() - lastCheck >= CHECK_INTERVAL)
         {
             lastCheck = System.currentTimeMillis();
             checkSchedules(false);
         }
+        TICK_SECTION.end(start);
     }
 
     @Override
@@ -7,12 +7,38 @@ import org.apache.commons.lang3.StringUtils;
 
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.FEPermissions;
+import com.forgeessentials.api.permissions.PermissionChangeJournal;
 import com.forgeessentials.api.permissions.ServerZone;
 
 public abstract class ZonePersistenceProvider
 {
 
-    public abstract void save(ServerZone serverZone);
+    /**
+     * Saves all permission data
+     */
+    public void save(ServerZone serverZone)
+    {
+        saveSnapshot(serverZone.createSnapshot(null), new PermissionChangeJournal(true));
+    }
+
+    /**
+     * Saves a snapshot created with {@link ServerZone#createSnapshot(PermissionChangeJournal)}. This is called from the
+     * permission save thread, so implementations must not access the live permission data.
+     * 
+     * @param snapshot
+     * @param changes
+     *            changes since the last save. Unless the journal is full, only the changed data needs to be written.
+     */
+    public abstract void saveSnapshot(ServerZone snapshot, PermissionChangeJournal changes);
+
+    /**
+     * If true, snapshots passed to {@link #saveSnapshot(ServerZone, PermissionChangeJournal)} only contain the player
+     * permissions of changed players. Otherwise the snapshot always contains all data.
+     */
+    public boolean supportsIncrementalSave()
+    {
+        return false;
+    }
 
     public abstract ServerZone load();
 
@@ -5,6 +5,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -16,7 +17,14 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.UUID;
 import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Function;
 
 import javax.annotation.Nullable;
 
@@ -25,6 +33,7 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.text.ITextComponent;
 import net.minecraft.util.text.TextComponentString;
 import net.minecraft.util.text.TextComponentTranslation;
@@ -46,7 +55,9 @@ import com.forgeessentials.api.UserIdent.UserIdentInvalidatedEvent;
 import com.forgeessentials.api.permissions.FEPermissions;
 import com.forgeessentials.api.permissions.GroupEntry;
 import com.forgeessentials.api.permissions.IPermissionsHelper;
+import com.forgeessentials.api.permissions.PermissionChangeJournal;
 import com.forgeessentials.api.permissions.PermissionEvent;
+import com.forgeessentials.api.permissions.PermissionNode;
 import com.forgeessentials.api.permissions.RootZone;
 import com.forgeessentials.api.permissions.ServerZone;
 import com.forgeessentials.api.permissions.ServerZone.PermissionDebugger;
@@ -60,6 +71,7 @@ import com.forgeessentials.commons.selections.WorldPoint;
 import com.forgeessentials.core.FEConfig;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.protection.ModuleProtection;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.PlayerChangedZone;
 import com.forgeessentials.util.events.PlayerMoveEvent;
 import com.forgeessentials.util.events.ServerEventHandler;
@@ -81,6 +93,10 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
 
     private static final String NEW_LINE = System.getProperty("line.separator");
 
+    private static final TickProfiler.Section LOOKUP_SECTION = TickProfiler.section("permission:lookup");
+
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", ZonedPermissionHelper.class);
+
     protected RootZone rootZone;
 
     protected ZonePersistenceProvider persistenceProvider;
@@ -107,8 +123,24 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
 
     public List<String> permissionDebugFilters = new ArrayList<>();
 
+    /**
+     * Zone each player was last reported to be in by a {@link PlayerChangedZone} event
+     */
+    private Map<UUID, Zone> lastPlayerZones = new HashMap<>();
+
     public boolean disableAutoSave = false;
 
+    /**
+     * Write permission snapshots on a separate thread instead of blocking the server tick
+     */
+    public boolean asyncSave = true;
+
+    private ExecutorService saveExecutor;
+
+    private Future<?> pendingSave;
+
+    private volatile boolean saveFailed;
+
     // public boolean verbosePermissionDebug = false;
 
     // ------------------------------------------------------------
@@ -139,18 +171,61 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
 
     public void setPersistenceProvider(ZonePersistenceProvider persistenceProvider)
     {
+        waitForSave();
         this.persistenceProvider = persistenceProvider;
     }
 
     public void save()
+    {
+        save(false);
+    }
+
+    /**
+     * Saves all changes since the last save. A snapshot of the changed data is created on the calling thread and
+     * written by the persistence provider on the save thread.
+     *
+     * @param full
+     *            write all data instead of only the changes
+     */
+    public void save(boolean full)
     {
         dirty = false;
         if (persistenceProvider != null)
         {
             LoggingHandler.felog.debug("Saving permissions...");
-            APIRegistry.getFEEventBus().post(new PermissionEvent.BeforeSave(rootZone.getServerZone()));
-            persistenceProvider.save(rootZone.getServerZone());
-            dirty = false;
+            ServerZone serverZone = rootZone.getServerZone();
+            APIRegistry.getFEEventBus().post(new PermissionEvent.BeforeSave(serverZone));
+
+            PermissionChangeJournal journal = serverZone.getChangeJournal();
+            if (full || saveFailed)
+                journal.markFull();
+            saveFailed = false;
+            if (!journal.isEmpty())
+            {
+                final PermissionChangeJournal changes = journal.drain();
+                final ZonePersistenceProvider provider = persistenceProvider;
+                final ServerZone snapshot = serverZone.createSnapshot(provider.supportsIncrementalSave() && !changes.isFull() ? changes : null);
+                Runnable task = new Runnable() {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            provider.saveSnapshot(snapshot, changes);
+                        }
+                        catch (Exception e)
+                        {
+                            // Write everything with the next save
+                            saveFailed = true;
+                            LoggingHandler.felog.error("Error saving permissions", e);
+                        }
+                    }
+                };
+                if (asyncSave)
+                    pendingSave = getSaveExecutor().submit(task);
+                else
+                    task.run();
+            }
         }
 
         if (registeredPermission)
@@ -160,16 +235,56 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
         }
     }
 
+    private ExecutorService getSaveExecutor()
+    {
+        if (saveExecutor == null)
+            saveExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable)
+                {
+                    Thread thread = new Thread(runnable, "FE permission saver");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        return saveExecutor;
+    }
+
+    /**
+     * Blocks until all pending permission saves have been written
+     */
+    public void waitForSave()
+    {
+        Future<?> save = pendingSave;
+        if (save == null)
+            return;
+        try
+        {
+            save.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException e)
+        {
+            /* already logged by the save task */
+        }
+        pendingSave = null;
+    }
+
     public boolean load()
     {
         if (persistenceProvider != null)
         {
+            waitForSave();
             ServerZone serverZone = persistenceProvider.load();
             if (serverZone != null)
             {
                 // Set new server zone
                 rootZone.setServerZone(serverZone);
                 serverZone.rebuildZonesMap();
+                serverZone.getChangeJournal().clear();
                 dirty = false;
                 APIRegistry.getFEEventBus().post(new PermissionEvent.AfterLoad(serverZone));
                 return true;
@@ -461,6 +576,12 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
         }
     }
 
+    @Override
+    public boolean isDebugActive()
+    {
+        return !disableDebug && !permissionDebugUsers.isEmpty();
+    }
+
     public void disableDebugMode(boolean disable)
     {
         disableDebug = disable;
@@ -528,6 +649,7 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
     {
         for (Zone zone : getServerZone().getZones())
             zone.userIdentInvalidated(event);
+        getServerZone().getPermissionCache().clear();
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -542,7 +664,7 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
 
         // Fire first zone-changed event
         WarpPoint point = new WarpPoint(e.player);
-        Zone zone = APIRegistry.perms.getServerZone().getZonesAt(point.toWorldPoint()).get(0);
+        Zone zone = getServerZone().getPlayerZones(e.player).get(0);
         PlayerChangedZone event = new PlayerChangedZone(e.player, zone, zone, point, point);
         MinecraftForge.EVENT_BUS.post(event);
     }
@@ -551,6 +673,8 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
     public void playerLoggedOut(PlayerLoggedOutEvent e)
     {
         permissionDebugUsers.remove(e.player);
+        lastPlayerZones.remove(e.player.getPersistentID());
+        getServerZone().removePlayerZones(e.player.getPersistentID());
     }
 
     @SubscribeEvent
@@ -562,8 +686,10 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
     @SubscribeEvent
     public void playerMoveEvent(PlayerMoveEvent e)
     {
-        Zone before = APIRegistry.perms.getServerZone().getZonesAt(e.before.toWorldPoint()).get(0);
-        Zone after = APIRegistry.perms.getServerZone().getZonesAt(e.after.toWorldPoint()).get(0);
+        Zone before = lastPlayerZones.get(e.getEntityPlayer().getPersistentID());
+        if (before == null)
+            before = getServerZone().getZonesAt(e.before.toWorldPoint()).get(0);
+        Zone after = getServerZone().getPlayerZones(e.getEntityPlayer()).get(0);
         if (!before.equals(after))
         {
             PlayerChangedZone event = new PlayerChangedZone(e.getEntityPlayer(), before, after, e.before, e.after);
@@ -574,6 +700,7 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
     @SubscribeEvent(priority = EventPriority.LOWEST)
     public void playerChangedZoneEvent(PlayerChangedZone event)
     {
+        lastPlayerZones.put(event.getEntityPlayer().getPersistentID(), event.afterZone);
         UserIdent ident = UserIdent.get(event.getEntityPlayer());
         String exitMsg = APIRegistry.perms.getUserPermissionProperty(ident, event.beforeZone, FEPermissions.ZONE_EXIT_MESSAGE);
         if (exitMsg != null)
@@ -590,6 +717,7 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
     @SubscribeEvent
     public void serverTickEvent(TickEvent.ServerTickEvent e)
     {
+        long start = TickProfiler.start();
         if (!disableAutoSave && dirty && (//
         System.currentTimeMillis() - lastDirtyTime > 1000 * 5 || //
                 System.currentTimeMillis() - firstDirtyTime > 1000 * 60))
@@ -597,7 +725,13 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
             firstDirtyTime = 0;
             save();
         }
+        else if (saveFailed && !dirty)
+        {
+            // Retry failed saves
+            setDirty(false);
+        }
         // TODO: Detect manual changes to persistence backend
+        TICK_SECTION.end(start);
     }
 
     // ------------------------------------------------------------
@@ -615,6 +749,46 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
      */
     @Override
     public String getPermission(UserIdent ident, WorldPoint point, WorldArea area, List<String> groups, String permissionNode, boolean isProperty)
+    {
+        return getPermission(ident, point, area, groups, PermissionNode.get(permissionNode), isProperty);
+    }
+
+    @Override
+    public String getPermission(UserIdent ident, WorldPoint point, WorldArea area, List<String> groups, PermissionNode permissionNode, boolean isProperty)
+    {
+        long start = TickProfiler.startOnServerThread();
+        try
+        {
+            return getPermissionAt(ident, point, area, groups, permissionNode, isProperty);
+        }
+        finally
+        {
+            LOOKUP_SECTION.end(start);
+        }
+    }
+
+    private String getPermissionAt(UserIdent ident, WorldPoint point, WorldArea area, List<String> groups, PermissionNode permissionNode, boolean isProperty)
+    {
+        // Get zones in correct order
+        List<Zone> zones;
+        if (area == null && ident != null && ident.hasPlayer() && isPlayerPosition(ident.getPlayer(), point))
+        {
+            // Reuse the cached zones at the player's position
+            zones = getServerZone().getPlayerZones(ident.getPlayer());
+        }
+        else
+        {
+            zones = new ArrayList<>();
+            getZonesAt(point, area, zones);
+        }
+
+        if (isProperty)
+            return getServerZone().getPermissionProperty(zones, ident, groups, permissionNode, point);
+        else
+            return getServerZone().getPermission(zones, ident, groups, permissionNode, point);
+    }
+
+    private void getZonesAt(WorldPoint point, WorldArea area, List<Zone> zones)
     {
         // Get world zone
         WorldZone worldZone = null;
@@ -623,29 +797,25 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
         else if (area != null)
             worldZone = getServerZone().getWorldZone(area.getDimension());
 
-        // Get zones in correct order
-        List<Zone> zones = new ArrayList<>();
         if (worldZone != null)
         {
-            for (Zone zone : worldZone.getAreaZones())
-            {
-                // TODO (2) It should be possible in some way to change zone inclusion to isPartOfZone instead of
-                // isInZone
-                // This is necessary for inverse allowing permissions (like explosions e.g.)
-                if (point != null && zone.isInZone(point) || area != null && zone.isInZone(area))
-                {
-                    zones.add(zone);
-                }
-            }
+            // TODO (2) It should be possible in some way to change zone inclusion to isPartOfZone instead of
+            // isInZone
+            // This is necessary for inverse allowing permissions (like explosions e.g.)
+            if (point != null)
+                worldZone.getAreaZonesAt(point, zones);
+            else
+                worldZone.getAreaZonesAt(area, zones);
             zones.add(worldZone);
         }
         zones.add(rootZone.getServerZone());
         zones.add(rootZone);
+    }
 
-        if (isProperty)
-            return getServerZone().getPermissionProperty(zones, ident, groups, permissionNode, point);
-        else
-            return getServerZone().getPermission(zones, ident, groups, permissionNode, point);
+    private static boolean isPlayerPosition(EntityPlayer player, WorldPoint point)
+    {
+        return point != null && point.getDimension() == player.dimension && point.getX() == MathHelper.floor(player.posX)
+                && point.getY() == MathHelper.floor(player.posY) && point.getZ() == MathHelper.floor(player.posZ);
     }
 
     // ------------------------------------------------------------
@@ -952,6 +1122,15 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
         return checkBooleanPermission(getPermission(ident, point, null, GroupEntry.toList(getPlayerGroups(ident)), permissionNode, false));
     }
 
+    @Override
+    public boolean checkUserPermission(UserIdent ident, PermissionNode permissionNode)
+    {
+        WorldPoint point = null;
+        if (ident != null && ident.hasPlayer())
+            point = new WorldPoint(ident.getPlayer());
+        return checkBooleanPermission(getPermission(ident, point, null, GroupEntry.toList(getPlayerGroups(ident)), permissionNode, false));
+    }
+
     @Override
     public String getUserPermissionProperty(UserIdent ident, String permissionNode)
     {
@@ -977,6 +1156,76 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
 
     // ------------------------------------------------------------
 
+    /**
+     * Permission results for all positions sharing the same zones
+     */
+    private static class ZonePermissions
+    {
+
+        private final List<Zone> zones = new ArrayList<>();
+
+        private List<String> groups;
+
+        private final Map<PermissionNode, Boolean> results = new HashMap<>();
+
+    }
+
+    @Override
+    public BitSet checkUserPermissions(UserIdent ident, int dimension, List<BlockPos> positions, Function<BlockPos, PermissionNode> permissionNodes)
+    {
+        BitSet allowed = new BitSet(positions.size());
+        WorldZone worldZone = getServerZone().getWorldZone(dimension);
+        Map<List<Zone>, ZonePermissions> zoneChains = new HashMap<>();
+        List<Zone> areaZones = new ArrayList<>();
+        WorldPoint point = new WorldPoint(dimension, 0, 0, 0);
+
+        int lastChunkX = 0, lastChunkZ = 0;
+        boolean lastChunkValid = false, lastChunkHasZones = false;
+        for (int i = 0; i < positions.size(); i++)
+        {
+            BlockPos pos = positions.get(i);
+            point.setX(pos.getX()).setY(pos.getY()).setZ(pos.getZ());
+
+            // Positions in chunks without area-zones all share the same zones
+            int chunkX = pos.getX() >> 4;
+            int chunkZ = pos.getZ() >> 4;
+            if (!lastChunkValid || chunkX != lastChunkX || chunkZ != lastChunkZ)
+            {
+                lastChunkX = chunkX;
+                lastChunkZ = chunkZ;
+                lastChunkValid = true;
+                lastChunkHasZones = worldZone.hasAreaZonesInChunk(chunkX, chunkZ);
+            }
+            areaZones.clear();
+            if (lastChunkHasZones)
+                worldZone.getAreaZonesAt(point, areaZones);
+
+            ZonePermissions zonePermissions = zoneChains.get(areaZones);
+            if (zonePermissions == null)
+            {
+                zonePermissions = new ZonePermissions();
+                zonePermissions.zones.addAll(areaZones);
+                zonePermissions.zones.add(worldZone);
+                zonePermissions.zones.add(rootZone.getServerZone());
+                zonePermissions.zones.add(rootZone);
+                zonePermissions.groups = GroupEntry.toList(getServerZone().getPlayerGroups(ident, point));
+                zoneChains.put(new ArrayList<>(areaZones), zonePermissions);
+            }
+
+            PermissionNode node = permissionNodes.apply(pos);
+            Boolean result = zonePermissions.results.get(node);
+            if (result == null)
+            {
+                result = checkBooleanPermission(
+                        getServerZone().getPermission(zonePermissions.zones, ident, zonePermissions.groups, node, new WorldPoint(point)));
+                zonePermissions.results.put(node, result);
+            }
+            if (result)
+                allowed.set(i);
+        }
+        return allowed;
+    }
+
     @Override
     public boolean checkUserPermission(UserIdent ident, WorldPoint targetPoint, String permissionNode)
     {
@@ -984,6 +1233,13 @@ public class ZonedPermissionHelper extends ServerEventHandler implements IPermis
                 getPermission(ident, targetPoint, null, GroupEntry.toList(getServerZone().getPlayerGroups(ident, targetPoint)), permissionNode, false));
     }
 
+    @Override
+    public boolean checkUserPermission(UserIdent ident, WorldPoint targetPoint, PermissionNode permissionNode)
+    {
+        return checkBooleanPermission(
+                getPermission(ident, targetPoint, null, GroupEntry.toList(getServerZone().getPlayerGroups(ident, targetPoint)), permissionNode, false));
+    }
+
     @Override
     public String getUserPermissionProperty(UserIdent ident, WorldPoint targetPoint, String permissionNode)
     {
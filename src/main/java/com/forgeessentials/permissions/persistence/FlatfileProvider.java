@@ -13,6 +13,7 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
 
@@ -21,6 +22,7 @@ import org.apache.commons.io.FileUtils;
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.AreaZone;
 import com.forgeessentials.api.permissions.FEPermissions;
+import com.forgeessentials.api.permissions.PermissionChangeJournal;
 import com.forgeessentials.api.permissions.ServerZone;
 import com.forgeessentials.api.permissions.WorldZone;
 import com.forgeessentials.api.permissions.Zone;
@@ -89,25 +91,32 @@ public class FlatfileProvider extends ZonePersistenceProvider
     }
 
     @Override
-    public void save(ServerZone serverZone)
+    public boolean supportsIncrementalSave()
     {
-        File path = basePath;
-        deleteDirectory(path);
+        return true;
+    }
 
-        writeUserGroupPermissions(serverZone);
+    @Override
+    public void saveSnapshot(ServerZone serverZone, PermissionChangeJournal changes)
+    {
+        File path = basePath;
+        if (changes.isFull())
+            deleteDirectory(path);
 
         saveServerZone(path, serverZone);
-        saveZonePermissions(path, serverZone);
+        saveZonePermissions(path, serverZone, changes);
         for (WorldZone worldZone : serverZone.getWorldZones().values())
         {
             File worldPath = new File(path, worldZone.getName());
-            saveWorldZone(worldPath, worldZone);
-            saveZonePermissions(worldPath, worldZone);
+            if (changes.isZoneDirty(worldZone.getId()))
+                saveWorldZone(worldPath, worldZone);
+            saveZonePermissions(worldPath, worldZone, changes);
             for (AreaZone areaZone : worldZone.getAreaZones())
             {
                 File areaPath = new File(worldPath, areaZone.getName());
-                saveAreaZone(areaPath, areaZone);
-                saveZonePermissions(areaPath, areaZone);
+                if (changes.isZoneDirty(areaZone.getId()))
+                    saveAreaZone(areaPath, areaZone);
+                saveZonePermissions(areaPath, areaZone, changes);
             }
         }
     }
@@ -183,35 +192,127 @@ public class FlatfileProvider extends ZonePersistenceProvider
         File groupsPath = new File(path, "groups");
         for (Entry<UserIdent, PermissionList> entry : zone.getPlayerPermissions().entrySet())
         {
-            // Get filename and info
-            String username = entry.getKey().getUsername() == null ? entry.getKey().getUuid().toString() : entry.getKey().getUsername();
-            UUID uuid = entry.getKey().getUuid();
-            String filename = username == null ? uuid.toString() : username;
-            String comment = "Permissions for user " + (username != null ? username : "<unknown-username>") + " with UUID "
-                    + (uuid != null ? uuid.toString() : "<unknown-uuid>") + COMMENT_INFO;
-            filename = filename.replaceAll("[^a-zA-Z0-9\\.\\-]", "_");
-
             // prevent overwriting files with same playername
+            String filename = getPlayerFilename(entry.getKey());
             while (new File(playersPath, filename + PERMISSION_FILE_EXT).exists())
                 filename = filename + "_";
-
-            // Save permissions
-            Properties p = permissionListToProperties(entry.getValue());
-            if (entry.getKey().getUsername() != null)
-                p.setProperty(FEPermissions.PLAYER_NAME, entry.getKey().getUsername());
-            if (entry.getKey().getUuid() != null)
-                p.setProperty(FEPermissions.PLAYER_UUID, entry.getKey().getUuid().toString());
-            saveProperties(p, playersPath, filename + PERMISSION_FILE_EXT, comment);
+            savePlayerPermissions(playersPath, filename, entry.getKey(), entry.getValue());
         }
         for (Entry<String, PermissionList> entry : zone.getGroupPermissions().entrySet())
+            saveGroupPermissions(groupsPath, entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Saves the permissions of a zone. If the zone is not completely dirty, only the files of changed groups and
+     * players are rewritten.
+     */
+    public static void saveZonePermissions(File path, Zone zone, PermissionChangeJournal changes)
+    {
+        File playersPath = new File(path, "players");
+        File groupsPath = new File(path, "groups");
+        if (changes.isZoneDirty(zone.getId()))
+        {
+            if (!changes.isFull())
+            {
+                deleteDirectory(playersPath);
+                deleteDirectory(groupsPath);
+            }
+            saveZonePermissions(path, zone);
+            return;
+        }
+        for (String group : changes.getDirtyGroups(zone.getId()))
+        {
+            PermissionList permissions = zone.getGroupPermissions(group);
+            if (permissions == null)
+                new File(groupsPath, group + PERMISSION_FILE_EXT).delete();
+            else
+                saveGroupPermissions(groupsPath, group, permissions);
+        }
+        Set<UserIdent> dirtyPlayers = changes.getDirtyPlayers(zone.getId());
+        if (dirtyPlayers.isEmpty())
+            return;
+        // Delete all existing files of the changed players. They can have another name than the current one, if the
+        // player was renamed.
+        File[] files = playersPath.listFiles(permissionFilter);
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                Properties p = loadPlayerProperties(file);
+                if (p == null)
+                    continue;
+                for (UserIdent ident : dirtyPlayers)
+                {
+                    if (isPlayerFile(p, ident))
+                    {
+                        file.delete();
+                        break;
+                    }
+                }
+            }
+        }
+        for (UserIdent ident : dirtyPlayers)
         {
-            // Get filename and info
-            String comment = "Permissions for group " + entry.getKey() + COMMENT_INFO;
+            PermissionList permissions = zone.getPlayerPermissions(ident);
+            if (permissions == null)
+                continue;
+            String filename = getPlayerFilename(ident);
+            while (new File(playersPath, filename + PERMISSION_FILE_EXT).exists())
+                filename = filename + "_";
+            savePlayerPermissions(playersPath, filename, ident, permissions);
+        }
+    }
 
-            // Save permissions
-            Properties p = permissionListToProperties(entry.getValue());
-            saveProperties(p, groupsPath, entry.getKey() + PERMISSION_FILE_EXT, comment);
+    private static String getPlayerFilename(UserIdent ident)
+    {
+        String filename = ident.getUsername() == null ? ident.getUuid().toString() : ident.getUsername();
+        return filename.replaceAll("[^a-zA-Z0-9\\.\\-]", "_");
+    }
+
+    private static Properties loadPlayerProperties(File file)
+    {
+        Properties p = new Properties();
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file)))
+        {
+            p.load(is);
+        }
+        catch (IOException e)
+        {
+            return null;
         }
+        return p;
+    }
+
+    private static boolean isPlayerFile(Properties p, UserIdent ident)
+    {
+        String uuid = p.getProperty(FEPermissions.PLAYER_UUID);
+        if (uuid != null && ident.getUuid() != null)
+            return uuid.equals(ident.getUuid().toString());
+        String username = p.getProperty(FEPermissions.PLAYER_NAME);
+        return username != null && username.equals(ident.getUsername());
+    }
+
+    private static void savePlayerPermissions(File playersPath, String filename, UserIdent ident, PermissionList permissions)
+    {
+        String username = ident.getUsername();
+        UUID uuid = ident.getUuid();
+        String comment = "Permissions for user " + (username != null ? username : "<unknown-username>") + " with UUID "
+                + (uuid != null ? uuid.toString() : "<unknown-uuid>") + COMMENT_INFO;
+
+        // Save permissions
+        Properties p = permissionListToProperties(permissions);
+        if (username != null)
+            p.setProperty(FEPermissions.PLAYER_NAME, username);
+        if (uuid != null)
+            p.setProperty(FEPermissions.PLAYER_UUID, uuid.toString());
+        saveProperties(p, playersPath, filename + PERMISSION_FILE_EXT, comment);
+    }
+
+    private static void saveGroupPermissions(File groupsPath, String group, PermissionList permissions)
+    {
+        String comment = "Permissions for group " + group + COMMENT_INFO;
+        Properties p = permissionListToProperties(permissions);
+        saveProperties(p, groupsPath, group + PERMISSION_FILE_EXT, comment);
     }
 
     public static Properties permissionListToProperties(PermissionList list)
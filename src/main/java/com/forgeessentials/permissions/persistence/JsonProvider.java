@@ -13,13 +13,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.AreaZone;
 import com.forgeessentials.api.permissions.FEPermissions;
 import com.forgeessentials.api.permissions.GroupEntry;
+import com.forgeessentials.api.permissions.PermissionChangeJournal;
 import com.forgeessentials.api.permissions.ServerZone;
 import com.forgeessentials.api.permissions.WorldZone;
 import com.forgeessentials.api.permissions.Zone;
@@ -167,13 +167,26 @@ public class JsonProvider extends ZonePersistenceProvider
         }
     }
 
+    /**
+     * Always receives a complete snapshot, but only rewrites the files containing changed data
+     */
     @Override
-    public void save(ServerZone serverZone)
+    public void saveSnapshot(ServerZone serverZone, PermissionChangeJournal changes)
     {
         path.mkdirs();
-        saveGroups(serverZone);
-        saveUsers(serverZone);
-        saveWorlds(serverZone);
+        int serverId = serverZone.getId();
+        if (changes.isZoneDirty(serverId) || !changes.getDirtyGroups(serverId).isEmpty())
+            saveGroups(serverZone);
+        if (changes.isZoneDirty(serverId) || !changes.getDirtyPlayers(serverId).isEmpty())
+            saveUsers(serverZone);
+        for (WorldZone wz : serverZone.getWorldZones().values())
+        {
+            boolean touched = changes.isZoneTouched(wz.getId());
+            for (AreaZone az : wz.getAreaZones())
+                touched |= changes.isZoneTouched(az.getId());
+            if (touched)
+                saveWorld(wz);
+        }
     }
 
     public void saveGroups(ServerZone zone)
@@ -215,33 +228,35 @@ public class JsonProvider extends ZonePersistenceProvider
 
     public void saveWorlds(ServerZone serverZone)
     {
-        for (Entry<Integer, WorldZone> wzEntry : serverZone.getWorldZones().entrySet())
+        for (WorldZone wz : serverZone.getWorldZones().values())
+            saveWorld(wz);
+    }
+
+    public void saveWorld(WorldZone wz)
+    {
+        int wzDimId = wz.getDimensionID();
+        String pathName = String.format("/world_%d.json", wzDimId);
+        File newPath = new File(path + pathName);
+        WorldZoneData worldZoneData = new WorldZoneData(wz.getId(), wzDimId);
+        worldZoneData.groups.putAll(getGroupDataMap(wz, wz.getGroupPermissions().keySet()));
+        worldZoneData.players.putAll(getUserDataMap(wz, wz.getPlayerPermissions().keySet()));
+        for (AreaZone az : wz.getAreaZones())
         {
-            Integer wzDimId = wzEntry.getKey();
-            WorldZone wz = wzEntry.getValue();
-            String pathName = String.format("/world_%d.json", wzDimId);
-            File newPath = new File(path + pathName);
-            WorldZoneData worldZoneData = new WorldZoneData(wz.getId(), wzDimId);
-            worldZoneData.groups.putAll(getGroupDataMap(wz, wz.getGroupPermissions().keySet()));
-            worldZoneData.players.putAll(getUserDataMap(wz, wz.getPlayerPermissions().keySet()));
-            for (AreaZone az : wz.getAreaZones())
-            {
-                AreaZoneData areaZoneData = new AreaZoneData(az.getId(), az.getPriority(), az.isHidden(), az.getName(), az.getArea(), az.getShape());
-                areaZoneData.groups.putAll(getGroupDataMap(az, az.getGroupPermissions().keySet()));
-                areaZoneData.players.putAll(getUserDataMap(az, az.getPlayerPermissions().keySet()));
-                worldZoneData.zones.add(areaZoneData);
-            }
-            String json = gson.toJson(worldZoneData);
-            try
-            {
-                FileWriter writer = new FileWriter(newPath);
-                writer.write(json);
-                writer.close();
-            }
-            catch (IOException e)
-            {
-                LoggingHandler.felog.error(String.format("Failed to save world_%d.json: %s", wzDimId, e.getMessage()));
-            }
+            AreaZoneData areaZoneData = new AreaZoneData(az.getId(), az.getPriority(), az.isHidden(), az.getName(), az.getArea(), az.getShape());
+            areaZoneData.groups.putAll(getGroupDataMap(az, az.getGroupPermissions().keySet()));
+            areaZoneData.players.putAll(getUserDataMap(az, az.getPlayerPermissions().keySet()));
+            worldZoneData.zones.add(areaZoneData);
+        }
+        String json = gson.toJson(worldZoneData);
+        try
+        {
+            FileWriter writer = new FileWriter(newPath);
+            writer.write(json);
+            writer.close();
+        }
+        catch (IOException e)
+        {
+            LoggingHandler.felog.error(String.format("Failed to save world_%d.json: %s", wzDimId, e.getMessage()));
         }
     }
 
@@ -303,6 +318,7 @@ public class JsonProvider extends ZonePersistenceProvider
             String uuid = (user.getUuid() == null ? null : user.getUuid().toString());
             String username = user.getUsername();
             PermissionList permList = new PermissionList(zone.getPlayerPermissions(user));
+            permList.remove(FEPermissions.PLAYER_GROUPS);
             String prefix = permList.remove(FEPermissions.PREFIX);
             if (prefix == null)
                 prefix = "";
@@ -325,7 +341,7 @@ public class JsonProvider extends ZonePersistenceProvider
             userData.permissions.addAll(list);
             if (global)
             {
-                userData.groups.addAll(GroupEntry.toList(((ServerZone) zone).getPlayerGroups(user)));
+                userData.groups.addAll(GroupEntry.toList(((ServerZone) zone).getStoredPlayerGroupEntries(user)));
             }
             else
             {
@@ -1,6 +1,7 @@
 package com.forgeessentials.permissions.persistence;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -20,6 +21,7 @@ import org.apache.commons.lang3.StringUtils;
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.AreaZone;
 import com.forgeessentials.api.permissions.FEPermissions;
+import com.forgeessentials.api.permissions.PermissionChangeJournal;
 import com.forgeessentials.api.permissions.ServerZone;
 import com.forgeessentials.api.permissions.WorldZone;
 import com.forgeessentials.api.permissions.Zone;
@@ -31,7 +33,6 @@ import com.forgeessentials.util.EnumDBType;
 import com.forgeessentials.util.output.LoggingHandler;
 import com.google.common.base.Throwables;
 
-//FIXME: This class should be modified to use PreparedStatements instead of dynamic sql
 public class SQLProvider extends ZonePersistenceProvider
 {
 
@@ -99,22 +100,51 @@ public class SQLProvider extends ZonePersistenceProvider
             return sb.toString();
         }
 
-        public String createInsertOrReplace(Map<String, Object> fieldsAndValues)
+        public String createInsertOrReplace(Collection<String> fields)
         {
-            for (String f : fieldsAndValues.keySet())
-                if (!columns.containsKey(f))
-                    throw new RuntimeException("Error in select statement.");
             StringBuilder sb = new StringBuilder();
             if (dbType == EnumDBType.H2_FILE)
                 sb.append("MERGE INTO `");
             else
                 sb.append("REPLACE INTO `");
+            appendInsertFields(sb, fields);
+            return sb.toString();
+        }
+
+        public String createInsert(String... fields)
+        {
+            StringBuilder sb = new StringBuilder("INSERT INTO `");
+            appendInsertFields(sb, Arrays.asList(fields));
+            return sb.toString();
+        }
+
+        private void appendInsertFields(StringBuilder sb, Collection<String> fields)
+        {
+            for (String f : fields)
+                if (!columns.containsKey(f))
+                    throw new RuntimeException("Error in insert statement.");
             sb.append(name);
             sb.append("` (`");
-            sb.append(StringUtils.join(fieldsAndValues.keySet(), "`, `"));
-            sb.append("`) VALUES ('");
-            sb.append(StringUtils.join(fieldsAndValues.values(), "', '"));
-            sb.append("')");
+            sb.append(StringUtils.join(fields, "`, `"));
+            sb.append("`) VALUES (");
+            sb.append(StringUtils.repeat("?", ", ", fields.size()));
+            sb.append(")");
+        }
+
+        public String createDelete(String... keys)
+        {
+            for (String f : keys)
+                if (!columns.containsKey(f))
+                    throw new RuntimeException("Error in delete statement.");
+            StringBuilder sb = new StringBuilder("DELETE FROM `");
+            sb.append(name);
+            sb.append("`");
+            if (keys.length > 0)
+            {
+                sb.append(" WHERE `");
+                sb.append(StringUtils.join(keys, "` = ? AND `"));
+                sb.append("` = ?");
+            }
             return sb.toString();
         }
 
@@ -348,112 +378,198 @@ public class SQLProvider extends ZonePersistenceProvider
         Map<String, Object> fieldsAndValues = new HashMap<>();
         fieldsAndValues.put("key", "version");
         fieldsAndValues.put("value", version);
-        executeUpdate(TABLES.get(TABLE_INFO).createInsertOrReplace(fieldsAndValues));
+        try
+        {
+            insertOrReplace(TABLES.get(TABLE_INFO), fieldsAndValues);
+        }
+        catch (SQLException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    private void insertOrReplace(TableInfo table, Map<String, Object> fieldsAndValues) throws SQLException
+    {
+        List<String> fields = new ArrayList<>(fieldsAndValues.keySet());
+        try (PreparedStatement statement = db.prepareStatement(table.createInsertOrReplace(fields)))
+        {
+            for (int i = 0; i < fields.size(); i++)
+                statement.setObject(i + 1, fieldsAndValues.get(fields.get(i)));
+            statement.executeUpdate();
+        }
+    }
+
+    // ------------------------------------------------------------
+
+    @Override
+    public boolean supportsIncrementalSave()
+    {
+        return true;
     }
 
     @Override
-    public void save(ServerZone serverZone)
+    public void saveSnapshot(ServerZone serverZone, PermissionChangeJournal changes)
     {
         try
         {
-            writeUserGroupPermissions(serverZone);
-
             // Use a transaction to be able to rollback, if there is an error
-            // db.setAutoCommit(false);
+            db.setAutoCommit(false);
+            try
+            {
+                if (changes.isFull())
+                {
+                    // Remove old data
+                    db.createStatement().executeUpdate(TABLES.get(TABLE_ZONE).createDelete());
+                    db.createStatement().executeUpdate(TABLES.get(TABLE_GROUP_PERMISSIONS).createDelete());
+                    db.createStatement().executeUpdate(TABLES.get(TABLE_USER_PERMISSIONS).createDelete());
+                }
 
-            // Truncate old data
-            db.createStatement().executeUpdate(TABLES.get(TABLE_ZONE).createTruncate());
-            // db.createStatement().executeUpdate(TABLES.get(TABLE_USER).createTruncate());
-            // db.createStatement().executeUpdate(TABLES.get(TABLE_GROUP).createTruncate());
-            db.createStatement().executeUpdate(TABLES.get(TABLE_GROUP_PERMISSIONS).createTruncate());
-            db.createStatement().executeUpdate(TABLES.get(TABLE_USER_PERMISSIONS).createTruncate());
+                saveUsers(serverZone);
+                saveServerZone(serverZone);
+                saveZonePermissions(serverZone, changes);
+                for (WorldZone worldZone : serverZone.getWorldZones().values())
+                {
+                    if (changes.isZoneDirty(worldZone.getId()))
+                        saveWorldZone(worldZone);
+                    saveZonePermissions(worldZone, changes);
+                    for (AreaZone areaZone : worldZone.getAreaZones())
+                    {
+                        if (changes.isZoneDirty(areaZone.getId()))
+                            saveAreaZone(areaZone);
+                        saveZonePermissions(areaZone, changes);
+                    }
+                }
+                db.commit();
+            }
+            catch (SQLException e)
+            {
+                try
+                {
+                    db.rollback();
+                }
+                catch (SQLException se2)
+                {
+                    // Ignore rollback-error
+                }
+                throw e;
+            }
+            finally
+            {
+                db.setAutoCommit(true);
+            }
+        }
+        catch (SQLException se)
+        {
+            Throwables.propagate(se);
+        }
+    }
 
+    private void saveUsers(ServerZone serverZone) throws SQLException
+    {
+        try (PreparedStatement statement = db.prepareStatement(TABLES.get(TABLE_USER).createInsertOrReplace(Arrays.asList("uuid", "name"))))
+        {
             for (UserIdent ident : serverZone.getKnownPlayers())
             {
                 if (!ident.hasUuid())
                     continue;
-                Map<String, Object> fieldsAndValues = new HashMap<>();
-                fieldsAndValues.put("uuid", ident.getOrGenerateUuid().toString());
-                if (ident.hasUsername())
-                    fieldsAndValues.put("name", ident.getUsername());
-                db.createStatement().executeUpdate(TABLES.get(TABLE_USER).createInsertOrReplace(fieldsAndValues));
+                statement.setString(1, ident.getOrGenerateUuid().toString());
+                statement.setString(2, ident.hasUsername() ? ident.getUsername() : null);
+                statement.addBatch();
             }
+            statement.executeBatch();
+        }
+    }
 
-            saveServerZone(serverZone);
-            saveZonePermissions(serverZone);
-            for (WorldZone worldZone : serverZone.getWorldZones().values())
+    /**
+     * Writes the permissions of a zone. If the zone is not completely dirty, only the permissions of changed groups and
+     * players are replaced.
+     */
+    private void saveZonePermissions(Zone zone, PermissionChangeJournal changes) throws SQLException
+    {
+        TableInfo groupTable = TABLES.get(TABLE_GROUP_PERMISSIONS);
+        TableInfo userTable = TABLES.get(TABLE_USER_PERMISSIONS);
+        Collection<String> groups;
+        Collection<UserIdent> users;
+        if (changes.isZoneDirty(zone.getId()))
+        {
+            if (!changes.isFull())
             {
-                saveWorldZone(worldZone);
-                saveZonePermissions(worldZone);
-                for (AreaZone areaZone : worldZone.getAreaZones())
+                try (PreparedStatement statement = db.prepareStatement(groupTable.createDelete("zone_id")))
                 {
-                    saveAreaZone(areaZone);
-                    saveZonePermissions(areaZone);
+                    statement.setInt(1, zone.getId());
+                    statement.executeUpdate();
+                }
+                try (PreparedStatement statement = db.prepareStatement(userTable.createDelete("zone_id")))
+                {
+                    statement.setInt(1, zone.getId());
+                    statement.executeUpdate();
                 }
             }
-            // db.commit();
-            // db.setAutoCommit(true);
+            groups = zone.getGroupPermissions().keySet();
+            users = zone.getPlayerPermissions().keySet();
         }
-        catch (SQLException se)
+        else
         {
-            try
+            groups = changes.getDirtyGroups(zone.getId());
+            users = changes.getDirtyPlayers(zone.getId());
+            try (PreparedStatement statement = db.prepareStatement(groupTable.createDelete("zone_id", "group")))
             {
-                db.rollback();
+                for (String group : groups)
+                {
+                    statement.setInt(1, zone.getId());
+                    statement.setString(2, group);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
             }
-            catch (SQLException se2)
+            try (PreparedStatement statement = db.prepareStatement(userTable.createDelete("zone_id", "user")))
             {
-                // Ignore rollback-error
+                for (UserIdent ident : users)
+                {
+                    statement.setInt(1, zone.getId());
+                    statement.setString(2, ident.getOrGenerateUuid().toString());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
             }
-            Throwables.propagate(se);
         }
-    }
 
-    private void saveZonePermissions(Zone zone)
-    {
-        try
+        try (PreparedStatement statement = db.prepareStatement(groupTable.createInsert("group", "zone_id", "permission", "value")))
         {
-            for (Entry<String, PermissionList> group : zone.getGroupPermissions().entrySet())
+            for (String group : groups)
             {
-                for (Entry<String, String> perm : group.getValue().entrySet())
+                PermissionList permissions = zone.getGroupPermissions(group);
+                if (permissions == null)
+                    continue;
+                for (Entry<String, String> perm : permissions.entrySet())
                 {
-                    Map<String, Object> fieldsAndValues = new HashMap<>();
-                    fieldsAndValues.put("group", group.getKey());
-                    fieldsAndValues.put("zone_id", zone.getId());
-                    fieldsAndValues.put("permission", perm.getKey());
-                    fieldsAndValues.put("value", perm.getValue());
-                    db.createStatement().executeUpdate(TABLES.get(TABLE_GROUP_PERMISSIONS).createInsertOrReplace(fieldsAndValues));
+                    statement.setString(1, group);
+                    statement.setInt(2, zone.getId());
+                    statement.setString(3, perm.getKey());
+                    statement.setString(4, String.valueOf(perm.getValue()));
+                    statement.addBatch();
                 }
             }
-            for (Entry<UserIdent, PermissionList> user : zone.getPlayerPermissions().entrySet())
+            statement.executeBatch();
+        }
+        try (PreparedStatement statement = db.prepareStatement(userTable.createInsert("user", "zone_id", "permission", "value")))
+        {
+            for (UserIdent ident : users)
             {
-                for (Entry<String, String> perm : user.getValue().entrySet())
+                PermissionList permissions = zone.getPlayerPermissions(ident);
+                if (permissions == null)
+                    continue;
+                String uuid = ident.getOrGenerateUuid().toString();
+                for (Entry<String, String> perm : permissions.entrySet())
                 {
-                    Map<String, Object> fieldsAndValues = new HashMap<>();
-                    fieldsAndValues.put("user", user.getKey().getOrGenerateUuid().toString());
-                    fieldsAndValues.put("zone_id", zone.getId());
-                    fieldsAndValues.put("permission", perm.getKey());
-                    fieldsAndValues.put("value", perm.getValue());
-                    db.createStatement().executeUpdate(TABLES.get(TABLE_USER_PERMISSIONS).createInsertOrReplace(fieldsAndValues));
+                    statement.setString(1, uuid);
+                    statement.setInt(2, zone.getId());
+                    statement.setString(3, perm.getKey());
+                    statement.setString(4, String.valueOf(perm.getValue()));
+                    statement.addBatch();
                 }
             }
-            // PreparedStatement pstmt = db.prepareStatement("UPDATE");
-            //
-            // // Add rows to a batch in a loop. Each iteration adds a new row.
-            // for (int i = 0; i < firstNames.length; i++)
-            // {
-            // // Add each parameter to the row.
-            // pstmt.setInt(1, i + 1);
-            // pstmt.setString(2, lastNames[i]);
-            // pstmt.setString(3, firstNames[i]);
-            // pstmt.setString(4, emails[i]);
-            // pstmt.setString(5, phoneNumbers[i]);
-            // // Add row to the batch.
-            // pstmt.addBatch();
-            // }
-        }
-        catch (SQLException e)
-        {
-            Throwables.propagate(e);
+            statement.executeBatch();
         }
     }
 
@@ -463,12 +579,12 @@ public class SQLProvider extends ZonePersistenceProvider
         fieldsAndValues.put("id", zone.getId());
         fieldsAndValues.put("type", 0);
         fieldsAndValues.put("parent_id", 0);
-        db.createStatement().executeUpdate(TABLES.get(TABLE_ZONE).createInsertOrReplace(fieldsAndValues));
+        insertOrReplace(TABLES.get(TABLE_ZONE), fieldsAndValues);
 
         fieldsAndValues = new HashMap<>();
         fieldsAndValues.put("key", INFO_MAX_ZONE_ID);
-        fieldsAndValues.put("value", zone.getMaxZoneID());
-        db.createStatement().executeUpdate(TABLES.get(TABLE_INFO).createInsertOrReplace(fieldsAndValues));
+        fieldsAndValues.put("value", Integer.toString(zone.getMaxZoneID()));
+        insertOrReplace(TABLES.get(TABLE_INFO), fieldsAndValues);
     }
 
     private void saveWorldZone(WorldZone zone) throws SQLException
@@ -478,7 +594,7 @@ public class SQLProvider extends ZonePersistenceProvider
         fieldsAndValues.put("type", 1);
         fieldsAndValues.put("parent_id", zone.getParent().getId());
         fieldsAndValues.put("dimension", zone.getDimensionID());
-        db.createStatement().executeUpdate(TABLES.get(TABLE_ZONE).createInsertOrReplace(fieldsAndValues));
+        insertOrReplace(TABLES.get(TABLE_ZONE), fieldsAndValues);
     }
 
     private void saveAreaZone(AreaZone zone) throws SQLException
@@ -491,7 +607,7 @@ public class SQLProvider extends ZonePersistenceProvider
         fieldsAndValues.put("dimension", zone.getWorldZone().getDimensionID());
         fieldsAndValues.put("area", zone.getArea().toString());
         fieldsAndValues.put("shape", zone.getShape().toString());
-        db.createStatement().executeUpdate(TABLES.get(TABLE_ZONE).createInsertOrReplace(fieldsAndValues));
+        insertOrReplace(TABLES.get(TABLE_ZONE), fieldsAndValues);
     }
 
     @Override
@@ -8,6 +8,7 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 
+import com.forgeessentials.api.permissions.PermissionChangeJournal;
 import com.forgeessentials.api.permissions.ServerZone;
 import com.forgeessentials.data.v2.DataManager;
 import com.forgeessentials.permissions.core.ZonePersistenceProvider;
@@ -48,9 +49,8 @@ public class SingleFileProvider extends ZonePersistenceProvider
     }
 
     @Override
-    public void save(ServerZone serverZone)
+    public void saveSnapshot(ServerZone serverZone, PermissionChangeJournal changes)
     {
-        writeUserGroupPermissions(serverZone);
         try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), Charset.forName("UTF-8")))
         {
             out.write(DataManager.getGson().toJson(serverZone));
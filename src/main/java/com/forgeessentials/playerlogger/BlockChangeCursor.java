@@ -0,0 +1,85 @@
+package com.forgeessentials.playerlogger;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.forgeessentials.commons.selections.WorldArea;
+import com.forgeessentials.playerlogger.entity.Action01Block;
+
+/**
+ * Iterates over logged block changes page by page, so large areas can be processed without loading all changes into
+ * memory at once. Pages are continued by id, so entries are never skipped or returned twice.
+ */
+public class BlockChangeCursor implements Iterator<Action01Block>
+{
+
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    private final WorldArea area;
+
+    private final Date startTime;
+
+    private final Date endTime;
+
+    private final boolean ascending;
+
+    private final int pageSize;
+
+    private List<Action01Block> page = Collections.emptyList();
+
+    private int pageIndex;
+
+    private long lastId;
+
+    private boolean exhausted;
+
+    /**
+     * @param area
+     * @param startTime startTime <= t <= endTime
+     * @param endTime startTime <= t <= endTime
+     * @param ascending iterate from oldest to newest change
+     * @param pageSize
+     */
+    public BlockChangeCursor(WorldArea area, Date startTime, Date endTime, boolean ascending, int pageSize)
+    {
+        this.area = area;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.ascending = ascending;
+        this.pageSize = pageSize;
+    }
+
+    public BlockChangeCursor(WorldArea area, Date startTime, Date endTime, boolean ascending)
+    {
+        this(area, startTime, endTime, ascending, DEFAULT_PAGE_SIZE);
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if (pageIndex < page.size())
+            return true;
+        if (exhausted)
+            return false;
+        page = ModulePlayerLogger.getLogger().getBlockChangePage(area, startTime, endTime, lastId, ascending, pageSize);
+        pageIndex = 0;
+        if (page.size() < pageSize)
+            exhausted = true;
+        if (page.isEmpty())
+            return false;
+        lastId = page.get(page.size() - 1).id;
+        return true;
+    }
+
+    @Override
+    public Action01Block next()
+    {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return page.get(pageIndex++);
+    }
+
+}
@@ -5,6 +5,7 @@ import java.util.concurrent.TimeUnit;
 
 
 import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.remote.RemoteTopic;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.core.misc.FECommandManager;
 import com.forgeessentials.core.moduleLauncher.FEModule;
@@ -31,6 +32,11 @@ public class ModulePlayerLogger
     public static final String PERM_WAND = PERM + ".wand";
     public static final String PERM_COMMAND = PERM + ".cmd";
 
+    /**
+     * Remote topic of newly logged actions
+     */
+    public static final String TOPIC = "playerlogger";
+
     private static PlayerLogger logger;
 
     @SuppressWarnings("unused")
@@ -92,6 +98,7 @@ public class ModulePlayerLogger
     public void serverPreInit(FEModuleServerPreInitEvent e)
     {
         registerPermissions();
+        APIRegistry.remoteManager.registerTopic(new RemoteTopic(TOPIC, PERM));
         logger.loadDatabase();
     }
 
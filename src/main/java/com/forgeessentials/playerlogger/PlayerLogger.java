@@ -1,20 +1,32 @@
 package com.forgeessentials.playerlogger;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.Persistence;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -32,6 +44,7 @@ import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemDoor;
 import net.minecraft.item.ItemRedstone;
 import net.minecraft.item.ItemSkull;
+import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -52,10 +65,12 @@ import net.minecraftforge.fml.common.gameevent.PlayerEvent;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.relauncher.Side;
 
+import com.forgeessentials.api.APIRegistry;
 import com.forgeessentials.commons.selections.Point;
 import com.forgeessentials.commons.selections.WorldArea;
 import com.forgeessentials.commons.selections.WorldPoint;
 import com.forgeessentials.core.misc.TaskRegistry;
+import com.forgeessentials.playerlogger.PlayerPositionLog.PositionSample;
 import com.forgeessentials.playerlogger.entity.Action;
 import com.forgeessentials.playerlogger.entity.Action01Block;
 import com.forgeessentials.playerlogger.entity.Action02Command;
@@ -65,6 +80,8 @@ import com.forgeessentials.playerlogger.entity.BlockData;
 import com.forgeessentials.playerlogger.entity.BlockData_;
 import com.forgeessentials.playerlogger.entity.PlayerData;
 import com.forgeessentials.playerlogger.entity.PlayerData_;
+import com.forgeessentials.playerlogger.entity.PlayerPositionTrack;
+import com.forgeessentials.playerlogger.entity.SchemaVersion;
 import com.forgeessentials.playerlogger.entity.WorldData;
 import com.forgeessentials.playerlogger.event.LogEventBreak;
 import com.forgeessentials.playerlogger.event.LogEventBurn;
@@ -76,17 +93,25 @@ import com.forgeessentials.playerlogger.event.LogEventPlayerEvent;
 import com.forgeessentials.playerlogger.event.LogEventPlayerPositions;
 import com.forgeessentials.playerlogger.event.LogEventPostInteract;
 import com.forgeessentials.playerlogger.event.LogEventWorldLoad;
+import com.forgeessentials.playerlogger.remote.ActionPush;
 import com.forgeessentials.util.ServerUtil;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.LoggingHandler;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 
 public class PlayerLogger extends ServerEventHandler implements Runnable
 {
 
-    private Thread thread;
+    /**
+     * Time the server thread waits for the writer thread to write the remaining events when stopping
+     */
+    private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private volatile Thread thread;
 
     private EntityManagerFactory entityManagerFactory;
 
@@ -100,159 +125,327 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
 
     /* ------------------------------------------------------------ */
 
-    private ConcurrentLinkedQueue<PlayerLoggerEvent<?>> eventQueue = new ConcurrentLinkedQueue<>();
+    private BlockingQueue<PlayerLoggerEvent<?>> eventQueue = new ArrayBlockingQueue<>(1000);
+
+    private volatile boolean running;
+
+    private final PlayerLoggerStats stats = new PlayerLoggerStats();
+
+    private final PlayerPositionLog positionLog = new PlayerPositionLog();
+
+    /* Actions persisted in the current transaction, pushed to remote subscribers after the commit */
+    private final List<Action> persistedActions = new ArrayList<>();
+
+    private boolean pushActions;
+
+    /**
+     * First byte of deflate-compressed tile entity data. Uncompressed data starts with the NBT tag type instead.
+     */
+    private static final byte ZLIB_HEADER = 0x78;
+
+    private static final Deflater deflater = new Deflater();
+
+    /**
+     * Maximum number of chunk columns queried as separate index ranges
+     */
+    private static final int MAX_CHUNK_RANGES = 32;
 
     /* ------------------------------------------------------------ */
 
     /**
      * Closes any existing database connection and frees resources
      */
-    protected synchronized void close()
+    protected void close()
     {
-        TaskRegistry.remove(playerPositionTimer);
+        stopThread();
+        synchronized (this)
+        {
+            TaskRegistry.remove(playerPositionTimer);
 
-        eventQueue.clear();
-        blockCache.clear();
-        blockTypeCache.clear();
-        playerCache.clear();
+            eventQueue.clear();
+            blockCache.clear();
+            blockTypeCache.clear();
+            playerCache.clear();
+            positionLog.clear();
 
-        if (em != null && em.isOpen())
-        {
-            em.close();
-            em = null;
-        }
-        if (entityManagerFactory != null && entityManagerFactory.isOpen())
-        {
-            entityManagerFactory.close();
-            entityManagerFactory = null;
+            if (em != null && em.isOpen())
+            {
+                em.close();
+                em = null;
+            }
+            if (entityManagerFactory != null && entityManagerFactory.isOpen())
+            {
+                entityManagerFactory.close();
+                entityManagerFactory = null;
+            }
         }
     }
 
     /**
      * Initialize the database connection
      */
-    protected synchronized void loadDatabase()
+    protected void loadDatabase()
     {
         close();
-
-        // Set log level
-        Logger.getLogger("org.hibernate").setLevel(Level.SEVERE);
-
-        Properties properties = new Properties();
-        switch (PlayerLoggerConfig.databaseType)
+        synchronized (this)
         {
-        case "h2":
-            if (!PlayerLoggerConfig.databaseUrl.startsWith("./"))
-                PlayerLoggerConfig.databaseUrl = "./" + PlayerLoggerConfig.databaseUrl;
+            // Set log level
+            Logger.getLogger("org.hibernate").setLevel(Level.SEVERE);
 
-            properties.setProperty("hibernate.connection.url", "jdbc:h2:" + PlayerLoggerConfig.databaseUrl);
-            break;
-        case "mysql":
-            // e.g.: jdbc:mysql://localhost:3306/forgeessentials
-            properties.setProperty("hibernate.connection.url", "jdbc:mysql://" + PlayerLoggerConfig.databaseUrl);
-            break;
-        default:
-            throw new RuntimeException("PlayerLogger database type must be either h2 or mysql.");
-        }
-        properties.setProperty("hibernate.connection.username", PlayerLoggerConfig.databaseUsername);
-        properties.setProperty("hibernate.connection.password", PlayerLoggerConfig.databasePassword);
-        // properties.setProperty("hibernate.hbm2ddl.auto", "update");
-        // properties.setProperty("hibernate.format_sql", "false");
-        // properties.setProperty("hibernate.show_sql", "true");
-
-        entityManagerFactory = Persistence.createEntityManagerFactory("playerlogger_" + PlayerLoggerConfig.databaseType, properties);
-        // entityManagerFactory = Persistence.createEntityManagerFactory("playerlogger_eclipselink_" +
-        // PlayerLoggerConfig.databaseType, properties);
-        em = entityManagerFactory.createEntityManager();
+            Properties properties = new Properties();
+            switch (PlayerLoggerConfig.databaseType)
+            {
+            case "h2":
+                if (!PlayerLoggerConfig.databaseUrl.startsWith("./"))
+                    PlayerLoggerConfig.databaseUrl = "./" + PlayerLoggerConfig.databaseUrl;
+
+                properties.setProperty("hibernate.connection.url", "jdbc:h2:" + PlayerLoggerConfig.databaseUrl);
+                break;
+            case "mysql":
+                // e.g.: jdbc:mysql://localhost:3306/forgeessentials
+                String url = "jdbc:mysql://" + PlayerLoggerConfig.databaseUrl;
+                // Let the driver send JDBC batches as multi-row inserts
+                if (PlayerLoggerConfig.batchSize > 0 && !url.contains("rewriteBatchedStatements"))
+                    url += (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+                properties.setProperty("hibernate.connection.url", url);
+                break;
+            default:
+                throw new RuntimeException("PlayerLogger database type must be either h2 or mysql.");
+            }
+            properties.setProperty("hibernate.connection.username", PlayerLoggerConfig.databaseUsername);
+            properties.setProperty("hibernate.connection.password", PlayerLoggerConfig.databasePassword);
+            properties.setProperty("hibernate.jdbc.batch_size", Integer.toString(PlayerLoggerConfig.batchSize));
+            // properties.setProperty("hibernate.hbm2ddl.auto", "update");
+            // properties.setProperty("hibernate.format_sql", "false");
+            // properties.setProperty("hibernate.show_sql", "true");
+
+            entityManagerFactory = Persistence.createEntityManagerFactory("playerlogger_" + PlayerLoggerConfig.databaseType, properties);
+            // entityManagerFactory = Persistence.createEntityManagerFactory("playerlogger_eclipselink_" +
+            // PlayerLoggerConfig.databaseType, properties);
+            em = entityManagerFactory.createEntityManager();
+
+            eventQueue = new ArrayBlockingQueue<>(PlayerLoggerConfig.queueSize);
+            startThread();
 
-        if (PlayerLoggerConfig.playerPositionInterval > 0)
-            TaskRegistry.scheduleRepeated(playerPositionTimer, (int) (PlayerLoggerConfig.playerPositionInterval * 1000));
+            if (PlayerLoggerConfig.playerPositionInterval > 0)
+                TaskRegistry.scheduleRepeated(playerPositionTimer, (int) (PlayerLoggerConfig.playerPositionInterval * 1000));
+        }
     }
 
-    @Override
-    public void run()
+    /**
+     * Migrates entries written by older versions once. Runs on the writer thread, so large databases do not block the
+     * server.
+     */
+    private synchronized void migrateSchema()
     {
-        while (!eventQueue.isEmpty())
+        if (em == null)
+            return;
+        SchemaVersion schema = em.find(SchemaVersion.class, SchemaVersion.ID);
+        int version = schema == null ? 0 : schema.version;
+        if (version >= SchemaVersion.CURRENT)
+            return;
+        em.getTransaction().begin();
+        try
         {
-            synchronized (this)
+            if (version < SchemaVersion.CHUNK_KEYS)
             {
-                if (em == null)
-                    return;
-                if (!em.isOpen())
-                {
-                    LoggingHandler.felog.error("[PL] Playerlogger database closed. Trying to reconnect...");
-                    try
-                    {
-                        em = entityManagerFactory.createEntityManager();
-                    }
-                    catch (IllegalStateException e)
-                    {
-                        LoggingHandler.felog.error("[PL] ------------------------------------------------------------------------");
-                        LoggingHandler.felog.error("[PL] Fatal error! Database connection was lost and could not be reestablished");
-                        LoggingHandler.felog.error("[PL] Stopping playerlogger!");
-                        LoggingHandler.felog.error("[PL] ------------------------------------------------------------------------");
-                        em = null;
-                        eventQueue.clear();
-                        return;
-                    }
-                }
-                try
-                {
-                    em.getTransaction().begin();
-                    int count;
-                    for (count = 0; count < 1000; count++)
-                    {
-                        PlayerLoggerEvent<?> logEvent = eventQueue.poll();
-                        if (logEvent == null)
-                            break;
-                        logEvent.process(em);
-                    }
-                    em.getTransaction().commit();
-                    // System.out.println(String.format("%d: Wrote %d playerlogger entries", System.currentTimeMillis()
-                    // % (1000 * 60), count));
-                }
-                catch (Exception e1)
-                {
-                    LoggingHandler.felog.error("[PL] Exception while persisting playerlogger entries");
-                    e1.printStackTrace();
-                    try
-                    {
-                        em.getTransaction().rollback();
-                    }
-                    catch (Exception e2)
-                    {
-                        LoggingHandler.felog.error("[PL] Exception while rolling back changes!");
-                        e2.printStackTrace();
-                        em.close();
-                        return;
-                    }
-                }
-                finally
+                // Fill the chunk column of entries written before it existed, because location queries rely on it
+                int count = em.createNativeQuery("UPDATE Action SET chunk = " //
+                        + "(FLOOR(x / 16.0) + " + Action.CHUNK_OFFSET + ") * " + (1 << 24) //
+                        + " + FLOOR(z / 16.0) + " + Action.CHUNK_OFFSET + " WHERE chunk IS NULL").executeUpdate();
+                if (count > 0)
+                    LoggingHandler.felog.info(String.format("[PL] Updated chunk index of %d playerlogger entries", count));
+            }
+            if (version < SchemaVersion.ACTION_ID_TABLE)
+            {
+                // Reserve new ids after the ones assigned by older versions
+                Number maxId = (Number) em.createNativeQuery("SELECT MAX(id) FROM Action").getSingleResult();
+                if (maxId != null)
                 {
-                    em.clear();
+                    long nextId = maxId.longValue() + Action.ID_ALLOCATION_SIZE + 1;
+                    Number rows = (Number) em.createNativeQuery("SELECT COUNT(*) FROM " + Action.ID_TABLE + " WHERE name = 'action'").getSingleResult();
+                    if (rows.intValue() == 0)
+                        em.createNativeQuery("INSERT INTO " + Action.ID_TABLE + " (name, next_id) VALUES ('action', " + nextId + ")").executeUpdate();
+                    else
+                        em.createNativeQuery("UPDATE " + Action.ID_TABLE + " SET next_id = GREATEST(next_id, " + nextId + ") WHERE name = 'action'")
+                                .executeUpdate();
                 }
             }
+            if (schema == null)
+            {
+                schema = new SchemaVersion();
+                schema.id = SchemaVersion.ID;
+                em.persist(schema);
+            }
+            schema.version = SchemaVersion.CURRENT;
+            em.getTransaction().commit();
+        }
+        catch (RuntimeException e)
+        {
+            if (em.getTransaction().isActive())
+                em.getTransaction().rollback();
+            LoggingHandler.felog.error("[PL] Could not migrate old playerlogger entries: " + e.getMessage());
+        }
+        finally
+        {
+            em.clear();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        migrateSchema();
+        Thread self = Thread.currentThread();
+        List<PlayerLoggerEvent<?>> events = new ArrayList<>();
+        while (running && thread == self)
+        {
             try
             {
-                // Try to give other threads some time to enter synchronized blocks
-                Thread.sleep(1);
+                PlayerLoggerEvent<?> event = eventQueue.poll(250, TimeUnit.MILLISECONDS);
+                if (event == null)
+                    continue;
+                events.add(event);
             }
             catch (InterruptedException e)
             {
-                e.printStackTrace();
+                continue;
             }
+            eventQueue.drainTo(events, PlayerLoggerConfig.transactionSize - 1);
+            if (!writeEvents(events))
+                return;
+            events.clear();
+            // Give other threads the chance to enter synchronized blocks
+            Thread.yield();
         }
+
+        // Write remaining events before shutting down, unless stopThread gave up waiting
+        while (thread == self && eventQueue.drainTo(events, PlayerLoggerConfig.transactionSize) > 0)
+        {
+            if (!writeEvents(events))
+                return;
+            events.clear();
+        }
+        if (thread != self)
+            return;
+        events.add(LogEventPlayerPositions.flush());
+        writeEvents(events);
+    }
+
+    /**
+     * Writes the events in a single transaction
+     *
+     * @return false, if the database connection was lost and the writer needs to stop
+     */
+    private synchronized boolean writeEvents(List<PlayerLoggerEvent<?>> events)
+    {
+        if (em == null)
+            return false;
+        if (!em.isOpen())
+        {
+            LoggingHandler.felog.error("[PL] Playerlogger database closed. Trying to reconnect...");
+            try
+            {
+                em = entityManagerFactory.createEntityManager();
+            }
+            catch (IllegalStateException e)
+            {
+                LoggingHandler.felog.error("[PL] ------------------------------------------------------------------------");
+                LoggingHandler.felog.error("[PL] Fatal error! Database connection was lost and could not be reestablished");
+                LoggingHandler.felog.error("[PL] Stopping playerlogger!");
+                LoggingHandler.felog.error("[PL] ------------------------------------------------------------------------");
+                em = null;
+                eventQueue.clear();
+                return false;
+            }
+        }
+        try
+        {
+            pushActions = APIRegistry.remoteManager.hasSubscribers(ModulePlayerLogger.TOPIC);
+            em.getTransaction().begin();
+            for (PlayerLoggerEvent<?> logEvent : events)
+                logEvent.process(em);
+            long commitStart = System.nanoTime();
+            em.getTransaction().commit();
+            stats.transactionCommitted(events.size(), System.nanoTime() - commitStart);
+            pushPersistedActions();
+        }
+        catch (Exception e1)
+        {
+            LoggingHandler.felog.error("[PL] Exception while persisting playerlogger entries");
+            e1.printStackTrace();
+            try
+            {
+                em.getTransaction().rollback();
+            }
+            catch (Exception e2)
+            {
+                LoggingHandler.felog.error("[PL] Exception while rolling back changes!");
+                e2.printStackTrace();
+                // Reconnect with the next transaction
+                em.close();
+            }
+        }
+        finally
+        {
+            persistedActions.clear();
+            if (em.isOpen())
+                em.clear();
+        }
+        return true;
+    }
+
+    /**
+     * Called by {@link Action} when it was persisted
+     */
+    public void actionPersisted(Action action)
+    {
+        if (pushActions)
+            persistedActions.add(action);
+    }
+
+    private void pushPersistedActions()
+    {
+        if (persistedActions.isEmpty())
+            return;
+        PersistenceUnitUtil util = entityManagerFactory.getPersistenceUnitUtil();
+        for (Action action : persistedActions)
+            APIRegistry.remoteManager.publish(ModulePlayerLogger.TOPIC, new ActionPush(action, util));
     }
 
     protected void startThread()
     {
-        // TODO: Instead of creating a new thread all the time, try to use one single thread in waiting mode
         if (thread != null && thread.isAlive())
             return;
+        running = true;
         thread = new Thread(this, "Playerlogger");
+        thread.setDaemon(true);
         thread.start();
     }
 
+    /**
+     * Stops the writer thread after it wrote all queued events
+     */
+    protected void stopThread()
+    {
+        running = false;
+        Thread writer = thread;
+        if (writer == null || writer == Thread.currentThread())
+            return;
+        try
+        {
+            writer.join(STOP_TIMEOUT);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive())
+            LoggingHandler.felog.warn(String.format("[PL] Playerlogger did not finish writing within %d seconds. Discarding %d queued events.",
+                    TimeUnit.MILLISECONDS.toSeconds(STOP_TIMEOUT), eventQueue.size()));
+        thread = null;
+    }
+
     // ============================================================
 
     public synchronized void purgeOldData(Date startTime)
@@ -263,6 +456,7 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
         {
             em.getTransaction().begin();
             int count = q.executeUpdate();
+            count += em.createQuery("delete from PlayerPositionTrack where time < :startTime").setParameter("startTime", startTime).executeUpdate();
             LoggingHandler.felog.info(String.format("Purged %d old Playerlogger entries", count));
         }
         finally
@@ -334,10 +528,49 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
     {
         if (em == null)
             return;
-        eventQueue.add(event);
+        enqueue(event);
         startThread();
     }
 
+    private void enqueue(PlayerLoggerEvent<?> event)
+    {
+        if (eventQueue.offer(event))
+            return;
+        if ("block".equals(PlayerLoggerConfig.queueFullPolicy))
+        {
+            try
+            {
+                if (eventQueue.offer(event, PlayerLoggerConfig.queueBlockTime, TimeUnit.MILLISECONDS))
+                    return;
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+        stats.eventDropped();
+    }
+
+    public int getQueueSize()
+    {
+        return eventQueue.size();
+    }
+
+    public int getQueueCapacity()
+    {
+        return eventQueue.size() + eventQueue.remainingCapacity();
+    }
+
+    public PlayerPositionLog getPositionLog()
+    {
+        return positionLog;
+    }
+
+    public PlayerLoggerStats getStats()
+    {
+        return stats;
+    }
+
     protected synchronized WorldData getWorld(int dimensionId)
     {
         return em.getReference(WorldData.class, dimensionId);
@@ -399,7 +632,11 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
 
     /* ------------------------------------------------------------ */
 
-    public static SerialBlob tileEntityToBlob(TileEntity tileEntity)
+    /**
+     * Captures the data of a tile entity. This needs to happen on the server thread, while the (more expensive)
+     * encoding is done by {@link #nbtToBlob(NBTTagCompound)} on the logger thread.
+     */
+    public static NBTTagCompound tileEntityToNbt(TileEntity tileEntity)
     {
         try
         {
@@ -408,15 +645,51 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
             NBTTagCompound nbt = new NBTTagCompound();
             tileEntity.writeToNBT(nbt);
             nbt.setString("ENTITY_CLASS", tileEntity.getClass().getName());
-            ByteBuf buf = Unpooled.buffer();
-            ByteBufUtils.writeTag(buf, nbt);
-            return new SerialBlob(buf.array());
+            return nbt;
+        }
+        catch (Exception e)
+        {
+            LoggingHandler.felog.error(e.toString());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Encodes captured tile entity data for storage. The data is deflate-compressed, if enabled in the config.
+     */
+    public static synchronized SerialBlob nbtToBlob(NBTTagCompound nbt)
+    {
+        if (nbt == null)
+            return null;
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.heapBuffer();
+        try
+        {
+            if (PlayerLoggerConfig.compressTileEntities)
+            {
+                deflater.reset();
+                try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(new ByteBufOutputStream(buf), deflater)))
+                {
+                    CompressedStreamTools.write(nbt, out);
+                }
+            }
+            else
+            {
+                ByteBufUtils.writeTag(buf, nbt);
+            }
+            byte[] data = new byte[buf.readableBytes()];
+            buf.readBytes(data);
+            return new SerialBlob(data);
         }
         catch (Exception e)
         {
             LoggingHandler.felog.error(e.toString());
             e.printStackTrace();
         }
+        finally
+        {
+            buf.release();
+        }
         return null;
     }
 
@@ -428,8 +701,12 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
             if (blob == null || blob.length() == 0)
                 return null;
 
-            ByteBuf buf = Unpooled.wrappedBuffer(blob.getBytes(1, (int) blob.length()));
-            NBTTagCompound nbt = ByteBufUtils.readTag(buf);
+            byte[] data = blob.getBytes(1, (int) blob.length());
+            NBTTagCompound nbt;
+            if (data[0] == ZLIB_HEADER)
+                nbt = CompressedStreamTools.read(new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data))));
+            else
+                nbt = ByteBufUtils.readTag(Unpooled.wrappedBuffer(data));
             if (nbt == null)
                 return null;
 
@@ -469,6 +746,29 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
         return changes;
     }
 
+    /**
+     * Restricts the query to a rectangle of chunks. Each chunk column maps to one contiguous range of chunk keys, which
+     * allows the database to use the (dimension, chunk, time) index. Very wide areas are queried with a single range
+     * instead, relying on the coordinate predicates to filter out the surplus.
+     */
+    protected Predicate getChunkPredicate(Root<? extends Action> root, int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ)
+    {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        if (maxChunkX - minChunkX >= MAX_CHUNK_RANGES)
+            return cb.between(root.get(Action_.chunk), cb.literal(Action.getChunkKey(minChunkX, minChunkZ)),
+                    cb.literal(Action.getChunkKey(maxChunkX, maxChunkZ)));
+        Predicate predicate = cb.or();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++)
+        {
+            if (minChunkZ == maxChunkZ)
+                predicate.getExpressions().add(cb.equal(root.get(Action_.chunk), cb.literal(Action.getChunkKey(chunkX, minChunkZ))));
+            else
+                predicate.getExpressions().add(cb.between(root.get(Action_.chunk), cb.literal(Action.getChunkKey(chunkX, minChunkZ)),
+                        cb.literal(Action.getChunkKey(chunkX, maxChunkZ))));
+        }
+        return predicate;
+    }
+
     /**
      * @param root
      * @param area
@@ -486,6 +786,7 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
             predicate.getExpressions().add(cb.equal(root.<Integer> get(Action_.world.getName()), cb.literal(area.getDimension())));
             Point lp = area.getLowPoint();
             Point hp = area.getHighPoint();
+            predicate.getExpressions().add(getChunkPredicate(root, lp.getX() >> 4, lp.getZ() >> 4, hp.getX() >> 4, hp.getZ() >> 4));
             predicate.getExpressions().add(cb.between(root.get(Action_.x), cb.literal(lp.getX()), cb.literal(hp.getX())));
             predicate.getExpressions().add(cb.between(root.get(Action_.y), cb.literal(lp.getY()), cb.literal(hp.getY())));
             predicate.getExpressions().add(cb.between(root.get(Action_.z), cb.literal(lp.getZ()), cb.literal(hp.getZ())));
@@ -514,6 +815,7 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
         if (point != null)
         {
             predicate.getExpressions().add(cb.equal(root.<Integer> get(Action_.world.getName()), cb.literal(point.getDimension())));
+            predicate.getExpressions().add(cb.equal(root.get(Action_.chunk), cb.literal(Action.getChunkKey(point.getX() >> 4, point.getZ() >> 4))));
             predicate.getExpressions().add(cb.equal(root.get(Action_.x), cb.literal(point.getX())));
             predicate.getExpressions().add(cb.equal(root.get(Action_.y), cb.literal(point.getY())));
             predicate.getExpressions().add(cb.equal(root.get(Action_.z), cb.literal(point.getZ())));
@@ -607,6 +909,47 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
         return executeQuery(query);
     }
 
+    /**
+     * Returns one page of block changes ordered by id. The persistence context is cleared afterwards, so streaming a
+     * large number of changes through {@link BlockChangeCursor} does not accumulate entities in memory.
+     *
+     * @param area
+     * @param startTime startTime <= t <= endTime
+     * @param endTime startTime <= t <= endTime
+     * @param afterId if afterId != 0 returns only entries following this id in iteration order
+     * @param ascending iterate from oldest to newest entry
+     * @param maxResults
+     * @return
+     */
+    public synchronized List<Action01Block> getBlockChangePage(WorldArea area, Date startTime, Date endTime, long afterId, boolean ascending,
+            int maxResults)
+    {
+        CriteriaBuilder cBuilder = em.getCriteriaBuilder();
+        CriteriaQuery<Action01Block> cQuery = cBuilder.createQuery(Action01Block.class);
+        Root<Action01Block> cRoot = cQuery.from(Action01Block.class);
+        cQuery.select(cRoot);
+        Predicate predicate = getActionPredicate(cRoot, area, startTime, endTime, ascending ? 0 : afterId);
+        if (ascending && afterId != 0)
+            predicate.getExpressions().add(cBuilder.greaterThan(cRoot.get(Action_.id), cBuilder.literal(afterId)));
+        cQuery.where(predicate);
+        cQuery.orderBy(ascending ? cBuilder.asc(cRoot.get(Action_.id)) : cBuilder.desc(cRoot.get(Action_.id)));
+        TypedQuery<Action01Block> query = em.createQuery(cQuery);
+        query.setMaxResults(maxResults);
+        List<Action01Block> changes = executeQuery(query);
+        em.clear();
+        return changes;
+    }
+
+    public synchronized long countBlockChanges(WorldArea area, Date startTime, Date endTime)
+    {
+        CriteriaBuilder cBuilder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cQuery = cBuilder.createQuery(Long.class);
+        Root<Action01Block> cRoot = cQuery.from(Action01Block.class);
+        cQuery.select(cBuilder.count(cRoot));
+        cQuery.where(getActionPredicate(cRoot, area, startTime, endTime, 0));
+        return executeQuery(em.createQuery(cQuery)).get(0);
+    }
+
     public List<Action02Command> getLoggedCommands(WorldArea area, Date startTime, Date endTime, long fromId, int maxResults)
     {
         CriteriaBuilder cBuilder = em.getCriteriaBuilder();
@@ -635,6 +978,55 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
         return executeQuery(query);
     }
 
+    /**
+     * Reconstructs the path of a player from the logged positions
+     *
+     * @param uuid
+     * @param startTime startTime <= t <= endTime
+     * @param endTime startTime <= t <= endTime
+     * @return position samples ordered by time
+     */
+    public synchronized List<PositionSample> getPlayerPath(UUID uuid, Date startTime, Date endTime)
+    {
+        List<PositionSample> path = new ArrayList<>();
+        PlayerData player = getOneOrNullResult(buildSimpleQuery(PlayerData.class, PlayerData_.uuid, uuid.toString()));
+        if (player != null)
+        {
+            // Tracks start at full minutes, so the first one might begin before startTime
+            long trackStart = startTime.getTime() - startTime.getTime() % PlayerPositionLog.TRACK_DURATION;
+            TypedQuery<PlayerPositionTrack> query = em.createQuery(
+                    "SELECT t FROM PlayerPositionTrack t WHERE t.player = :player AND t.time >= :startTime AND t.time <= :endTime ORDER BY t.time, t.id",
+                    PlayerPositionTrack.class);
+            query.setParameter("player", player);
+            query.setParameter("startTime", new Date(trackStart));
+            query.setParameter("endTime", endTime);
+            em.getTransaction().begin();
+            try
+            {
+                for (PlayerPositionTrack track : query.getResultList())
+                    path.addAll(PlayerPositionLog.decode(track));
+            }
+            catch (SQLException e)
+            {
+                LoggingHandler.felog.error("[PL] Could not read player positions: " + e.getMessage());
+            }
+            finally
+            {
+                em.getTransaction().commit();
+                em.clear();
+            }
+        }
+        path.addAll(positionLog.getOpenSamples(uuid));
+
+        for (Iterator<PositionSample> it = path.iterator(); it.hasNext();)
+        {
+            PositionSample sample = it.next();
+            if (sample.time.before(startTime) || sample.time.after(endTime))
+                it.remove();
+        }
+        return path;
+    }
+
     /* ------------------------------------------------------------ */
     /* World events */
 
@@ -642,8 +1034,14 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
         @Override
         public void run()
         {
-            logEvent(new LogEventPlayerPositions());
-            startThread();
+            // Sample positions on the server thread
+            TaskRegistry.runLater(new Runnable() {
+                @Override
+                public void run()
+                {
+                    logEvent(new LogEventPlayerPositions());
+                }
+            });
         }
     };
 
@@ -666,7 +1064,7 @@ public class PlayerLogger extends ServerEventHandler implements Runnable
             for (BlockSnapshot snapshot : ((BlockEvent.MultiPlaceEvent) event).getReplacedBlockSnapshots())
                 changes.put(snapshot.getPos(), snapshot);
             for (BlockSnapshot snapshot : changes.values())
-                eventQueue.add(new LogEventPlace(new BlockEvent.PlaceEvent(snapshot, event.getPlacedAgainst(), event.getPlayer(), event.getHand())));
+                enqueue(new LogEventPlace(new BlockEvent.PlaceEvent(snapshot, event.getPlacedAgainst(), event.getPlayer(), event.getHand())));
             startThread();
         }
         else
@@ -19,6 +19,17 @@ public class PlayerLoggerConfig extends ConfigLoaderBase
 
     public static double playerPositionInterval;
 
+    // Writer
+    public static int queueSize;
+    public static String queueFullPolicy;
+    public static int queueBlockTime;
+    public static int transactionSize;
+    public static int batchSize;
+    public static boolean compressTileEntities;
+
+    // Rollback
+    public static int rollbackBlocksPerTick;
+
     @Override
     public void load(Configuration config, boolean isReload)
     {
@@ -32,6 +43,15 @@ public class PlayerLoggerConfig extends ConfigLoaderBase
         playerPositionInterval = config.get(CAT, "player_pos_interval", 5, "Log player positions every X seconds. Set to 0 to disable.").getDouble();
         if (playerPositionInterval > 0 && playerPositionInterval < 0.5)
             playerPositionInterval = 0.5;
+
+        queueSize = Math.max(1000, config.get(CAT, "queue_size", 100000, "Maximum number of events waiting to be written to the database.").getInt());
+        queueFullPolicy = config.get(CAT, "queue_full_policy", "drop",
+                "What to do when the queue is full (drop / block). \"block\" makes the server wait for the database up to queue_block_time.").getString();
+        queueBlockTime = config.get(CAT, "queue_block_time", 1000, "Milliseconds to wait for free space in a full queue before the event is dropped.").getInt();
+        transactionSize = Math.max(1, config.get(CAT, "transaction_size", 1000, "Maximum number of events written in one transaction.").getInt());
+        batchSize = Math.max(0, config.get(CAT, "batch_size", 500, "Number of inserts sent to the database in one JDBC batch. Set to 0 to disable batching.").getInt());
+        compressTileEntities = config.get(CAT, "compress_tile_entities", true, "Deflate-compress logged tile entity data.").getBoolean();
+        rollbackBlocksPerTick = Math.max(1, config.get(CAT, "rollback_blocks_per_tick", 500, "Maximum number of blocks restored per tick by a confirmed rollback.").getInt());
         if (ModulePlayerLogger.getLogger().getEntityManager() != null)
             ModulePlayerLogger.getLogger().loadDatabase();
     }
@@ -45,6 +65,13 @@ public class PlayerLoggerConfig extends ConfigLoaderBase
         config.get(CAT, "DB_user", "forgeessentials", "Database user.").set(databaseUsername);
         config.get(CAT, "DB_password", "forgeessentials", "Database password.").set(databasePassword);
         config.get(CAT, "daystokeepdata", 0, "Days to keep data saved in the database. Set to 0 to keep all data indefinitely.").set(logDuration);
+        config.get(CAT, "queue_size", 100000, "Maximum number of events waiting to be written to the database.").set(queueSize);
+        config.get(CAT, "queue_full_policy", "drop", "What to do when the queue is full (drop / block).").set(queueFullPolicy);
+        config.get(CAT, "queue_block_time", 1000, "Milliseconds to wait for free space in a full queue before the event is dropped.").set(queueBlockTime);
+        config.get(CAT, "transaction_size", 1000, "Maximum number of events written in one transaction.").set(transactionSize);
+        config.get(CAT, "batch_size", 500, "Number of inserts sent to the database in one JDBC batch.").set(batchSize);
+        config.get(CAT, "compress_tile_entities", true, "Deflate-compress logged tile entity data.").set(compressTileEntities);
+        config.get(CAT, "rollback_blocks_per_tick", 500, "Maximum number of blocks restored per tick by a confirmed rollback.").set(rollbackBlocksPerTick);
     }
 
 }
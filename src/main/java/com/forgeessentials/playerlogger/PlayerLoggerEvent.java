@@ -7,6 +7,7 @@ import javax.persistence.EntityManager;
 
 import net.minecraft.block.Block;
 import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 
 import com.forgeessentials.api.UserIdent;
@@ -48,9 +49,17 @@ public abstract class PlayerLoggerEvent<T>
         return ModulePlayerLogger.getLogger().getPlayer(player.getPersistentID(), player.getDisplayNameString());
     }
 
-    public Blob getTileEntityBlob(TileEntity tileEntity)
+    /**
+     * Captures the tile entity data on the server thread. It is encoded later with {@link #getTileEntityBlob(NBTTagCompound)}.
+     */
+    public NBTTagCompound getTileEntityData(TileEntity tileEntity)
     {
-        return PlayerLogger.tileEntityToBlob(tileEntity);
+        return PlayerLogger.tileEntityToNbt(tileEntity);
+    }
+
+    public Blob getTileEntityBlob(NBTTagCompound tileEntityData)
+    {
+        return PlayerLogger.nbtToBlob(tileEntityData);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.forgeessentials.playerlogger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput statistics of the playerlogger writer thread
+ */
+public class PlayerLoggerStats
+{
+
+    private static final long RATE_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    private long writtenEvents;
+
+    private long droppedEvents;
+
+    private long commits;
+
+    private long totalCommitTime;
+
+    private long maxCommitTime;
+
+    private long lastCommitTime;
+
+    private long rateStart = System.nanoTime();
+
+    private long rateEvents;
+
+    private double eventsPerSecond;
+
+    /* ------------------------------------------------------------ */
+
+    public synchronized void eventDropped()
+    {
+        droppedEvents++;
+    }
+
+    public synchronized void transactionCommitted(int events, long commitTime)
+    {
+        writtenEvents += events;
+        commits++;
+        totalCommitTime += commitTime;
+        lastCommitTime = commitTime;
+        maxCommitTime = Math.max(maxCommitTime, commitTime);
+
+        rateEvents += events;
+        long now = System.nanoTime();
+        if (now - rateStart >= RATE_INTERVAL)
+        {
+            eventsPerSecond = rateEvents * (double) TimeUnit.SECONDS.toNanos(1) / (now - rateStart);
+            rateStart = now;
+            rateEvents = 0;
+        }
+    }
+
+    /* ------------------------------------------------------------ */
+
+    public synchronized long getWrittenEvents()
+    {
+        return writtenEvents;
+    }
+
+    public synchronized long getDroppedEvents()
+    {
+        return droppedEvents;
+    }
+
+    public synchronized long getCommits()
+    {
+        return commits;
+    }
+
+    /**
+     * Returns the write rate over the last measuring interval
+     */
+    public synchronized double getEventsPerSecond()
+    {
+        long elapsed = System.nanoTime() - rateStart;
+        if (elapsed >= 2 * RATE_INTERVAL)
+            return rateEvents * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+        return eventsPerSecond;
+    }
+
+    public synchronized double getAverageCommitMillis()
+    {
+        return commits == 0 ? 0 : totalCommitTime / (double) commits / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized double getMaxCommitMillis()
+    {
+        return maxCommitTime / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized double getLastCommitMillis()
+    {
+        return lastCommitTime / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+}
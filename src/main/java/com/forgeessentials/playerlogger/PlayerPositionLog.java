@@ -0,0 +1,267 @@
+package com.forgeessentials.playerlogger;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.sql.Blob;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.sql.rowset.serial.SerialBlob;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.MathHelper;
+
+import com.forgeessentials.commons.selections.WorldPoint;
+import com.forgeessentials.playerlogger.entity.PlayerPositionTrack;
+
+/**
+ * Collects player positions in memory and stores them as one {@link PlayerPositionTrack} per player and minute.
+ * <p>
+ * Each sample is encoded as varints: The time since the previous sample (shifted left by one bit, with the lowest bit
+ * marking an absolute position), followed by the zigzag-encoded position delta. The first sample of a track and
+ * samples after a dimension change store the dimension and absolute position instead.
+ */
+public class PlayerPositionLog
+{
+
+    public static final long TRACK_DURATION = TimeUnit.MINUTES.toMillis(1);
+
+    public static class PositionSample
+    {
+
+        public final Date time;
+
+        public final WorldPoint point;
+
+        public PositionSample(Date time, WorldPoint point)
+        {
+            this.time = time;
+            this.point = point;
+        }
+
+    }
+
+    private static class OpenTrack
+    {
+
+        private final UUID uuid;
+
+        private final String username;
+
+        private final long start;
+
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream(64);
+
+        private int samples;
+
+        private long lastTime;
+
+        private int dimension;
+
+        private int x;
+
+        private int y;
+
+        private int z;
+
+        public OpenTrack(UUID uuid, String username, long start)
+        {
+            this.uuid = uuid;
+            this.username = username;
+            this.start = start;
+            this.lastTime = start;
+        }
+
+        public void add(long time, int dimension, int x, int y, int z)
+        {
+            boolean absolute = samples == 0 || dimension != this.dimension;
+            writeVarLong(data, (Math.max(0, time - lastTime) << 1) | (absolute ? 1 : 0));
+            if (absolute)
+            {
+                writeVarInt(data, dimension);
+                writeVarInt(data, x);
+                writeVarInt(data, y);
+                writeVarInt(data, z);
+            }
+            else
+            {
+                writeVarInt(data, x - this.x);
+                writeVarInt(data, y - this.y);
+                writeVarInt(data, z - this.z);
+            }
+            samples++;
+            lastTime = time;
+            this.dimension = dimension;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+    }
+
+    private final Map<UUID, OpenTrack> openTracks = new HashMap<>();
+
+    private final List<OpenTrack> finishedTracks = new ArrayList<>();
+
+    /* ------------------------------------------------------------ */
+
+    public synchronized void addSample(EntityPlayerMP player, long time)
+    {
+        UUID uuid = player.getPersistentID();
+        long start = time - time % TRACK_DURATION;
+        OpenTrack track = openTracks.get(uuid);
+        if (track == null || track.start != start)
+        {
+            if (track != null)
+                finishedTracks.add(track);
+            track = new OpenTrack(uuid, player.getDisplayNameString(), start);
+            openTracks.put(uuid, track);
+        }
+        track.add(time, player.world.provider.getDimension(), MathHelper.floor(player.posX), MathHelper.floor(player.posY),
+                MathHelper.floor(player.posZ));
+    }
+
+    /**
+     * Persists all tracks which ended before the given time. Needs to be called from within a transaction.
+     */
+    public void writeTracks(EntityManager em, long time)
+    {
+        List<OpenTrack> tracks;
+        synchronized (this)
+        {
+            tracks = new ArrayList<>(finishedTracks);
+            finishedTracks.clear();
+            for (Iterator<OpenTrack> it = openTracks.values().iterator(); it.hasNext();)
+            {
+                OpenTrack track = it.next();
+                if (track.start + TRACK_DURATION <= time)
+                {
+                    tracks.add(track);
+                    it.remove();
+                }
+            }
+        }
+        for (OpenTrack track : tracks)
+        {
+            PlayerPositionTrack entity = new PlayerPositionTrack();
+            entity.player = ModulePlayerLogger.getLogger().getPlayer(track.uuid, track.username);
+            entity.time = new Date(track.start);
+            entity.samples = track.samples;
+            try
+            {
+                entity.data = new SerialBlob(track.data.toByteArray());
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException(e);
+            }
+            em.persist(entity);
+        }
+    }
+
+    /**
+     * Returns the samples of a player which were not persisted yet
+     */
+    public synchronized List<PositionSample> getOpenSamples(UUID uuid)
+    {
+        List<PositionSample> result = new ArrayList<>();
+        for (OpenTrack track : finishedTracks)
+            if (track.uuid.equals(uuid))
+                decode(track.start, track.data.toByteArray(), result);
+        OpenTrack track = openTracks.get(uuid);
+        if (track != null)
+            decode(track.start, track.data.toByteArray(), result);
+        return result;
+    }
+
+    public synchronized void clear()
+    {
+        openTracks.clear();
+        finishedTracks.clear();
+    }
+
+    /* ------------------------------------------------------------ */
+
+    public static List<PositionSample> decode(PlayerPositionTrack track) throws SQLException
+    {
+        List<PositionSample> result = new ArrayList<>(track.samples);
+        Blob blob = track.data;
+        if (blob != null && blob.length() > 0)
+            decode(track.time.getTime(), blob.getBytes(1, (int) blob.length()), result);
+        return result;
+    }
+
+    private static void decode(long start, byte[] data, List<PositionSample> result)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long time = start;
+        int dimension = 0, x = 0, y = 0, z = 0;
+        while (buffer.hasRemaining())
+        {
+            long header = readVarLong(buffer);
+            time += header >>> 1;
+            if ((header & 1) != 0)
+            {
+                dimension = readVarInt(buffer);
+                x = readVarInt(buffer);
+                y = readVarInt(buffer);
+                z = readVarInt(buffer);
+            }
+            else
+            {
+                x += readVarInt(buffer);
+                y += readVarInt(buffer);
+                z += readVarInt(buffer);
+            }
+            result.add(new PositionSample(new Date(time), new WorldPoint(dimension, x, y, z)));
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Writes a zigzag-encoded signed value, so small negative numbers stay short
+     */
+    private static void writeVarInt(ByteArrayOutputStream out, int value)
+    {
+        writeVarLong(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    private static long readVarLong(ByteBuffer buffer)
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static int readVarInt(ByteBuffer buffer)
+    {
+        int value = (int) readVarLong(buffer);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+}
@@ -22,6 +22,7 @@ import com.forgeessentials.playerlogger.FilterConfig;
 import com.forgeessentials.playerlogger.ModulePlayerLogger;
 import com.forgeessentials.playerlogger.PlayerLogger;
 import com.forgeessentials.playerlogger.PlayerLoggerChecker;
+import com.forgeessentials.playerlogger.PlayerLoggerStats;
 import com.forgeessentials.playerlogger.entity.Action;
 import com.forgeessentials.util.CommandParserArgs;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -277,6 +278,13 @@ public class CommandPlayerlogger extends ParserCommandBase
             long actionCount = qActionCount.getSingleResult();
             ChatOutputHandler.chatConfirmation(sender, String.format("Logged action count: %s", actionCount));
         }
+        PlayerLoggerStats stats = logger.getStats();
+        ChatOutputHandler.chatConfirmation(sender,
+                String.format("Queue: %d / %d events, %d dropped", logger.getQueueSize(), logger.getQueueCapacity(), stats.getDroppedEvents()));
+        ChatOutputHandler.chatConfirmation(sender, String.format("Written: %d events in %d transactions (%.1f events/s)", stats.getWrittenEvents(),
+                stats.getCommits(), stats.getEventsPerSecond()));
+        ChatOutputHandler.chatConfirmation(sender, String.format("Commit latency: %.1f ms avg, %.1f ms max, %.1f ms last", stats.getAverageCommitMillis(),
+                stats.getMaxCommitMillis(), stats.getLastCommitMillis()));
     }
 
 }
@@ -17,6 +17,7 @@ import com.forgeessentials.commons.selections.Selection;
 import com.forgeessentials.core.FEConfig;
 import com.forgeessentials.core.commands.ParserCommandBase;
 import com.forgeessentials.core.misc.TranslatedCommandException;
+import com.forgeessentials.core.misc.Translator;
 import com.forgeessentials.playerlogger.ModulePlayerLogger;
 import com.forgeessentials.util.CommandParserArgs;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -186,8 +187,8 @@ public class CommandRollback extends ParserCommandBase
         if (rb == null)
             throw new TranslatedCommandException("No rollback in progress. Start with /rollback first.");
 
-        rb.confirm();
-        ChatOutputHandler.chatConfirmation(args.sender, "Successfully restored changes");
+        RollbackInfo.RollbackTask task = rb.confirm();
+        ChatOutputHandler.chatConfirmation(args.sender, Translator.format("Restoring %d changes...", task.getTotal()));
     }
 
     private void cancelRollback(CommandParserArgs args) throws CommandException
@@ -1,8 +1,7 @@
 package com.forgeessentials.playerlogger.command;
 
-import java.util.ArrayList;
 import java.util.Date;
-import java.util.List;
+import java.util.Iterator;
 import java.util.TimerTask;
 
 import net.minecraft.block.Block;
@@ -15,13 +14,17 @@ import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.DimensionManager;
 
 import com.forgeessentials.commons.selections.Selection;
+import com.forgeessentials.core.misc.TaskRegistry;
+import com.forgeessentials.core.misc.TaskRegistry.TickTask;
 import com.forgeessentials.core.misc.Translator;
+import com.forgeessentials.playerlogger.BlockChangeCursor;
 import com.forgeessentials.playerlogger.ModulePlayerLogger;
 import com.forgeessentials.playerlogger.PlayerLogger;
+import com.forgeessentials.playerlogger.PlayerLoggerConfig;
 import com.forgeessentials.playerlogger.entity.Action01Block;
 import com.forgeessentials.playerlogger.entity.Action01Block.ActionBlockType;
 import com.forgeessentials.util.output.ChatOutputHandler;
-import com.google.common.collect.Lists;
+import com.forgeessentials.util.output.LoggingHandler;
 
 public class RollbackInfo
 {
@@ -32,7 +35,15 @@ public class RollbackInfo
 
     private Date time;
 
-    List<Action01Block> changes;
+    /**
+     * Time when the rollback was started. Changes logged afterwards are not part of the rollback.
+     */
+    private final Date startTime;
+
+    /**
+     * Time of the state currently shown to the player
+     */
+    private Date previewTime;
 
     public PlaybackTask task;
 
@@ -41,94 +52,73 @@ public class RollbackInfo
         this.player = player;
         this.area = area;
         this.setTime(new Date());
+        this.startTime = new Date(time.getTime());
+        this.previewTime = startTime;
     }
 
     @SuppressWarnings("deprecation")
-    public void step(int seconds)
+    public synchronized void step(int seconds)
     {
         getTime().setSeconds(getTime().getSeconds() + seconds);
     }
 
-    public void previewChanges()
+    /**
+     * Sends only the changes between the previously shown time and the new one
+     */
+    public synchronized void previewChanges()
     {
         ChatOutputHandler.chatNotification(player, Translator.format("Showing changes before %s", time.toString()));
 
-        List<Action01Block> lastChanges = changes;
-        if (lastChanges == null)
-            lastChanges = new ArrayList<>();
-
-        changes = ModulePlayerLogger.getLogger().getLoggedBlockChanges(area, time, null, 0, 0);
-        if (lastChanges.size() < changes.size())
+        Date newTime = time.after(startTime) ? startTime : new Date(time.getTime());
+        if (newTime.before(previewTime))
         {
-            for (int i = lastChanges.size(); i < changes.size(); i++)
+            // Revert changes from newest to oldest
+            Iterator<Action01Block> changes = new BlockChangeCursor(area, newTime, beforeTime(previewTime), false);
+            while (changes.hasNext())
             {
-                Action01Block change = changes.get(i);
-                if (change.type == ActionBlockType.PLACE)
-                {
-                    sendBlockChange(player, change, Blocks.AIR.getDefaultState());
-                    // System.out.println(FEConfig.FORMAT_DATE_TIME_SECONDS.format(change.time) + " REMOVED " +
-                    // change.block.name);
-                }
-                else if (change.type == ActionBlockType.BREAK || change.type == ActionBlockType.DETONATE || change.type == ActionBlockType.BURN)
-                {
-                    Block block = Block.REGISTRY.getObject(new ResourceLocation(change.block.name));
-                    sendBlockChange(player, change, block.getStateFromMeta(change.metadata));
-                    // System.out.println(FEConfig.FORMAT_DATE_TIME_SECONDS.format(change.time) + " RESTORED " +
-                    // change.block.name + ":" + change.metadata);
-                }
+                Action01Block change = changes.next();
+                IBlockState state = getStateBefore(change);
+                if (state != null)
+                    sendBlockChange(player, change, state);
             }
         }
-        else if (lastChanges.size() > changes.size())
+        else if (newTime.after(previewTime))
         {
-            for (int i = lastChanges.size() - 1; i >= changes.size(); i--)
+            // Replay changes from oldest to newest
+            Iterator<Action01Block> changes = new BlockChangeCursor(area, previewTime, beforeTime(newTime), true);
+            while (changes.hasNext())
             {
-                Action01Block change = lastChanges.get(i);
-                if (change.type == ActionBlockType.PLACE)
-                {
-                    Block block = Block.REGISTRY.getObject(new ResourceLocation(change.block.name));
-                    sendBlockChange(player, change, block.getStateFromMeta(change.metadata));
-                    // System.out.println(FEConfig.FORMAT_DATE_TIME_SECONDS.format(change.time) + " REPLACED " +
-                    // change.block.name);
-                }
-                else if (change.type == ActionBlockType.BREAK || change.type == ActionBlockType.DETONATE || change.type == ActionBlockType.BURN)
-                {
-                    sendBlockChange(player, change, Blocks.AIR.getDefaultState());
-                    // System.out.println(FEConfig.FORMAT_DATE_TIME_SECONDS.format(change.time) + " REBROKE " +
-                    // change.block.name + ":" + change.metadata);
-                }
+                Action01Block change = changes.next();
+                IBlockState state = getStateAfter(change);
+                if (state != null)
+                    sendBlockChange(player, change, state);
             }
         }
+        previewTime = newTime;
     }
 
-    public void confirm()
+    /**
+     * Schedules the rollback to be applied over multiple ticks
+     */
+    public synchronized RollbackTask confirm()
     {
         if (task != null)
             task.cancel();
-        for (Action01Block change : changes)
-        {
-            if (change.type == ActionBlockType.PLACE)
-            {
-                WorldServer world = DimensionManager.getWorld(change.world.id);
-                world.setBlockToAir(change.getBlockPos());
-                System.out.println(change.time + " REMOVED " + change.block.name);
-            }
-            else if (change.type == ActionBlockType.BREAK || change.type == ActionBlockType.DETONATE || change.type == ActionBlockType.BURN)
-            {
-                WorldServer world = DimensionManager.getWorld(change.world.id);
-                Block block = Block.REGISTRY.getObject(new ResourceLocation(change.block.name));
-                world.setBlockState(change.getBlockPos(), block.getStateFromMeta(change.metadata), 3);
-                world.setTileEntity(change.getBlockPos(), PlayerLogger.blobToTileEntity(change.entity));
-                System.out.println(change.time + " RESTORED " + change.block.name + ":" + change.metadata);
-            }
-        }
+        RollbackTask rollbackTask = new RollbackTask(player, area, time, startTime);
+        TaskRegistry.schedule(rollbackTask);
+        return rollbackTask;
     }
 
-    public void cancel()
+    public synchronized void cancel()
     {
         if (task != null)
             task.cancel();
-        for (Action01Block change : Lists.reverse(changes))
+        Iterator<Action01Block> changes = new BlockChangeCursor(area, previewTime, startTime, false);
+        while (changes.hasNext())
+        {
+            Action01Block change = changes.next();
             player.connection.sendPacket(new SPacketBlockChange(DimensionManager.getWorld(change.world.id), change.getBlockPos()));
+        }
     }
 
     public Date getTime()
@@ -141,9 +131,45 @@ public class RollbackInfo
         this.time = time;
     }
 
+    private static Date beforeTime(Date time)
+    {
+        return new Date(time.getTime() - 1);
+    }
+
+    /**
+     * Returns the block state before the change happened or null, if the change did not modify the block
+     */
+    public static IBlockState getStateBefore(Action01Block change)
+    {
+        if (change.type == ActionBlockType.PLACE)
+            return Blocks.AIR.getDefaultState();
+        else if (change.type == ActionBlockType.BREAK || change.type == ActionBlockType.DETONATE || change.type == ActionBlockType.BURN)
+            return getLoggedState(change);
+        return null;
+    }
+
+    /**
+     * Returns the block state after the change happened or null, if the change did not modify the block
+     */
+    public static IBlockState getStateAfter(Action01Block change)
+    {
+        if (change.type == ActionBlockType.PLACE)
+            return getLoggedState(change);
+        else if (change.type == ActionBlockType.BREAK || change.type == ActionBlockType.DETONATE || change.type == ActionBlockType.BURN)
+            return Blocks.AIR.getDefaultState();
+        return null;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static IBlockState getLoggedState(Action01Block change)
+    {
+        Block block = Block.REGISTRY.getObject(new ResourceLocation(change.block.name));
+        return block.getStateFromMeta(change.metadata);
+    }
+
     /**
      * Send a faked block-update to a player
-     * 
+     *
      * @param player
      * @param change
      * @param newBlock
@@ -177,4 +203,84 @@ public class RollbackInfo
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Restores logged block changes from newest to oldest, limited to
+     * {@link PlayerLoggerConfig#rollbackBlocksPerTick} blocks per tick
+     */
+    public static class RollbackTask implements TickTask
+    {
+
+        private static final long PROGRESS_INTERVAL = 5000;
+
+        private EntityPlayerMP player;
+
+        private Iterator<Action01Block> changes;
+
+        private long total;
+
+        private long restored;
+
+        private long lastProgress = System.currentTimeMillis();
+
+        public RollbackTask(EntityPlayerMP player, Selection area, Date time, Date endTime)
+        {
+            this.player = player;
+            this.total = ModulePlayerLogger.getLogger().countBlockChanges(area, time, endTime);
+            this.changes = new BlockChangeCursor(area, time, endTime, false);
+        }
+
+        @Override
+        public boolean tick()
+        {
+            for (int i = 0; i < PlayerLoggerConfig.rollbackBlocksPerTick; i++)
+            {
+                if (!changes.hasNext())
+                {
+                    ChatOutputHandler.chatConfirmation(player, Translator.format("Rollback finished. Restored %d changes.", restored));
+                    LoggingHandler.felog.info(String.format("[PL] Rollback by %s restored %d changes", player.getName(), restored));
+                    return true;
+                }
+                restore(changes.next());
+            }
+            long now = System.currentTimeMillis();
+            if (now - lastProgress >= PROGRESS_INTERVAL)
+            {
+                lastProgress = now;
+                ChatOutputHandler.chatNotification(player, Translator.format("Rollback progress: %d / %d changes (%d%%)", //
+                        restored, total, total == 0 ? 100 : restored * 100 / total));
+            }
+            return false;
+        }
+
+        private void restore(Action01Block change)
+        {
+            WorldServer world = DimensionManager.getWorld(change.world.id);
+            if (world == null)
+                return;
+            if (change.type == ActionBlockType.PLACE)
+            {
+                world.setBlockToAir(change.getBlockPos());
+                restored++;
+            }
+            else if (change.type == ActionBlockType.BREAK || change.type == ActionBlockType.DETONATE || change.type == ActionBlockType.BURN)
+            {
+                world.setBlockState(change.getBlockPos(), getLoggedState(change), 3);
+                world.setTileEntity(change.getBlockPos(), PlayerLogger.blobToTileEntity(change.entity));
+                restored++;
+            }
+        }
+
+        @Override
+        public boolean editsBlocks()
+        {
+            return true;
+        }
+
+        public long getTotal()
+        {
+            return total;
+        }
+
+    }
+
+}
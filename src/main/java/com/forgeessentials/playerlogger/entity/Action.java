@@ -18,23 +18,26 @@ import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PostPersist;
+import javax.persistence.PrePersist;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
 import javax.persistence.Transient;
 
 import net.minecraft.util.math.BlockPos;
 
+import com.forgeessentials.playerlogger.ModulePlayerLogger;
+import com.forgeessentials.playerlogger.PlayerLogger;
+
 /**
  *
  */
 @Entity
 @Table(indexes = { //
         @Index(columnList = "player_id", name = "player_idx"), //
-        @Index(columnList = "dimension", name = "world_idx"), //
-        @Index(columnList = "x", name = "x_idx"), //
-        @Index(columnList = "y", name = "y_idx"), //
-        @Index(columnList = "z", name = "z_idx"), //
+        @Index(columnList = "dimension, chunk, time", name = "chunk_time_idx"), //
 })
 @Inheritance(strategy = InheritanceType.JOINED)
 @AttributeOverride(name = "action", column = @Column(name = "action", nullable = false, length = 8, insertable = false, updatable = false) )
@@ -43,8 +46,21 @@ import net.minecraft.util.math.BlockPos;
 public abstract class Action
 {
 
+    public static final int CHUNK_OFFSET = 1 << 23;
+
+    public static final String ID_TABLE = "ActionId";
+
+    /**
+     * Number of ids reserved from the {@link #ID_TABLE} at once. Ids are assigned without a database round trip until
+     * they are used up, which allows batched inserts. Each server reserves its own ids, so several servers can share
+     * one database.
+     */
+    public static final int ID_ALLOCATION_SIZE = 1000;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "action_id")
+    @TableGenerator(name = "action_id", table = ID_TABLE, pkColumnName = "name", valueColumnName = "next_id", pkColumnValue = "action",
+            allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id")
     public Long id;
 
@@ -64,6 +80,12 @@ public abstract class Action
     @Column(name = "z")
     public int z;
 
+    /**
+     * Packed chunk coordinates, see {@link #getChunkKey(int, int)}
+     */
+    @Column(name = "chunk")
+    public Long chunk;
+
     @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     @JoinColumn(name = "dimension")
     public WorldData world;
@@ -75,6 +97,29 @@ public abstract class Action
     @Transient
     private BlockPos blockPos;
 
+    @PrePersist
+    protected void updateChunk()
+    {
+        chunk = getChunkKey(x >> 4, z >> 4);
+    }
+
+    @PostPersist
+    protected void persisted()
+    {
+        PlayerLogger logger = ModulePlayerLogger.getLogger();
+        if (logger != null)
+            logger.actionPersisted(this);
+    }
+
+    /**
+     * Packs chunk coordinates into a single key. Keys of chunks with the same x coordinate form a contiguous range
+     * ordered by the z coordinate, so an area can be queried with one index range per chunk column.
+     */
+    public static long getChunkKey(int chunkX, int chunkZ)
+    {
+        return ((long) (chunkX + CHUNK_OFFSET) << 24) | (chunkZ + CHUNK_OFFSET);
+    }
+
     public BlockPos getBlockPos()
     {
         if (blockPos == null)
@@ -0,0 +1,53 @@
+package com.forgeessentials.playerlogger.entity;
+
+import java.sql.Blob;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * Positions of one player during one minute, delta-encoded into a single blob by
+ * {@link com.forgeessentials.playerlogger.PlayerPositionLog}
+ */
+@Entity
+@Table(indexes = { //
+        @Index(columnList = "player_id, time", name = "track_player_time_idx"), //
+        @Index(columnList = "time", name = "track_time_idx"), //
+})
+public class PlayerPositionTrack
+{
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    public Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "player_id", nullable = false)
+    public PlayerData player;
+
+    /**
+     * Start of the minute covered by this track
+     */
+    @Column(name = "time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    public Date time;
+
+    @Column(name = "samples")
+    public int samples;
+
+    @Column(name = "data")
+    public Blob data;
+
+}
@@ -0,0 +1,37 @@
+package com.forgeessentials.playerlogger.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Version of the playerlogger data, used to run migrations of existing entries only once
+ */
+@Entity
+@Table
+public class SchemaVersion
+{
+
+    public static final int ID = 1;
+
+    /**
+     * Actions have their chunk key filled in
+     */
+    public static final int CHUNK_KEYS = 1;
+
+    /**
+     * Action ids are reserved from the {@link Action#ID_TABLE}
+     */
+    public static final int ACTION_ID_TABLE = 2;
+
+    public static final int CURRENT = ACTION_ID_TABLE;
+
+    @Id
+    @Column(name = "id")
+    public Integer id;
+
+    @Column(name = "version")
+    public int version;
+
+}
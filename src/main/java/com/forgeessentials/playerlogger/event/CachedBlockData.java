@@ -1,9 +1,8 @@
 package com.forgeessentials.playerlogger.event;
 
-import java.sql.Blob;
-
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
@@ -20,7 +19,7 @@ public class CachedBlockData
 
     public final int metadata;
 
-    public final Blob tileEntityBlob;
+    public final NBTTagCompound tileEntityData;
 
     public CachedBlockData(World world, BlockPos pos)
     {
@@ -28,7 +27,7 @@ public class CachedBlockData
         state = world.getBlockState(pos);
         block = state.getBlock();
         metadata = block.getMetaFromState(state);
-        tileEntityBlob = PlayerLogger.tileEntityToBlob(world.getTileEntity(pos));
+        tileEntityData = PlayerLogger.tileEntityToNbt(world.getTileEntity(pos));
     }
 
 }
\ No newline at end of file
@@ -1,9 +1,8 @@
 package com.forgeessentials.playerlogger.event;
 
-import java.sql.Blob;
-
 import javax.persistence.EntityManager;
 
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.event.world.BlockEvent;
 
 import com.forgeessentials.playerlogger.PlayerLoggerEvent;
@@ -13,12 +12,12 @@ import com.forgeessentials.playerlogger.entity.Action01Block.ActionBlockType;
 public class LogEventBreak extends PlayerLoggerEvent<BlockEvent.BreakEvent>
 {
 
-    public Blob tileEntityBlob;
+    public NBTTagCompound tileEntityData;
 
     public LogEventBreak(BlockEvent.BreakEvent event)
     {
         super(event);
-        tileEntityBlob = getTileEntityBlob(event.getWorld().getTileEntity(event.getPos()));
+        tileEntityData = getTileEntityData(event.getWorld().getTileEntity(event.getPos()));
     }
 
     @Override
@@ -30,7 +29,7 @@ public class LogEventBreak extends PlayerLoggerEvent<BlockEvent.BreakEvent>
         action.world = getWorld(event.getWorld().provider.getDimension());
         action.block = getBlock(event.getState().getBlock());
         action.metadata = event.getState().getBlock().getMetaFromState(event.getState());
-        action.entity = tileEntityBlob;
+        action.entity = getTileEntityBlob(tileEntityData);
         action.type = ActionBlockType.BREAK;
         action.x = event.getPos().getX();
         action.y = event.getPos().getY();
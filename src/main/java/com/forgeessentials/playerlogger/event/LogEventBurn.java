@@ -1,9 +1,8 @@
 package com.forgeessentials.playerlogger.event;
 
-import java.sql.Blob;
-
 import javax.persistence.EntityManager;
 
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fe.event.world.FireEvent;
 
 import com.forgeessentials.playerlogger.PlayerLoggerEvent;
@@ -13,12 +12,12 @@ import com.forgeessentials.playerlogger.entity.Action01Block.ActionBlockType;
 public class LogEventBurn extends PlayerLoggerEvent<FireEvent.Destroy>
 {
 
-    public Blob tileEntityBlob;
+    public NBTTagCompound tileEntityData;
 
     public LogEventBurn(FireEvent.Destroy event)
     {
         super(event);
-        tileEntityBlob = getTileEntityBlob(event.getWorld().getTileEntity(event.getPos()));
+        tileEntityData = getTileEntityData(event.getWorld().getTileEntity(event.getPos()));
     }
 
     @Override
@@ -29,7 +28,7 @@ public class LogEventBurn extends PlayerLoggerEvent<FireEvent.Destroy>
         action.world = getWorld(event.getWorld().provider.getDimension());
         action.block = getBlock(event.getState().getBlock());
         action.metadata = event.getState().getBlock().getMetaFromState(event.getState());
-        action.entity = tileEntityBlob;
+        action.entity = getTileEntityBlob(tileEntityData);
         action.type = ActionBlockType.BURN;
         action.x = event.getPos().getX();
         action.y = event.getPos().getY();
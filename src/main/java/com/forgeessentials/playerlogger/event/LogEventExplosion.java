@@ -39,7 +39,7 @@ public class LogEventExplosion extends PlayerLoggerEvent<ExplosionEvent.Detonate
                 action.world = worldData;
                 action.block = getBlock(blockData.block);
                 action.metadata = blockData.metadata;
-                action.entity = blockData.tileEntityBlob;
+                action.entity = getTileEntityBlob(blockData.tileEntityData);
                 action.type = ActionBlockType.DETONATE;
                 action.x = blockData.pos.getX();
                 action.y = blockData.pos.getY();
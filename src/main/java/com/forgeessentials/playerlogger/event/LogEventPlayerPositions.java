@@ -1,48 +1,50 @@
 package com.forgeessentials.playerlogger.event;
 
-import java.util.Date;
-import java.util.Iterator;
-import java.util.List;
-
 import javax.persistence.EntityManager;
 
 import net.minecraft.entity.player.EntityPlayerMP;
-import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 
+import com.forgeessentials.playerlogger.ModulePlayerLogger;
 import com.forgeessentials.playerlogger.PlayerLoggerEvent;
-import com.forgeessentials.playerlogger.entity.Action04PlayerPosition;
+import com.forgeessentials.playerlogger.PlayerPositionLog;
 
+/**
+ * Samples the positions of all online players. The samples are collected by the {@link PlayerPositionLog}, and
+ * processing this event on the logger thread stores all tracks which are complete.
+ */
 public class LogEventPlayerPositions extends PlayerLoggerEvent<Object>
 {
 
+    private final boolean flush;
+
     public LogEventPlayerPositions()
     {
         super(null);
+        this.flush = false;
+        PlayerPositionLog log = ModulePlayerLogger.getLogger().getPositionLog();
+        for (EntityPlayerMP player : FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayers())
+            log.addSample(player, date.getTime());
+    }
+
+    private LogEventPlayerPositions(boolean flush)
+    {
+        super(null);
+        this.flush = flush;
+    }
+
+    /**
+     * Creates an event which stores all tracks, including incomplete ones
+     */
+    public static LogEventPlayerPositions flush()
+    {
+        return new LogEventPlayerPositions(true);
     }
 
     @Override
     public void process(EntityManager em)
     {
-        @SuppressWarnings("unchecked")
-        List<EntityPlayerMP> players = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayers();
-        date = new Date();
-        
-        for (Iterator<EntityPlayerMP> it = players.iterator(); it.hasNext();)
-        {
-            EntityPlayerMP player = it.next();
-
-            // Action03PlayerEvent action = new Action03PlayerEvent();
-            // action.type = PlayerEventType.MOVE;
-            Action04PlayerPosition action = new Action04PlayerPosition();
-            action.time = date;
-            action.player = getPlayer(player);
-            action.world = getWorld(player.world.provider.getDimension());
-            action.x = (int) player.posX;
-            action.y = (int) player.posY;
-            action.z = (int) player.posZ;
-            //em.persist(action);
-        }
+        ModulePlayerLogger.getLogger().getPositionLog().writeTracks(em, flush ? Long.MAX_VALUE : date.getTime());
     }
 
 }
@@ -0,0 +1,52 @@
+package com.forgeessentials.playerlogger.remote;
+
+import java.util.Date;
+
+import javax.persistence.DiscriminatorValue;
+import javax.persistence.PersistenceUnitUtil;
+
+import com.forgeessentials.playerlogger.entity.Action;
+
+/**
+ * Summary of a logged action pushed to remote subscribers. Details can be queried by {@link #id}.
+ */
+public class ActionPush
+{
+
+    public long id;
+
+    /**
+     * Action type, as in the results of the log queries
+     */
+    public int action;
+
+    public Date time;
+
+    public Object world;
+
+    public Object player;
+
+    public int x;
+
+    public int y;
+
+    public int z;
+
+    /**
+     * @param util
+     *            used to get the ids of referenced entities which might not be loaded
+     */
+    public ActionPush(Action action, PersistenceUnitUtil util)
+    {
+        this.id = action.id;
+        DiscriminatorValue type = action.getClass().getAnnotation(DiscriminatorValue.class);
+        this.action = type == null ? 0 : Integer.parseInt(type.value());
+        this.time = action.time;
+        this.world = action.world == null ? null : util.getIdentifier(action.world);
+        this.player = action.player == null ? null : util.getIdentifier(action.player);
+        this.x = action.x;
+        this.y = action.y;
+        this.z = action.z;
+    }
+
+}
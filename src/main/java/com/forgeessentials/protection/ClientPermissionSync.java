@@ -0,0 +1,188 @@
+package com.forgeessentials.protection;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import net.minecraft.block.Block;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.ItemBlock;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.NonNullList;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.UserIdent;
+import com.forgeessentials.commons.network.NetworkUtils;
+import com.forgeessentials.commons.network.Packet3PlayerPermissions;
+import com.forgeessentials.permissions.ModulePermissions;
+import com.forgeessentials.util.PlayerInfo;
+import com.forgeessentials.util.ServerUtil;
+
+/**
+ * Keeps the denied place ids shown by FE clients up to date.
+ * <p>
+ * The ids last sent to each player are remembered, so the periodic hotbar checks only need to send changes. Hotbar
+ * checks of all players are spread over {@link #UPDATE_INTERVAL} ticks. Zone and permission changes request a full
+ * check, which resets the state of the client (including denied break ids) and is limited to
+ * {@link #FULL_UPDATES_PER_TICK} players per tick.
+ */
+public class ClientPermissionSync
+{
+
+    public static final int UPDATE_INTERVAL = 20 * 4;
+
+    public static final int FULL_UPDATES_PER_TICK = 4;
+
+    private static final int HOTBAR_SIZE = 9;
+
+    /* Denied place ids known by each client */
+    private Map<UUID, BitSet> sentPlaceIds = new HashMap<>();
+
+    private Map<UUID, UserIdent> pendingFullUpdates = new LinkedHashMap<>();
+
+    private int tickCounter;
+
+    /* ------------------------------------------------------------ */
+
+    /**
+     * Schedules a check of the whole inventory of the player, including all ids which were sent before, and a reset
+     * of the client state
+     */
+    public void markDirty(UserIdent ident)
+    {
+        if (ident != null && ident.hasPlayer())
+            pendingFullUpdates.put(ident.getUuid(), ident);
+    }
+
+    public void tick()
+    {
+        int budget = FULL_UPDATES_PER_TICK;
+        for (Iterator<UserIdent> it = pendingFullUpdates.values().iterator(); it.hasNext() && budget > 0;)
+        {
+            UserIdent ident = it.next();
+            it.remove();
+            EntityPlayerMP player = ident.getPlayerMP();
+            if (player != null && update(player, true))
+                budget--;
+        }
+
+        tickCounter = (tickCounter + 1) % UPDATE_INTERVAL;
+        List<EntityPlayerMP> players = ServerUtil.getPlayerList();
+        for (int i = tickCounter; i < players.size(); i += UPDATE_INTERVAL)
+        {
+            EntityPlayerMP player = players.get(i);
+            if (!pendingFullUpdates.containsKey(player.getPersistentID()))
+                update(player, false);
+        }
+    }
+
+    /**
+     * Checks the items of the player and sends the changed ids
+     *
+     * @param full
+     *            check the whole inventory and all previously sent ids instead of only the hotbar
+     * @return false, if the player has no FE client
+     */
+    public boolean update(EntityPlayerMP player, boolean full)
+    {
+        UserIdent ident = UserIdent.get(player);
+        if (!PlayerInfo.get(ident).getHasFEClient())
+            return false;
+
+        BitSet sent = sentPlaceIds.get(player.getPersistentID());
+        if (sent == null)
+        {
+            sent = new BitSet();
+            sentPlaceIds.put(player.getPersistentID(), sent);
+            full = true;
+        }
+
+        BitSet checked = new BitSet();
+        BitSet denied = new BitSet();
+
+        ModulePermissions.permissionHelper.disableDebugMode(true);
+
+        NonNullList<ItemStack> inventory = player.inventory.mainInventory;
+        for (int i = 0; i < (full ? inventory.size() : HOTBAR_SIZE); ++i)
+        {
+            ItemStack stack = inventory.get(i);
+            if (stack == ItemStack.EMPTY || !(stack.getItem() instanceof ItemBlock))
+                continue;
+            Block block = ((ItemBlock) stack.getItem()).getBlock();
+            int id = Block.REGISTRY.getIDForObject(block);
+            if (id < 0 || checked.get(id))
+                continue;
+            checked.set(id);
+            if (!APIRegistry.perms.checkUserPermission(ident, ModuleProtection.getBlockPlacePermission(block, 0)))
+                denied.set(id);
+        }
+        if (full)
+        {
+            // Ids which are not in the inventory anymore could have been allowed in the meantime
+            for (int id = sent.nextSetBit(0); id >= 0; id = sent.nextSetBit(id + 1))
+            {
+                if (checked.get(id))
+                    continue;
+                checked.set(id);
+                Block block = Block.REGISTRY.getObjectById(id);
+                if (block != null && !APIRegistry.perms.checkUserPermission(ident, ModuleProtection.getBlockPlacePermission(block, 0)))
+                    denied.set(id);
+            }
+        }
+
+        ModulePermissions.permissionHelper.disableDebugMode(false);
+
+        if (full)
+        {
+            sent.clear();
+            sent.or(denied);
+            NetworkUtils.netHandler.sendTo(new Packet3PlayerPermissions(true, denied, null), player);
+            return true;
+        }
+
+        BitSet added = (BitSet) denied.clone();
+        added.andNot(sent);
+        BitSet removed = (BitSet) checked.clone();
+        removed.andNot(denied);
+        removed.and(sent);
+        if (!added.isEmpty() || !removed.isEmpty())
+        {
+            sent.or(added);
+            sent.andNot(removed);
+            NetworkUtils.netHandler.sendTo(new Packet3PlayerPermissions(false, added, null, removed), player);
+        }
+        return true;
+    }
+
+    /**
+     * Sends a single denied place id and remembers it, so later checks can clear it again
+     */
+    public void sendDeniedPlaceId(EntityPlayerMP player, int id)
+    {
+        if (id < 0)
+            return;
+        BitSet sent = sentPlaceIds.get(player.getPersistentID());
+        if (sent == null)
+        {
+            sent = new BitSet();
+            sentPlaceIds.put(player.getPersistentID(), sent);
+            // The client did not get its initial state yet
+            markDirty(UserIdent.get(player));
+        }
+        sent.set(id);
+        BitSet ids = new BitSet();
+        ids.set(id);
+        NetworkUtils.netHandler.sendTo(new Packet3PlayerPermissions(false, ids, null), player);
+    }
+
+    public void remove(UUID uuid)
+    {
+        sentPlaceIds.remove(uuid);
+        pendingFullUpdates.remove(uuid);
+    }
+
+}
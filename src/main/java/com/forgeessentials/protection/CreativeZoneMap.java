@@ -0,0 +1,114 @@
+package com.forgeessentials.protection;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.world.GameType;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.permissions.FEPermissions;
+import com.forgeessentials.api.permissions.PermissionEvent;
+import com.forgeessentials.api.permissions.ServerZone;
+import com.forgeessentials.api.permissions.Zone;
+import com.forgeessentials.commons.selections.WorldPoint;
+import com.forgeessentials.util.events.ServerEventHandler;
+
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+/**
+ * Stores for each zone chain whether any group is forced into creative mode by {@link ModuleProtection#PERM_GAMEMODE}.
+ * <p>
+ * Flags are computed on first use and dropped whenever a gamemode permission or group metadata changes.
+ */
+public class CreativeZoneMap extends ServerEventHandler
+{
+
+    /**
+     * Maximum number of stored zone chains. If exceeded, the map is cleared.
+     */
+    public static final int MAX_SIZE = 1 << 12;
+
+    private Map<List<Zone>, Boolean> anyCreative = new HashMap<>();
+
+    private ServerZone serverZone;
+
+    /* ------------------------------------------------------------ */
+
+    /**
+     * Checks if any group has creative mode forced at the point
+     */
+    public boolean isAnyGroupCreative(WorldPoint point)
+    {
+        ServerZone currentServerZone = APIRegistry.perms.getServerZone();
+        if (currentServerZone != serverZone)
+        {
+            anyCreative.clear();
+            serverZone = currentServerZone;
+        }
+
+        List<Zone> zones = serverZone.getZonesAt(point);
+        Boolean result = anyCreative.get(zones);
+        if (result == null)
+        {
+            result = computeAnyCreative(point);
+            if (anyCreative.size() >= MAX_SIZE)
+                anyCreative.clear();
+            anyCreative.put(zones, result);
+        }
+        return result;
+    }
+
+    private boolean computeAnyCreative(WorldPoint point)
+    {
+        for (String group : serverZone.getGroups())
+        {
+            String value = APIRegistry.perms.getGroupPermissionProperty(group, point, ModuleProtection.PERM_GAMEMODE);
+            if (ProtectionEventHandler.stringToGameType(value) == GameType.CREATIVE)
+                return true;
+        }
+        return false;
+    }
+
+    public void clear()
+    {
+        anyCreative.clear();
+    }
+
+    /* ------------------------------------------------------------ */
+    /* Invalidation - runs last so cancelled changes do not invalidate anything */
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void groupPermissionEvent(PermissionEvent.Group.ModifyPermission event)
+    {
+        String node = event.permissionNode;
+        if (node == null || node.equals(ModuleProtection.PERM_GAMEMODE) || node.startsWith(FEPermissions.GROUP))
+            clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void groupCreateEvent(PermissionEvent.Group.Create event)
+    {
+        clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void groupDeleteEvent(PermissionEvent.Group.Delete event)
+    {
+        clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void zoneDeleteEvent(PermissionEvent.Zone.Delete event)
+    {
+        clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void permissionsLoadedEvent(PermissionEvent.AfterLoad event)
+    {
+        clear();
+    }
+
+}
@@ -13,10 +13,14 @@ import net.minecraft.entity.passive.EntitySquid;
 import net.minecraft.entity.passive.EntityTameable;
 import net.minecraft.entity.passive.EntityVillager;
 
+import com.forgeessentials.api.permissions.PermissionNode;
+
 public enum MobType
 {
     BOSS, GOLEM, HOSTILE, PASSIVE, TAMED, TAMABLE, VILLAGER, UNKNOWN;
 
+    private final String id = name().toLowerCase();
+
     public String getDamageToPermission()
     {
         return ModuleProtection.PERM_DAMAGE_TO + "." + toString().toLowerCase();
@@ -32,6 +36,21 @@ public enum MobType
         return (forced ? ModuleProtection.PERM_MOBSPAWN_FORCED : ModuleProtection.PERM_MOBSPAWN_NATURAL) + ".type." + toString().toLowerCase();
     }
 
+    public PermissionNode getDamageToPermissionNode()
+    {
+        return ModuleProtection.NODE_DAMAGE_TO.getChild(id);
+    }
+
+    public PermissionNode getDamageByPermissionNode()
+    {
+        return ModuleProtection.NODE_DAMAGE_BY.getChild(id);
+    }
+
+    public PermissionNode getSpawnPermissionNode(boolean forced)
+    {
+        return (forced ? ModuleProtection.NODE_MOBSPAWN_FORCED : ModuleProtection.NODE_MOBSPAWN_NATURAL).getChild("type").getChild(id);
+    }
+
     public static MobType getMobType(Entity entity)
     {
         if (entity instanceof EntityDragon || entity instanceof EntityWither)
@@ -5,6 +5,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TimerTask;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
@@ -55,6 +56,7 @@ import net.minecraftforge.server.permission.DefaultPermissionLevel;
 import net.minecraftforge.server.permission.PermissionAPI;
 
 import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.permissions.PermissionNode;
 import com.forgeessentials.api.permissions.Zone;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.core.misc.FECommandManager;
@@ -104,6 +106,22 @@ public class ModuleProtection
     public final static String PERM_MOBSPAWN_NATURAL = PERM_MOBSPAWN + ".natural";
     public final static String PERM_MOBSPAWN_FORCED = PERM_MOBSPAWN + ".forced";
 
+    public final static PermissionNode NODE_PVP = PermissionNode.get(PERM_PVP);
+    public final static PermissionNode NODE_USE = PermissionNode.get(PERM_USE);
+    public final static PermissionNode NODE_BREAK = PermissionNode.get(PERM_BREAK);
+    public final static PermissionNode NODE_EXPLODE = PermissionNode.get(PERM_EXPLODE);
+    public final static PermissionNode NODE_PLACE = PermissionNode.get(PERM_PLACE);
+    public final static PermissionNode NODE_TRAMPLE = PermissionNode.get(PERM_TRAMPLE);
+    public final static PermissionNode NODE_INTERACT = PermissionNode.get(PERM_INTERACT);
+    public final static PermissionNode NODE_INTERACT_ENTITY = PermissionNode.get(PERM_INTERACT_ENTITY);
+    public final static PermissionNode NODE_DAMAGE_TO = PermissionNode.get(PERM_DAMAGE_TO);
+    public final static PermissionNode NODE_DAMAGE_BY = PermissionNode.get(PERM_DAMAGE_BY);
+    public final static PermissionNode NODE_INVENTORY = PermissionNode.get(PERM_INVENTORY);
+    public final static PermissionNode NODE_EXIST = PermissionNode.get(PERM_EXIST);
+    public final static PermissionNode NODE_EXPLOSION = PermissionNode.get(PERM_EXPLOSION);
+    public final static PermissionNode NODE_MOBSPAWN_NATURAL = PermissionNode.get(PERM_MOBSPAWN_NATURAL);
+    public final static PermissionNode NODE_MOBSPAWN_FORCED = PermissionNode.get(PERM_MOBSPAWN_FORCED);
+
     public static final String ZONE = BASE_PERM + ".zone";
     public static final String ZONE_KNOCKBACK = ZONE + ".knockback";
     public static final String ZONE_DAMAGE = ZONE + ".damage";
@@ -151,15 +169,28 @@ public class ModuleProtection
 
     public static Map<UUID, String> debugModePlayers = new HashMap<>();
 
+    /**
+     * Registry names do not change at runtime, so the permission strings are built once per block state and item
+     */
+    private static final Map<IBlockState, String> blockStatePermissions = new ConcurrentHashMap<>();
+
+    private static final Map<Item, String> itemPermissions = new ConcurrentHashMap<>();
+
     /* ------------------------------------------------------------ */
 
     @SuppressWarnings("unused")
     private ProtectionEventHandler protectionHandler;
 
+    private static SpawnPermissionCache spawnPermissionCache;
+
+    private static CreativeZoneMap creativeZoneMap;
+
     @SubscribeEvent
     public void load(FEModuleInitEvent e)
     {
         protectionHandler = new ProtectionEventHandler();
+        spawnPermissionCache = new SpawnPermissionCache();
+        creativeZoneMap = new CreativeZoneMap();
 
         FECommandManager.registerCommand(new CommandItemPermission());
         FECommandManager.registerCommand(new CommandProtectionDebug());
@@ -313,6 +344,16 @@ public class ModuleProtection
             debugModePlayers.remove(player.getPersistentID());
     }
 
+    public static SpawnPermissionCache getSpawnPermissionCache()
+    {
+        return spawnPermissionCache;
+    }
+
+    public static CreativeZoneMap getCreativeZoneMap()
+    {
+        return creativeZoneMap;
+    }
+
     public static boolean isDebugMode(EntityPlayer player)
     {
         return debugModePlayers.containsKey(player.getPersistentID());
@@ -345,7 +386,13 @@ public class ModuleProtection
 
     public static String getBlockPermission(IBlockState blockState)
     {
-        return getBlockPermission(blockState.getBlock(), blockState.getBlock().getMetaFromState(blockState));
+        String permission = blockStatePermissions.get(blockState);
+        if (permission == null)
+        {
+            permission = getBlockPermission(blockState.getBlock(), blockState.getBlock().getMetaFromState(blockState));
+            blockStatePermissions.put(blockState, permission);
+        }
+        return permission;
     }
 
     public static String getBlockBreakPermission(IBlockState blockState)
@@ -398,6 +445,31 @@ public class ModuleProtection
         return PERM_EXPLODE + "." + getBlockPermission(block, meta);
     }
 
+    public static PermissionNode getBlockBreakPermissionNode(IBlockState blockState)
+    {
+        return NODE_BREAK.getChild(getBlockPermission(blockState));
+    }
+
+    public static PermissionNode getBlockTramplePermissionNode(IBlockState blockState)
+    {
+        return NODE_TRAMPLE.getChild(getBlockPermission(blockState));
+    }
+
+    public static PermissionNode getBlockPlacePermissionNode(IBlockState blockState)
+    {
+        return NODE_PLACE.getChild(getBlockPermission(blockState));
+    }
+
+    public static PermissionNode getBlockInteractPermissionNode(IBlockState blockState)
+    {
+        return NODE_INTERACT.getChild(getBlockPermission(blockState));
+    }
+
+    public static PermissionNode getBlockExplosionPermissionNode(IBlockState blockState)
+    {
+        return NODE_EXPLODE.getChild(getBlockPermission(blockState));
+    }
+
     /* ------------------------------------------------------------ */
 
     public static String getItemPermission(ItemStack stack, boolean checkMeta)
@@ -406,9 +478,9 @@ public class ModuleProtection
         {
             int dmg = stack.getItemDamage();
             if (!checkMeta || dmg == 0 || dmg == 32767)
-                return ServerUtil.getItemPermission(stack.getItem());
+                return getItemPermission(stack.getItem());
             else
-                return ServerUtil.getItemPermission(stack.getItem()) + "." + dmg;
+                return getItemPermission(stack.getItem()) + "." + dmg;
         }
         catch (Exception e)
         {
@@ -424,6 +496,17 @@ public class ModuleProtection
         }
     }
 
+    private static String getItemPermission(Item item)
+    {
+        String permission = itemPermissions.get(item);
+        if (permission == null)
+        {
+            permission = ServerUtil.getItemPermission(item);
+            itemPermissions.put(item, permission);
+        }
+        return permission;
+    }
+
     public static String getItemPermission(ItemStack stack)
     {
         return getItemPermission(stack, true);
@@ -444,6 +527,28 @@ public class ModuleProtection
         return PERM_INVENTORY + "." + getItemPermission(stack);
     }
 
+    public static PermissionNode getItemPermissionNode(PermissionNode base, ItemStack stack)
+    {
+        PermissionNode node = base.getChild(getItemPermission(stack, false));
+        int dmg = stack.getItemDamage();
+        return dmg == 0 || dmg == 32767 ? node : node.getChild(dmg);
+    }
+
+    public static PermissionNode getItemUsePermissionNode(ItemStack stack)
+    {
+        return getItemPermissionNode(NODE_USE, stack);
+    }
+
+    public static PermissionNode getItemBanPermissionNode(ItemStack stack)
+    {
+        return getItemPermissionNode(NODE_EXIST, stack);
+    }
+
+    public static PermissionNode getItemInventoryPermissionNode(ItemStack stack)
+    {
+        return getItemPermissionNode(NODE_INVENTORY, stack);
+    }
+
     /* ------------------------------------------------------------ */
 
     public static EntityPlayer getCraftingPlayer(InventoryCrafting inventory)
@@ -4,12 +4,15 @@ import static net.minecraftforge.fml.common.eventhandler.Event.Result.ALLOW;
 import static net.minecraftforge.fml.common.eventhandler.Event.Result.DENY;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.state.IBlockState;
@@ -26,12 +29,12 @@ import net.minecraft.item.ItemBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.network.Packet;
 import net.minecraft.tileentity.TileEntity;
-import net.minecraft.util.NonNullList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.RayTraceResult;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.Explosion;
 import net.minecraft.world.GameType;
+import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.util.BlockSnapshot;
 import net.minecraftforge.event.entity.EntityEvent;
@@ -71,8 +74,10 @@ import net.minecraftforge.fml.relauncher.Side;
 import com.forgeessentials.api.APIRegistry;
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.permissions.AreaZone;
+import com.forgeessentials.api.permissions.PermissionEvent;
 import com.forgeessentials.api.permissions.PermissionEvent.Group;
 import com.forgeessentials.api.permissions.PermissionEvent.User;
+import com.forgeessentials.api.permissions.PermissionNode;
 import com.forgeessentials.api.permissions.WorldZone;
 import com.forgeessentials.api.permissions.Zone;
 import com.forgeessentials.commons.network.NetworkUtils;
@@ -83,14 +88,13 @@ import com.forgeessentials.core.FEConfig;
 import com.forgeessentials.core.misc.TaskRegistry;
 import com.forgeessentials.core.misc.TeleportHelper;
 import com.forgeessentials.core.misc.Translator;
-import com.forgeessentials.permissions.ModulePermissions;
-import com.forgeessentials.protection.effect.CommandEffect;
-import com.forgeessentials.protection.effect.DamageEffect;
-import com.forgeessentials.protection.effect.PotionEffect;
 import com.forgeessentials.protection.effect.ZoneEffect;
+import com.forgeessentials.protection.effect.ZoneEffectDescriptor;
+import com.forgeessentials.protection.effect.ZoneEffectScheduler;
 import com.forgeessentials.util.PlayerInfo;
 import com.forgeessentials.util.PlayerUtil;
 import com.forgeessentials.util.ServerUtil;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.PlayerChangedZone;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.ChatOutputHandler;
@@ -99,10 +103,16 @@ import com.forgeessentials.util.output.LoggingHandler;
 public class ProtectionEventHandler extends ServerEventHandler
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", ProtectionEventHandler.class);
+
+    private static final TickProfiler.Section SPAWN_SECTION = TickProfiler.section("protection:spawn");
+
     private boolean checkMajoritySleep;
 
     private Set<Entity> attackedEntities = new HashSet<>();
 
+    private ClientPermissionSync permissionSync = new ClientPermissionSync();
+
     /* ------------------------------------------------------------ */
     /* Entity permissions */
 
@@ -120,9 +130,9 @@ public class ProtectionEventHandler extends ServerEventHandler
         {
             // player -> player
             EntityPlayer target = (EntityPlayer) event.getTarget();
-            if (!APIRegistry.perms.checkUserPermission(UserIdent.get(target), ModuleProtection.PERM_PVP)
-                    || !APIRegistry.perms.checkUserPermission(sourceIdent, ModuleProtection.PERM_PVP)
-                    || !APIRegistry.perms.checkUserPermission(sourceIdent, new WorldPoint(target), ModuleProtection.PERM_PVP))
+            if (!APIRegistry.perms.checkUserPermission(UserIdent.get(target), ModuleProtection.NODE_PVP)
+                    || !APIRegistry.perms.checkUserPermission(sourceIdent, ModuleProtection.NODE_PVP)
+                    || !APIRegistry.perms.checkUserPermission(sourceIdent, new WorldPoint(target), ModuleProtection.NODE_PVP))
             {
                 event.setCanceled(true);
                 return;
@@ -160,9 +170,8 @@ public class ProtectionEventHandler extends ServerEventHandler
             // living -> player (fall-damage, mob, dispenser, lava)
             EntityPlayer target = (EntityPlayer) event.getEntityLiving();
             {
-                String permission = event.getSource().isExplosion() ? ModuleProtection.PERM_DAMAGE_BY + ".explosion"
-                        : ModuleProtection.PERM_DAMAGE_BY + "." + event.getSource().damageType;
-                ModuleProtection.debugPermission(target, permission);
+                PermissionNode permission = ModuleProtection.NODE_DAMAGE_BY.getChild(event.getSource().isExplosion() ? "explosion" : event.getSource().damageType);
+                ModuleProtection.debugPermission(target, permission.getName());
                 if (!APIRegistry.perms.checkUserPermission(UserIdent.get(target), permission))
                 {
                     event.setCanceled(true);
@@ -174,15 +183,15 @@ public class ProtectionEventHandler extends ServerEventHandler
             {
                 // non-player-entity (mob) -> player
                 Entity source = event.getSource().getTrueSource();
-                String permission = ModuleProtection.PERM_DAMAGE_BY + "." + getEntityName(source);
-                ModuleProtection.debugPermission(target, permission);
+                PermissionNode permission = ModuleProtection.NODE_DAMAGE_BY.getChild(getEntityName(source));
+                ModuleProtection.debugPermission(target, permission.getName());
                 if (!APIRegistry.perms.checkUserPermission(UserIdent.get(target), permission))
                 {
                     event.setCanceled(true);
                     return;
                 }
-                permission = MobType.getMobType(source).getDamageByPermission();
-                ModuleProtection.debugPermission(target, permission);
+                permission = MobType.getMobType(source).getDamageByPermissionNode();
+                ModuleProtection.debugPermission(target, permission.getName());
                 if (!APIRegistry.perms.checkUserPermission(UserIdent.get(target), permission))
                 {
                     event.setCanceled(true);
@@ -201,8 +210,8 @@ public class ProtectionEventHandler extends ServerEventHandler
         UserIdent ident = UserIdent.get(event.getEntityPlayer());
         WorldPoint point = new WorldPoint(event.getTarget());
 
-        String permission = ModuleProtection.PERM_INTERACT_ENTITY + "." + EntityList.getEntityString(event.getTarget());
-        ModuleProtection.debugPermission(event.getEntityPlayer(), permission);
+        PermissionNode permission = ModuleProtection.NODE_INTERACT_ENTITY.getChild(EntityList.getEntityString(event.getTarget()));
+        ModuleProtection.debugPermission(event.getEntityPlayer(), permission.getName());
         if (!APIRegistry.perms.checkUserPermission(ident, point, permission))
         {
             event.setCanceled(true);
@@ -215,8 +224,8 @@ public class ProtectionEventHandler extends ServerEventHandler
         if (attackedEntities.add(target))
         {
             WorldPoint point = new WorldPoint(target);
-            String permission = ModuleProtection.PERM_DAMAGE_TO + "." + getEntityName(target);
-            ModuleProtection.debugPermission(player == null ? null : player.getPlayer(), permission);
+            PermissionNode permission = ModuleProtection.NODE_DAMAGE_TO.getChild(getEntityName(target));
+            ModuleProtection.debugPermission(player == null ? null : player.getPlayer(), permission.getName());
             if (!APIRegistry.perms.checkUserPermission(player, point, permission))
             {
                 event.setCanceled(true);
@@ -226,8 +235,8 @@ public class ProtectionEventHandler extends ServerEventHandler
             MobType mobType = MobType.getMobType(target);
             if (mobType != MobType.UNKNOWN && !(target instanceof EntityPlayer))
             {
-                permission = mobType.getDamageToPermission();
-                ModuleProtection.debugPermission(player == null ? null : player.getPlayer(), permission);
+                permission = mobType.getDamageToPermissionNode();
+                ModuleProtection.debugPermission(player == null ? null : player.getPlayer(), permission.getName());
                 if (!APIRegistry.perms.checkUserPermission(player, point, permission))
                 {
                     event.setCanceled(true);
@@ -248,8 +257,8 @@ public class ProtectionEventHandler extends ServerEventHandler
 
         UserIdent ident = UserIdent.get(event.getPlayer());
         IBlockState blockState = event.getWorld().getBlockState(event.getPos());
-        String permission = ModuleProtection.getBlockBreakPermission(blockState);
-        ModuleProtection.debugPermission(event.getPlayer(), permission);
+        PermissionNode permission = ModuleProtection.getBlockBreakPermissionNode(blockState);
+        ModuleProtection.debugPermission(event.getPlayer(), permission.getName());
         WorldPoint point = new WorldPoint(event.getPlayer().dimension, event.getPos());
         if (!APIRegistry.perms.checkUserPermission(ident, point, permission))
         {
@@ -259,9 +268,8 @@ public class ProtectionEventHandler extends ServerEventHandler
                 updateBrokenTileEntity((EntityPlayerMP) event.getPlayer(), te);
             if (PlayerInfo.get(ident).getHasFEClient())
             {
-                int blockId = Block.REGISTRY.getIDForObject(blockState.getBlock());
-                Set<Integer> ids = new HashSet<>();
-                ids.add(blockId);
+                BitSet ids = new BitSet();
+                ids.set(Block.REGISTRY.getIDForObject(blockState.getBlock()));
                 NetworkUtils.netHandler.sendTo(new Packet3PlayerPermissions(false, null, ids), ident.getPlayerMP());
             }
             return;
@@ -276,8 +284,8 @@ public class ProtectionEventHandler extends ServerEventHandler
 
         UserIdent ident = UserIdent.get(event.getPlayer());
         IBlockState blockState = event.getWorld().getBlockState(event.getPos());
-        String permission = ModuleProtection.getBlockPlacePermission(blockState);
-        ModuleProtection.debugPermission(event.getPlayer(), permission);
+        PermissionNode permission = ModuleProtection.getBlockPlacePermissionNode(blockState);
+        ModuleProtection.debugPermission(event.getPlayer(), permission.getName());
         WorldPoint point = new WorldPoint(event.getPlayer().dimension, event.getPos());
         if (!APIRegistry.perms.checkUserPermission(ident, point, permission))
         {
@@ -302,8 +310,8 @@ public class ProtectionEventHandler extends ServerEventHandler
         for (BlockSnapshot b : event.getReplacedBlockSnapshots())
         {
             IBlockState blockState = event.getWorld().getBlockState(b.getPos());
-            String permission = ModuleProtection.getBlockPlacePermission(blockState);
-            ModuleProtection.debugPermission(event.getPlayer(), permission);
+            PermissionNode permission = ModuleProtection.getBlockPlacePermissionNode(blockState);
+            ModuleProtection.debugPermission(event.getPlayer(), permission.getName());
             WorldPoint point = new WorldPoint(event.getPlayer().dimension, b.getPos());
             if (!APIRegistry.perms.checkUserPermission(ident, point, permission))
             {
@@ -339,8 +347,8 @@ public class ProtectionEventHandler extends ServerEventHandler
         UserIdent ident = player == null ? null : UserIdent.get(player);
         WorldPoint point = new WorldPoint(event.world, event.pos);
 
-        String permission = ModuleProtection.getBlockTramplePermission(event.world.getBlockState(event.pos));
-        ModuleProtection.debugPermission(player, permission);
+        PermissionNode permission = ModuleProtection.getBlockTramplePermissionNode(event.world.getBlockState(event.pos));
+        ModuleProtection.debugPermission(player, permission.getName());
         if (!APIRegistry.perms.checkUserPermission(ident, point, permission))
         {
             event.setCanceled(true);
@@ -370,7 +378,7 @@ public class ProtectionEventHandler extends ServerEventHandler
         float size = event.getExplosion().size;
         int s = (int) Math.ceil(size);
 
-        if (!APIRegistry.perms.checkUserPermission(ident, new WorldPoint(event.getWorld(), cx, cy, cz), ModuleProtection.PERM_EXPLOSION))
+        if (!APIRegistry.perms.checkUserPermission(ident, new WorldPoint(event.getWorld(), cx, cy, cz), ModuleProtection.NODE_EXPLOSION))
         {
             event.setCanceled(true);
             return;
@@ -380,7 +388,7 @@ public class ProtectionEventHandler extends ServerEventHandler
                 for (int iz = -1; iz != 1; iz = 1)
                 {
                     WorldPoint point = new WorldPoint(event.getWorld(), cx + s * ix, cy + s * iy, cz + s * iz);
-                    if (!APIRegistry.perms.checkUserPermission(ident, point, ModuleProtection.PERM_EXPLOSION))
+                    if (!APIRegistry.perms.checkUserPermission(ident, point, ModuleProtection.NODE_EXPLOSION))
                     {
                         event.setCanceled(true);
                         return;
@@ -408,15 +416,32 @@ public class ProtectionEventHandler extends ServerEventHandler
         else if (exploder instanceof EntityLiving)
             ident = APIRegistry.IDENT_NPC;
 
+        final World world = event.getWorld();
         List<BlockPos> positions = event.getExplosion().getAffectedBlockPositions();
-        for (Iterator<BlockPos> it = positions.iterator(); it.hasNext();)
-        {
-            BlockPos pos = it.next();
-            WorldPoint point = new WorldPoint(event.getWorld(), pos);
-            String permission = ModuleProtection.getBlockExplosionPermission(point.getWorld().getBlockState(pos));
-            if (!APIRegistry.perms.checkUserPermission(ident, point, permission))
-                it.remove();
-        }
+        BitSet allowed = APIRegistry.perms.checkUserPermissions(ident, world.provider.getDimension(), positions, new Function<BlockPos, PermissionNode>() {
+            private final Map<IBlockState, PermissionNode> nodes = new HashMap<>();
+
+            @Override
+            public PermissionNode apply(BlockPos pos)
+            {
+                IBlockState state = world.getBlockState(pos);
+                PermissionNode node = nodes.get(state);
+                if (node == null)
+                {
+                    node = ModuleProtection.getBlockExplosionPermissionNode(state);
+                    nodes.put(state, node);
+                }
+                return node;
+            }
+        });
+        if (allowed.cardinality() == positions.size())
+            return;
+
+        List<BlockPos> allowedPositions = new ArrayList<>(allowed.cardinality());
+        for (int i = allowed.nextSetBit(0); i >= 0; i = allowed.nextSetBit(i + 1))
+            allowedPositions.add(positions.get(i));
+        positions.clear();
+        positions.addAll(allowedPositions);
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -447,8 +472,8 @@ public class ProtectionEventHandler extends ServerEventHandler
         if (event instanceof LeftClickBlock || event instanceof RightClickBlock && !event.getEntityPlayer().isSneaking())
         {
             IBlockState blockState = event.getWorld().getBlockState(event.getPos());
-            String permission = ModuleProtection.getBlockInteractPermission(blockState);
-            ModuleProtection.debugPermission(event.getEntityPlayer(), permission);
+            PermissionNode permission = ModuleProtection.getBlockInteractPermissionNode(blockState);
+            ModuleProtection.debugPermission(event.getEntityPlayer(), permission.getName());
             boolean allow = APIRegistry.perms.checkUserPermission(ident, point, permission);
             if (event instanceof LeftClickBlock)
                 ((LeftClickBlock) event).setUseBlock(allow ? ALLOW : DENY);
@@ -460,8 +485,8 @@ public class ProtectionEventHandler extends ServerEventHandler
         ItemStack stack = event.getEntityPlayer().getHeldItemMainhand();
         if (stack != ItemStack.EMPTY && !(stack.getItem() instanceof ItemBlock))
         {
-            String permission = ModuleProtection.getItemUsePermission(stack);
-            ModuleProtection.debugPermission(event.getEntityPlayer(), permission);
+            PermissionNode permission = ModuleProtection.getItemUsePermissionNode(stack);
+            ModuleProtection.debugPermission(event.getEntityPlayer(), permission.getName());
             boolean allow = APIRegistry.perms.checkUserPermission(ident, point, permission);
             if (event instanceof LeftClickBlock)
             {
@@ -473,12 +498,7 @@ public class ProtectionEventHandler extends ServerEventHandler
             }
 
             if (!allow && PlayerInfo.get(ident).getHasFEClient())
-            {
-                int itemId = Item.REGISTRY.getIDForObject(stack.getItem());
-                Set<Integer> ids = new HashSet<>();
-                ids.add(itemId);
-                NetworkUtils.netHandler.sendTo(new Packet3PlayerPermissions(false, ids, null), ident.getPlayerMP());
-            }
+                permissionSync.sendDeniedPlaceId(ident.getPlayerMP(), Item.REGISTRY.getIDForObject(stack.getItem()));
         }
 
         if (anyCreativeModeAtPoint(event.getEntityPlayer(), point)
@@ -570,19 +590,11 @@ public class ProtectionEventHandler extends ServerEventHandler
             return;
         if (!(event.getEntityLiving() instanceof EntityLiving))
             return;
+        long start = TickProfiler.start();
         EntityLiving entity = (EntityLiving) event.getEntityLiving();
-        WorldPoint point = new WorldPoint(entity);
-        // TODO: Create a cache for spawn permissions
-        if (!APIRegistry.perms.checkUserPermission(null, point, ModuleProtection.PERM_MOBSPAWN_NATURAL + "." + EntityList.getEntityString(entity)))
-        {
+        if (!ModuleProtection.getSpawnPermissionCache().canSpawn(entity, false))
             event.setResult(Result.DENY);
-            return;
-        }
-        if (!APIRegistry.perms.checkUserPermission(null, point, MobType.getMobType(entity).getSpawnPermission(false)))
-        {
-            event.setResult(Result.DENY);
-            return;
-        }
+        SPAWN_SECTION.end(start);
     }
 
     @SubscribeEvent(priority = EventPriority.HIGHEST)
@@ -592,18 +604,11 @@ public class ProtectionEventHandler extends ServerEventHandler
             return;
         if (!(event.getEntityLiving() instanceof EntityLiving))
             return;
+        long start = TickProfiler.start();
         EntityLiving entity = (EntityLiving) event.getEntityLiving();
-        WorldPoint point = new WorldPoint(entity);
-        if (!APIRegistry.perms.checkUserPermission(null, point, ModuleProtection.PERM_MOBSPAWN_FORCED + "." + EntityList.getEntityString(entity)))
-        {
-            event.setResult(Result.DENY);
-            return;
-        }
-        if (!APIRegistry.perms.checkUserPermission(null, point, MobType.getMobType(entity).getSpawnPermission(true)))
-        {
+        if (!ModuleProtection.getSpawnPermissionCache().canSpawn(entity, true))
             event.setResult(Result.DENY);
-            return;
-        }
+        SPAWN_SECTION.end(start);
     }
 
     /* ------------------------------------------------------------ */
@@ -726,7 +731,7 @@ public class ProtectionEventHandler extends ServerEventHandler
         EntityPlayerMP player = (EntityPlayerMP) event.getEntityPlayer();
         UserIdent ident = UserIdent.get(player);
 
-        sendPermissionUpdate(ident, true);
+        permissionSync.markDirty(ident);
 
         String inventoryGroup = APIRegistry.perms.getUserPermissionProperty(ident, event.afterPoint.toWorldPoint(), ModuleProtection.PERM_INVENTORY_GROUP);
         if (inventoryGroup == null)
@@ -763,47 +768,28 @@ public class ProtectionEventHandler extends ServerEventHandler
         checkPlayerInventory(player);
     }
 
-    public void sendPermissionUpdate(UserIdent ident, boolean reset)
-    {
-        if (!ident.hasPlayer()) // we can only send perm updates to players
-            return;
-        if (!PlayerInfo.get(ident).getHasFEClient())
-            return;
-
-        Set<Integer> placeIds = new HashSet<>();
-
-        ModulePermissions.permissionHelper.disableDebugMode(true);
-
-        NonNullList<ItemStack> inventory = ident.getPlayer().inventory.mainInventory;
-        for (int i = 0; i < (reset ? inventory.size() : 9); ++i)
-        {
-            ItemStack stack = inventory.get(i);
-            if (stack == ItemStack.EMPTY || !(stack.getItem() instanceof ItemBlock))
-                continue;
-            Block block = ((ItemBlock) stack.getItem()).getBlock();
-            String permission = ModuleProtection.getBlockPlacePermission(block, 0);
-            if (!APIRegistry.perms.checkUserPermission(ident, permission))
-                placeIds.add(Block.REGISTRY.getIDForObject(block));
-        }
-
-        ModulePermissions.permissionHelper.disableDebugMode(false);
-
-        NetworkUtils.netHandler.sendTo(new Packet3PlayerPermissions(reset, placeIds, null), ident.getPlayerMP());
-    }
-
     /* ------------------------------------------------------------ */
 
     private HashMap<UUID, List<ZoneEffect>> zoneEffects = new HashMap<>();
 
+    private ZoneEffectScheduler zoneEffectScheduler = new ZoneEffectScheduler();
+
+    /* Resolved zone effect properties by player and zone. Cleared on every permission change. */
+    private HashMap<UUID, Map<Zone, ZoneEffectDescriptor>> zoneEffectDescriptors = new HashMap<>();
+
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public void playerChangedZoneEventHigh(PlayerChangedZone event)
     {
         UserIdent ident = UserIdent.get(event.getEntityPlayer());
-        List<ZoneEffect> effects = getZoneEffects(ident);
-        effects.clear();
+        List<ZoneEffect> effects = zoneEffects.remove(ident.getUuid());
+        if (effects != null)
+            for (ZoneEffect effect : effects)
+                effect.cancel();
+
+        ZoneEffectDescriptor descriptor = getZoneEffectDescriptor(ident, event.afterZone);
 
         // Check knockback
-        if (!APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_KNOCKBACK).equals(Zone.PERMISSION_FALSE))
+        if (descriptor.knockback)
         {
             sendZoneDeniedMessage(event.getEntityPlayer());
 
@@ -822,36 +808,31 @@ public class ProtectionEventHandler extends ServerEventHandler
             return;
         }
 
-        // Check command effect
-        String command = APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_COMMAND);
-        if (command != null && !command.isEmpty())
+        effects = new ArrayList<>();
+        descriptor.createEffects(ident.getPlayerMP(), effects);
+        if (!effects.isEmpty())
         {
-            int interval = ServerUtil
-                    .parseIntDefault(APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_COMMAND_INTERVAL), 0);
-            effects.add(new CommandEffect(ident.getPlayerMP(), interval, command));
+            zoneEffects.put(ident.getUuid(), effects);
+            for (ZoneEffect effect : effects)
+                zoneEffectScheduler.schedule(effect);
         }
+    }
 
-        int damage = ServerUtil.parseIntDefault(APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_DAMAGE), 0);
-        if (damage > 0)
+    private ZoneEffectDescriptor getZoneEffectDescriptor(UserIdent ident, Zone zone)
+    {
+        Map<Zone, ZoneEffectDescriptor> descriptors = zoneEffectDescriptors.get(ident.getUuid());
+        if (descriptors == null)
         {
-            int interval = ServerUtil
-                    .parseIntDefault(APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_DAMAGE_INTERVAL), 0);
-            effects.add(new DamageEffect(ident.getPlayerMP(), interval, damage));
+            descriptors = new HashMap<>();
+            zoneEffectDescriptors.put(ident.getUuid(), descriptors);
         }
-
-        // Check potion effect
-        String potion = APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_POTION);
-        if (potion != null && !potion.isEmpty())
+        ZoneEffectDescriptor descriptor = descriptors.get(zone);
+        if (descriptor == null)
         {
-            int interval = ServerUtil
-                    .parseIntDefault(APIRegistry.perms.getUserPermissionProperty(ident, event.afterZone, ModuleProtection.ZONE_POTION_INTERVAL), 0);
-            effects.add(new PotionEffect(ident.getPlayerMP(), interval, potion));
+            descriptor = new ZoneEffectDescriptor(ident, zone);
+            descriptors.put(zone, descriptor);
         }
-
-        if (effects.isEmpty())
-            zoneEffects.remove(ident.getUuid());
-        else
-            zoneEffects.put(ident.getUuid(), effects);
+        return descriptor;
     }
 
     @SubscribeEvent
@@ -861,53 +842,69 @@ public class ProtectionEventHandler extends ServerEventHandler
             attackedEntities.clear();
         if (event.side != Side.SERVER || event.phase == TickEvent.Phase.END)
             return;
-        for (List<ZoneEffect> effects : zoneEffects.values())
-        {
-            for (ZoneEffect effect : effects)
-            {
-                effect.update();
-                if (effect.isLethal())
-                    sendZoneDeniedMessage(effect.getPlayer());
-            }
-        }
+        long start = TickProfiler.start();
+        List<ZoneEffect> lethalEffects = zoneEffectScheduler.tick();
+        if (lethalEffects != null)
+            for (ZoneEffect effect : lethalEffects)
+                sendZoneDeniedMessage(effect.getPlayer());
         if (checkMajoritySleep)
             checkMajoritySleep();
 
-        if (ServerUtil.getOverworld().getWorldInfo().getWorldTotalTime() % (20 * 4) == 0)
-        {
-            for (EntityPlayerMP player : ServerUtil.getPlayerList())
-                sendPermissionUpdate(UserIdent.get(player), false);
-        }
+        permissionSync.tick();
+        TICK_SECTION.end(start);
     }
 
     @SubscribeEvent
     public void playerLoggedOutEvent(PlayerEvent.PlayerLoggedOutEvent event)
     {
-        zoneEffects.remove(event.player.getPersistentID());
+        List<ZoneEffect> effects = zoneEffects.remove(event.player.getPersistentID());
+        if (effects != null)
+            for (ZoneEffect effect : effects)
+                effect.cancel();
+        zoneEffectDescriptors.remove(event.player.getPersistentID());
+        permissionSync.remove(event.player.getPersistentID());
     }
 
     @SubscribeEvent
     public void permissionChange(User.ModifyPermission e)
     {
-        sendPermissionUpdate(e.ident, true);
+        zoneEffectDescriptors.clear();
+        permissionSync.markDirty(e.ident);
     }
 
     @SubscribeEvent
     public void permissionChange(User.ModifyGroups e)
     {
-        sendPermissionUpdate(e.ident, true);
+        zoneEffectDescriptors.clear();
+        permissionSync.markDirty(e.ident);
     }
 
     @SubscribeEvent
     public void permissionChange(Group.ModifyPermission e)
     {
+        zoneEffectDescriptors.clear();
         if (e.serverZone.getGroupPlayers().get(e.group) == null)
             return;
         for (UserIdent ident : e.serverZone.getGroupPlayers().get(e.group))
-        {
-            if (ident.hasPlayer())
-                sendPermissionUpdate(ident, true);
-        }
+            permissionSync.markDirty(ident);
+    }
+
+    @SubscribeEvent
+    public void permissionChange(Group.Delete e)
+    {
+        zoneEffectDescriptors.clear();
+    }
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.Zone.Delete e)
+    {
+        zoneEffectDescriptors.clear();
+    }
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.AfterLoad e)
+    {
+        zoneEffectDescriptors.clear();
     }
 
     /* ------------------------------------------------------------ */
@@ -970,33 +967,28 @@ public class ProtectionEventHandler extends ServerEventHandler
         if (player != null && stringToGameType(
                 APIRegistry.perms.getUserPermissionProperty(UserIdent.get(player), point, ModuleProtection.PERM_GAMEMODE)) == GameType.CREATIVE)
             return true;
-        for (String group : APIRegistry.perms.getServerZone().getGroups())
-        {
-            if (stringToGameType(APIRegistry.perms.getGroupPermissionProperty(group, point, ModuleProtection.PERM_GAMEMODE)) == GameType.CREATIVE)
-                return true;
-        }
-        return false;
+        return ModuleProtection.getCreativeZoneMap().isAnyGroupCreative(point);
     }
 
     public static boolean isItemBanned(UserIdent ident, ItemStack stack)
     {
         if (stack == ItemStack.EMPTY)
             return false;
-        return !APIRegistry.perms.checkUserPermission(ident, ModuleProtection.getItemBanPermission(stack));
+        return !APIRegistry.perms.checkUserPermission(ident, ModuleProtection.getItemBanPermissionNode(stack));
     }
 
     public static boolean isItemBanned(WorldPoint point, ItemStack stack)
     {
         if (stack == ItemStack.EMPTY)
             return false;
-        return !APIRegistry.perms.checkUserPermission(null, point, ModuleProtection.getItemBanPermission(stack));
+        return !APIRegistry.perms.checkUserPermission(null, point, ModuleProtection.getItemBanPermissionNode(stack));
     }
 
     public static boolean isInventoryItemBanned(UserIdent ident, ItemStack stack)
     {
         if (stack == ItemStack.EMPTY)
             return false;
-        return !APIRegistry.perms.checkUserPermission(ident, ModuleProtection.getItemInventoryPermission(stack));
+        return !APIRegistry.perms.checkUserPermission(ident, ModuleProtection.getItemInventoryPermissionNode(stack));
     }
 
     public static void checkPlayerInventory(EntityPlayer player)
@@ -1034,12 +1026,5 @@ public class ProtectionEventHandler extends ServerEventHandler
         }
     }
 
-    private List<ZoneEffect> getZoneEffects(UserIdent ident)
-    {
-        List<ZoneEffect> effects = zoneEffects.get(ident.getUuid());
-        if (effects == null)
-            effects = new ArrayList<>();
-        return effects;
-    }
 
 }
@@ -0,0 +1,255 @@
+package com.forgeessentials.protection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.entity.EntityList;
+import net.minecraft.entity.EntityLiving;
+import net.minecraft.util.math.MathHelper;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.permissions.FEPermissions;
+import com.forgeessentials.api.permissions.PermissionEvent;
+import com.forgeessentials.api.permissions.ServerZone;
+import com.forgeessentials.api.permissions.WorldZone;
+import com.forgeessentials.api.permissions.Zone;
+import com.forgeessentials.commons.selections.WorldPoint;
+import com.forgeessentials.util.events.ServerEventHandler;
+
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+/**
+ * Caches spawn decisions by (dimension, chunk, entity class, mob type, natural / forced).
+ * <p>
+ * Only chunks which do not intersect any area-zone are cached, because the decision is the same for every position in
+ * them. The cache is cleared whenever the zone layout or any permission below {@link ModuleProtection#PERM_MOBSPAWN}
+ * changes.
+ */
+public class SpawnPermissionCache extends ServerEventHandler
+{
+
+    /**
+     * Maximum number of cached decisions. If exceeded, the cache is cleared.
+     */
+    public static final int MAX_SIZE = 1 << 16;
+
+    private static class Key
+    {
+
+        private int dimension;
+
+        private int chunkX;
+
+        private int chunkZ;
+
+        private Class<?> entityClass;
+
+        private MobType mobType;
+
+        private boolean forced;
+
+        private int hashCode;
+
+        public void set(int dimension, int chunkX, int chunkZ, Class<?> entityClass, MobType mobType, boolean forced)
+        {
+            this.dimension = dimension;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.entityClass = entityClass;
+            this.mobType = mobType;
+            this.forced = forced;
+            int hash = dimension;
+            hash = 31 * hash + chunkX;
+            hash = 31 * hash + chunkZ;
+            hash = 31 * hash + entityClass.hashCode();
+            hash = 31 * hash + mobType.hashCode();
+            this.hashCode = forced ? ~hash : hash;
+        }
+
+        public Key copy()
+        {
+            Key key = new Key();
+            key.set(dimension, chunkX, chunkZ, entityClass, mobType, forced);
+            return key;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hashCode == other.hashCode && dimension == other.dimension && chunkX == other.chunkX && chunkZ == other.chunkZ
+                    && entityClass == other.entityClass && mobType == other.mobType && forced == other.forced;
+        }
+
+    }
+
+    private Map<Key, Boolean> values = new HashMap<>();
+
+    /* Reused for lookups, so cache hits do not allocate */
+    private final Key lookupKey = new Key();
+
+    private ServerZone serverZone;
+
+    private int zoneLayoutVersion;
+
+    private long hits;
+
+    private long misses;
+
+    private long uncached;
+
+    private long invalidations;
+
+    /* ------------------------------------------------------------ */
+
+    /**
+     * Checks if the entity is allowed to spawn at its current position
+     */
+    public boolean canSpawn(EntityLiving entity, boolean forced)
+    {
+        WorldPoint point = new WorldPoint(entity);
+        MobType mobType = MobType.getMobType(entity);
+        ServerZone currentServerZone = APIRegistry.perms.getServerZone();
+        if (currentServerZone != serverZone || currentServerZone.getZoneLayoutVersion() != zoneLayoutVersion)
+        {
+            clear();
+            serverZone = currentServerZone;
+            zoneLayoutVersion = currentServerZone.getZoneLayoutVersion();
+        }
+
+        int chunkX = MathHelper.floor(entity.posX) >> 4;
+        int chunkZ = MathHelper.floor(entity.posZ) >> 4;
+        WorldZone worldZone = serverZone.getWorldZone(point.getDimension());
+        if (worldZone == null || worldZone.hasAreaZonesInChunk(chunkX, chunkZ))
+        {
+            uncached++;
+            return checkPermissions(entity, point, mobType, forced);
+        }
+
+        lookupKey.set(point.getDimension(), chunkX, chunkZ, entity.getClass(), mobType, forced);
+        Boolean result = values.get(lookupKey);
+        if (result != null)
+        {
+            hits++;
+            return result;
+        }
+        misses++;
+        result = checkPermissions(entity, point, mobType, forced);
+        if (values.size() >= MAX_SIZE)
+            clear();
+        values.put(lookupKey.copy(), result);
+        return result;
+    }
+
+    private static boolean checkPermissions(EntityLiving entity, WorldPoint point, MobType mobType, boolean forced)
+    {
+        String entityName = EntityList.getEntityString(entity);
+        if (!APIRegistry.perms.checkUserPermission(null, point,
+                (forced ? ModuleProtection.NODE_MOBSPAWN_FORCED : ModuleProtection.NODE_MOBSPAWN_NATURAL).getChild(entityName)))
+            return false;
+        if (!APIRegistry.perms.checkUserPermission(null, point, mobType.getSpawnPermissionNode(forced)))
+            return false;
+        return true;
+    }
+
+    public void clear()
+    {
+        if (!values.isEmpty())
+            invalidations++;
+        values.clear();
+    }
+
+    /**
+     * Checks if a change of the permission node could change spawn decisions. Changes to group metadata (like parents
+     * or priorities) also affect them.
+     */
+    private static boolean isAffected(String changedNode)
+    {
+        if (changedNode == null || changedNode.equals(Zone.PERMISSION_ASTERIX))
+            return true;
+        if (changedNode.startsWith(ModuleProtection.PERM_MOBSPAWN) || changedNode.startsWith(FEPermissions.GROUP))
+            return true;
+        if (!changedNode.endsWith(Zone.ALL_PERMS))
+            return false;
+        String prefix = changedNode.substring(0, changedNode.length() - Zone.ALL_PERMS.length());
+        return ModuleProtection.PERM_MOBSPAWN.startsWith(prefix);
+    }
+
+    /* ------------------------------------------------------------ */
+    /* Invalidation - runs last so cancelled changes do not invalidate anything */
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void groupPermissionEvent(PermissionEvent.Group.ModifyPermission event)
+    {
+        if (isAffected(event.permissionNode))
+            clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void groupDeleteEvent(PermissionEvent.Group.Delete event)
+    {
+        clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void zoneDeleteEvent(PermissionEvent.Zone.Delete event)
+    {
+        clear();
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void permissionsLoadedEvent(PermissionEvent.AfterLoad event)
+    {
+        clear();
+    }
+
+    /* ------------------------------------------------------------ */
+
+    public int size()
+    {
+        return values.size();
+    }
+
+    public long getHits()
+    {
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Returns the number of checks in chunks with area-zones, which bypass the cache
+     */
+    public long getUncached()
+    {
+        return uncached;
+    }
+
+    public long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    public void resetStats()
+    {
+        hits = 0;
+        misses = 0;
+        uncached = 0;
+        invalidations = 0;
+    }
+
+}
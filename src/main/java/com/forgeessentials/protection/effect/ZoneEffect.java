@@ -13,6 +13,8 @@ public abstract class ZoneEffect
 
     protected boolean lethal;
 
+    protected boolean cancelled;
+
     public ZoneEffect(EntityPlayerMP player, int interval, boolean lethal)
     {
         this.player = player;
@@ -23,15 +25,22 @@ public abstract class ZoneEffect
     public void update()
     {
         if (interval >= 0 && System.currentTimeMillis() - lastEffect >= interval)
-        {
-            // Save last activation time and disable, if interval = 0 (once-only)
-            lastEffect = System.currentTimeMillis();
-            if (interval == 0)
-                interval = -1;
+            trigger();
+    }
 
-            // Execute effect
-            execute();
-        }
+    /**
+     * Executes the effect without checking the interval. Used by the {@link ZoneEffectScheduler}, which only calls it
+     * when the effect is due.
+     */
+    public void trigger()
+    {
+        // Save last activation time and disable, if interval = 0 (once-only)
+        lastEffect = System.currentTimeMillis();
+        if (interval == 0)
+            interval = -1;
+
+        // Execute effect
+        execute();
     }
 
     public abstract void execute();
@@ -56,4 +65,17 @@ public abstract class ZoneEffect
         return lethal;
     }
 
+    /**
+     * Stops the effect. Cancelled effects are dropped by the scheduler the next time they are due.
+     */
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    public boolean isCancelled()
+    {
+        return cancelled;
+    }
+
 }
@@ -0,0 +1,69 @@
+package com.forgeessentials.protection.effect;
+
+import java.util.List;
+
+import net.minecraft.entity.player.EntityPlayerMP;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.UserIdent;
+import com.forgeessentials.api.permissions.Zone;
+import com.forgeessentials.protection.ModuleProtection;
+import com.forgeessentials.util.ServerUtil;
+
+/**
+ * Zone effect properties of a zone for one player, resolved once so entering the zone again does not repeat the
+ * property lookups
+ */
+public class ZoneEffectDescriptor
+{
+
+    public final boolean knockback;
+
+    public final String command;
+
+    public final int commandInterval;
+
+    public final int damage;
+
+    public final int damageInterval;
+
+    public final String potion;
+
+    public final int potionInterval;
+
+    public ZoneEffectDescriptor(UserIdent ident, Zone zone)
+    {
+        String knockback = getProperty(ident, zone, ModuleProtection.ZONE_KNOCKBACK);
+        this.knockback = knockback != null && !knockback.equals(Zone.PERMISSION_FALSE);
+
+        String command = getProperty(ident, zone, ModuleProtection.ZONE_COMMAND);
+        this.command = command == null || command.isEmpty() ? null : command;
+        commandInterval = this.command == null ? 0 : ServerUtil.parseIntDefault(getProperty(ident, zone, ModuleProtection.ZONE_COMMAND_INTERVAL), 0);
+
+        damage = ServerUtil.parseIntDefault(getProperty(ident, zone, ModuleProtection.ZONE_DAMAGE), 0);
+        damageInterval = damage <= 0 ? 0 : ServerUtil.parseIntDefault(getProperty(ident, zone, ModuleProtection.ZONE_DAMAGE_INTERVAL), 0);
+
+        String potion = getProperty(ident, zone, ModuleProtection.ZONE_POTION);
+        this.potion = potion == null || potion.isEmpty() ? null : potion;
+        potionInterval = this.potion == null ? 0 : ServerUtil.parseIntDefault(getProperty(ident, zone, ModuleProtection.ZONE_POTION_INTERVAL), 0);
+    }
+
+    private static String getProperty(UserIdent ident, Zone zone, String node)
+    {
+        return APIRegistry.perms.getUserPermissionProperty(ident, zone, node);
+    }
+
+    /**
+     * Creates the effects described by this descriptor for the player
+     */
+    public void createEffects(EntityPlayerMP player, List<ZoneEffect> effects)
+    {
+        if (command != null)
+            effects.add(new CommandEffect(player, commandInterval, command));
+        if (damage > 0)
+            effects.add(new DamageEffect(player, damageInterval, damage));
+        if (potion != null)
+            effects.add(new PotionEffect(player, potionInterval, potion));
+    }
+
+}
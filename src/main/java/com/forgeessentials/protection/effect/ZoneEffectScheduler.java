@@ -0,0 +1,135 @@
+package com.forgeessentials.protection.effect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel for {@link ZoneEffect}s. Each tick only the effects which are due in that tick are touched.
+ * <p>
+ * Effects are placed in the slot of the tick they are due in. Effects due more than {@link #WHEEL_SIZE} ticks ahead
+ * stay in their slot until the wheel reached the right round.
+ */
+public class ZoneEffectScheduler
+{
+
+    public static final int WHEEL_SIZE = 256;
+
+    public static final int MS_PER_TICK = 50;
+
+    private static class Entry
+    {
+
+        private final ZoneEffect effect;
+
+        private long dueTick;
+
+        public Entry(ZoneEffect effect, long dueTick)
+        {
+            this.effect = effect;
+            this.dueTick = dueTick;
+        }
+
+    }
+
+    private final List<List<Entry>> slots = new ArrayList<>(WHEEL_SIZE);
+
+    /* Reused while processing a slot, so rescheduled effects do not end up in the list being iterated */
+    private List<Entry> processing = new ArrayList<>();
+
+    private long currentTick;
+
+    private int size;
+
+    public ZoneEffectScheduler()
+    {
+        for (int i = 0; i < WHEEL_SIZE; i++)
+            slots.add(new ArrayList<Entry>());
+    }
+
+    /* ------------------------------------------------------------ */
+
+    /**
+     * Schedules the effect to be triggered in the next tick and then repeatedly according to its interval
+     */
+    public void schedule(ZoneEffect effect)
+    {
+        if (effect.getInterval() < 0)
+            return;
+        add(new Entry(effect, currentTick + 1));
+    }
+
+    /**
+     * Advances the wheel by one tick and triggers all due effects
+     *
+     * @return the effects which were triggered and are lethal
+     */
+    public List<ZoneEffect> tick()
+    {
+        currentTick++;
+        List<Entry> slot = slots.get(slotIndex(currentTick));
+        if (slot.isEmpty())
+            return null;
+
+        List<Entry> due = processing;
+        processing = slot;
+        slots.set(slotIndex(currentTick), due);
+        due.clear();
+
+        List<ZoneEffect> lethal = null;
+        for (Entry entry : processing)
+        {
+            if (entry.effect.isCancelled())
+            {
+                size--;
+                continue;
+            }
+            if (entry.dueTick > currentTick)
+            {
+                due.add(entry);
+                continue;
+            }
+            size--;
+            entry.effect.trigger();
+            if (entry.effect.isLethal())
+            {
+                if (lethal == null)
+                    lethal = new ArrayList<>();
+                lethal.add(entry.effect);
+            }
+            if (entry.effect.getInterval() > 0)
+            {
+                entry.dueTick = currentTick + toTicks(entry.effect.getInterval());
+                add(entry);
+            }
+        }
+        processing.clear();
+        return lethal;
+    }
+
+    /**
+     * Returns the number of scheduled effects, including cancelled ones which were not dropped yet
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /* ------------------------------------------------------------ */
+
+    private void add(Entry entry)
+    {
+        slots.get(slotIndex(entry.dueTick)).add(entry);
+        size++;
+    }
+
+    private static int slotIndex(long tick)
+    {
+        return (int) (tick & (WHEEL_SIZE - 1));
+    }
+
+    private static long toTicks(int intervalMs)
+    {
+        return Math.max(1, (intervalMs + MS_PER_TICK - 1) / MS_PER_TICK);
+    }
+
+}
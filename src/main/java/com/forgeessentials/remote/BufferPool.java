@@ -0,0 +1,55 @@
+package com.forgeessentials.remote;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of fixed size buffers used to encode outgoing remote messages
+ */
+public final class BufferPool
+{
+
+    public static final int CHUNK_SIZE = 16 * 1024;
+
+    /* Number of free buffers kept for reuse */
+    public static final int MAX_RETAINED = 256;
+
+    private static final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger freeCount = new AtomicInteger();
+
+    private BufferPool()
+    {
+        /* static */
+    }
+
+    /**
+     * Returns a cleared buffer of {@link #CHUNK_SIZE} bytes
+     */
+    public static ByteBuffer acquire()
+    {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null)
+            return ByteBuffer.allocate(CHUNK_SIZE);
+        freeCount.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool
+     */
+    public static void release(ByteBuffer buffer)
+    {
+        if (buffer.capacity() != CHUNK_SIZE || freeCount.incrementAndGet() > MAX_RETAINED)
+        {
+            if (buffer.capacity() == CHUNK_SIZE)
+                freeCount.decrementAndGet();
+            return;
+        }
+        free.add(buffer);
+    }
+
+}
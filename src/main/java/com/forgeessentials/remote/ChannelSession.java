@@ -0,0 +1,265 @@
+package com.forgeessentials.remote;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.forgeessentials.util.output.LoggingHandler;
+
+/**
+ * Session on a non-blocking channel.
+ * <p>
+ * Reads and writes happen on the selector thread of the {@link Server}. Received messages are processed in order on
+ * the worker pool. Reading is paused while {@link #MAX_PENDING_MESSAGES} messages are waiting to be processed.
+ */
+public class ChannelSession extends Session
+{
+
+    public static final int MAX_PENDING_MESSAGES = 16;
+
+    private static final int MAX_GATHER = 64;
+
+    private final SocketChannel channel;
+
+    private final SocketStreamSplitter splitter;
+
+    private SelectionKey key;
+
+    private final Queue<String> inbox = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingMessages = new AtomicInteger();
+
+    private final AtomicBoolean processing = new AtomicBoolean();
+
+    /* Set while the session is queued for an update by the selector thread */
+    private final AtomicBoolean updatePending = new AtomicBoolean();
+
+    /* Buffers of one gathering write */
+    private final ByteBuffer[] writeBuffers = new ByteBuffer[MAX_GATHER];
+
+    private volatile boolean closeRequested;
+
+    private volatile boolean aborted;
+
+    private final Runnable processor = new Runnable() {
+        @Override
+        public void run()
+        {
+            processInbox();
+        }
+    };
+
+    /**
+     * @param server
+     * @param channel
+     * @throws IOException
+     */
+    public ChannelSession(Server server, SocketChannel channel) throws IOException
+    {
+        super(server, (InetSocketAddress) channel.getRemoteAddress());
+        this.channel = channel;
+        this.splitter = new SocketStreamSplitter(SEPARATOR, Server.maxMessageSize);
+    }
+
+    /* ------------------------------------------------------------ */
+    /* Selector thread */
+
+    void register(SelectionKey key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * Returns true, if the session was not already queued for an update
+     */
+    boolean markUpdatePending()
+    {
+        return updatePending.compareAndSet(false, true);
+    }
+
+    void clearUpdatePending()
+    {
+        updatePending.set(false);
+    }
+
+    /**
+     * Reads available data and hands complete messages to the worker pool
+     *
+     * @param readBuffer
+     *            buffer shared by all sessions of the selector thread
+     */
+    void handleRead(ByteBuffer readBuffer)
+    {
+        if (closeRequested)
+            return;
+        try
+        {
+            readBuffer.clear();
+            int read = channel.read(readBuffer);
+            if (read < 0)
+            {
+                closeNow();
+                return;
+            }
+            readBuffer.flip();
+            splitter.feed(readBuffer);
+
+            String message;
+            boolean received = false;
+            while ((message = splitter.next()) != null)
+            {
+                inbox.add(message);
+                pendingMessages.incrementAndGet();
+                received = true;
+            }
+            if (received && processing.compareAndSet(false, true))
+                server.execute(processor);
+        }
+        catch (IOException e)
+        {
+            LoggingHandler.felog.debug("[remote] Socket error: " + e.getMessage());
+            closeNow();
+        }
+    }
+
+    /**
+     * Writes as much queued data as the channel accepts, up to {@link #MAX_GATHER} buffers per write call
+     */
+    void handleWrite()
+    {
+        if (aborted)
+            return;
+        try
+        {
+            int count;
+            while ((count = peekOutput(writeBuffers)) > 0)
+            {
+                channel.write(writeBuffers, 0, count);
+                boolean complete = !writeBuffers[count - 1].hasRemaining();
+                Arrays.fill(writeBuffers, 0, count, null);
+                consumeOutput();
+                if (!complete)
+                    break;
+            }
+        }
+        catch (IOException e)
+        {
+            LoggingHandler.felog.debug("[remote] Socket error: " + e.getMessage());
+            closeNow();
+        }
+    }
+
+    /**
+     * Updates the interest set of the selection key to the current state of the session
+     */
+    void updateInterest()
+    {
+        if (key == null || !key.isValid())
+            return;
+        boolean hasOutput = hasOutput();
+        if (aborted || closeRequested && !hasOutput)
+        {
+            closeNow();
+            return;
+        }
+        int ops = 0;
+        if (!closeRequested && pendingMessages.get() < MAX_PENDING_MESSAGES)
+            ops |= SelectionKey.OP_READ;
+        if (hasOutput)
+            ops |= SelectionKey.OP_WRITE;
+        key.interestOps(ops);
+    }
+
+    void closeNow()
+    {
+        closeRequested = true;
+        inbox.clear();
+        discardOutput();
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            /* ignore */
+        }
+        server.sessionClosed(this);
+    }
+
+    /* ------------------------------------------------------------ */
+
+    private void processInbox()
+    {
+        while (true)
+        {
+            String message;
+            while ((message = inbox.poll()) != null)
+            {
+                boolean resume = pendingMessages.getAndDecrement() >= MAX_PENDING_MESSAGES;
+                if (!closeRequested)
+                {
+                    try
+                    {
+                        processMessage(message);
+                    }
+                    catch (IOException e)
+                    {
+                        LoggingHandler.felog.debug("[remote] Socket error: " + e.getMessage());
+                        close();
+                    }
+                }
+                if (resume)
+                    server.requestUpdate(this);
+            }
+            processing.set(false);
+            // Messages could have arrived after the inbox was found empty
+            if (inbox.isEmpty() || !processing.compareAndSet(false, true))
+                return;
+        }
+    }
+
+    @Override
+    protected void outputQueued()
+    {
+        server.requestUpdate(this);
+    }
+
+    @Override
+    protected void abort()
+    {
+        aborted = true;
+        closeRequested = true;
+        server.requestUpdate(this);
+    }
+
+    /**
+     * Terminates the session after all queued messages were written
+     */
+    @Override
+    public void close()
+    {
+        if (closeRequested)
+            return;
+        closeRequested = true;
+        server.requestUpdate(this);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.forgeessentials.api.remote.RemoteSession#isClosed()
+     */
+    @Override
+    public boolean isClosed()
+    {
+        return closeRequested || !channel.isOpen();
+    }
+
+}
@@ -32,6 +32,7 @@ import com.forgeessentials.api.permissions.Zone;
 import com.forgeessentials.api.remote.FERemoteHandler;
 import com.forgeessentials.api.remote.RemoteHandler;
 import com.forgeessentials.api.remote.RemoteManager;
+import com.forgeessentials.api.remote.RemoteTopic;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.core.misc.FECommandManager;
 import com.forgeessentials.core.misc.Translator;
@@ -39,6 +40,7 @@ import com.forgeessentials.core.moduleLauncher.FEModule;
 import com.forgeessentials.core.moduleLauncher.config.ConfigLoaderBase;
 import com.forgeessentials.data.v2.DataManager;
 import com.forgeessentials.remote.command.CommandRemote;
+import com.forgeessentials.remote.subscription.SubscriptionManager;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleInitEvent;
 import com.forgeessentials.util.events.FEModuleEvent.FEModulePreInitEvent;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerInitEvent;
@@ -109,6 +111,8 @@ public class ModuleRemote extends ConfigLoaderBase implements RemoteManager
 
     protected PasskeyMap passkeys = new PasskeyMap();
 
+    protected SubscriptionManager subscriptionManager;
+
     protected boolean mcServerStarted;
 
     /* ------------------------------------------------------------ */
@@ -149,6 +153,7 @@ public class ModuleRemote extends ConfigLoaderBase implements RemoteManager
                 "Allows to start / stop remote server and control users (regen passkeys, kick, block)");
 
         FECommandManager.registerCommand(new CommandRemote());
+        subscriptionManager = new SubscriptionManager();
     }
 
     /**
@@ -183,6 +188,14 @@ public class ModuleRemote extends ConfigLoaderBase implements RemoteManager
                         "Protect the communication against network sniffing by encrypting traffic with SSL (You don't really need it - believe me)")
                 .getBoolean();
         passkeyLength = config.get(CONFIG_CAT, "passkey_length", 6, "Length of the randomly generated passkeys").getInt();
+        Server.workerThreads = Math.max(1, config.get(CONFIG_CAT, "worker_threads", 4, "Number of threads processing remote requests").getInt());
+        Server.maxMessageSize = Math.max(1024, config.get(CONFIG_CAT, "max_message_size", 4 * 1024 * 1024,
+                "Maximum size of a single remote request in bytes. Larger requests close the connection.").getInt());
+        Session.maxQueuedBytes = Math.max(BufferPool.CHUNK_SIZE, config.get(CONFIG_CAT, "max_queued_bytes", 1024 * 1024,
+                "Maximum size of the messages waiting to be sent to a single remote client").getInt());
+        String policy = config.get(CONFIG_CAT, "slow_client_policy", "disconnect",
+                "What to do when the send queue of a client is full: \"drop\" new messages or \"disconnect\" the client").getString();
+        Session.slowClientPolicy = policy.equalsIgnoreCase("drop") ? Session.SlowClientPolicy.DROP : Session.SlowClientPolicy.DISCONNECT;
         if (mcServerStarted)
             startServer();
     }
@@ -279,6 +292,44 @@ public class ModuleRemote extends ConfigLoaderBase implements RemoteManager
         return handlers.get(id);
     }
 
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.forgeessentials.api.remote.RemoteManager#registerTopic(com.forgeessentials.api.remote.RemoteTopic)
+     */
+    @Override
+    public void registerTopic(RemoteTopic topic)
+    {
+        subscriptionManager.registerTopic(topic);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.forgeessentials.api.remote.RemoteManager#publish(java.lang.String, java.lang.Object)
+     */
+    @Override
+    public void publish(String topic, Object data)
+    {
+        subscriptionManager.publish(topic, data);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see com.forgeessentials.api.remote.RemoteManager#hasSubscribers(java.lang.String)
+     */
+    @Override
+    public boolean hasSubscribers(String topic)
+    {
+        return subscriptionManager.hasSubscribers(topic);
+    }
+
+    public SubscriptionManager getSubscriptionManager()
+    {
+        return subscriptionManager;
+    }
+
     /**
      * Get all registered remote-handlers
      */
@@ -0,0 +1,110 @@
+package com.forgeessentials.remote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output stream writing into buffers of the {@link BufferPool}. Headers written at the start of the stream can be filled
+ * in afterwards with {@link #putByte(int, byte)} and {@link #putInt(int, int)}.
+ */
+public class PooledOutputStream extends OutputStream
+{
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+
+    private ByteBuffer current;
+
+    private int size;
+
+    @Override
+    public void write(int b)
+    {
+        if (current == null || !current.hasRemaining())
+            nextBuffer();
+        current.put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length)
+    {
+        size += length;
+        while (length > 0)
+        {
+            if (current == null || !current.hasRemaining())
+                nextBuffer();
+            int count = Math.min(length, current.remaining());
+            current.put(data, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    private void nextBuffer()
+    {
+        current = BufferPool.acquire();
+        buffers.add(current);
+    }
+
+    /**
+     * Overwrites an already written byte in the first buffer
+     */
+    public void putByte(int index, byte value)
+    {
+        buffers.get(0).put(index, value);
+    }
+
+    /**
+     * Overwrites an already written big-endian int in the first buffer
+     */
+    public void putInt(int index, int value)
+    {
+        buffers.get(0).putInt(index, value);
+    }
+
+    /**
+     * Writes the data starting at the offset to another stream
+     */
+    public void writeTo(OutputStream os, int offset) throws IOException
+    {
+        for (ByteBuffer buffer : buffers)
+        {
+            int length = buffer.position();
+            if (offset < length)
+                os.write(buffer.array(), buffer.arrayOffset() + offset, length - offset);
+            offset = Math.max(0, offset - length);
+        }
+    }
+
+    /**
+     * Returns the written buffers, flipped for reading
+     */
+    public List<ByteBuffer> getBuffers()
+    {
+        for (ByteBuffer buffer : buffers)
+            buffer.flip();
+        current = null;
+        return buffers;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns all buffers to the pool
+     */
+    public void release()
+    {
+        for (ByteBuffer buffer : buffers)
+            BufferPool.release(buffer);
+        buffers.clear();
+        current = null;
+        size = 0;
+    }
+
+}
@@ -4,6 +4,10 @@ public abstract class RemoteMessageID
 {
 
     public static final String QUERY_REMOTE_CAPABILITIES = "query_remote_capabilities";
+    public static final String SET_ENCODING = "set_encoding";
+
+    public static final String SUBSCRIBE = "subscribe";
+    public static final String PUSH = "push";
 
     public static final String QUERY_PERMISSION_REGISTERED = "query_permission_registered";
     public static final String QUERY_PERMISSIONS = "query_permissions";
@@ -13,6 +17,7 @@ public abstract class RemoteMessageID
 
     public static final String QUERY_SERVER_LOG = "query_log_server";
     public static final String QUERY_STATS = "query_stats";
+    public static final String QUERY_PROFILER = "query_profiler";
 
     public static final String CHAT = "chat";
     public static final String PUSH_CHAT = "push_chat";
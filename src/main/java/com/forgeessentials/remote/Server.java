@@ -2,41 +2,62 @@ package com.forgeessentials.remote;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.security.GeneralSecurityException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.SSLContext;
 
 import com.forgeessentials.api.UserIdent;
 import com.forgeessentials.api.remote.RemoteResponse;
+import com.forgeessentials.util.output.LoggingHandler;
 
 /**
- *
+ * Remote server. Plain connections are served by a single selector thread, while received messages are processed on
+ * a pool of {@link #workerThreads} threads. SSL connections use a blocking {@link SocketSession} each.
  */
 public class Server implements Runnable
 {
 
+    public static int workerThreads = 4;
+
+    public static int maxMessageSize = 4 * 1024 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private final ServerSocketChannel serverChannel;
+
+    private final Selector selector;
+
     private final ServerSocket serverSocket;
 
+    private final ExecutorService workers;
+
+    private final Queue<ChannelSession> pendingUpdates = new ConcurrentLinkedQueue<>();
+
     private Thread serverThread;
 
-    private Set<Session> sessions = new HashSet<>();
+    private volatile boolean running = true;
 
-    /**
-     * @param port
-     * @param hostname
-     */
-    public Server(ServerSocket socket)
-    {
-        serverSocket = socket;
-        serverThread = new Thread(this);
-        serverThread.start();
-    }
+    private Set<Session> sessions = new HashSet<>();
 
     /**
      * @param port
@@ -45,7 +66,22 @@ public class Server implements Runnable
      */
     public Server(int port, String hostname) throws IOException
     {
-        this(new ServerSocket(port, 0, InetAddress.getByName(hostname)));
+        serverSocket = null;
+        serverChannel = ServerSocketChannel.open();
+        try
+        {
+            serverChannel.bind(new InetSocketAddress(InetAddress.getByName(hostname), port));
+            serverChannel.configureBlocking(false);
+            selector = Selector.open();
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        }
+        catch (IOException e)
+        {
+            serverChannel.close();
+            throw e;
+        }
+        workers = createWorkers();
+        startThread("FE remote selector");
     }
 
     /**
@@ -56,23 +92,53 @@ public class Server implements Runnable
      */
     public Server(int port, String hostname, SSLContext sslCtx) throws IOException, GeneralSecurityException
     {
-        this(sslCtx.getServerSocketFactory().createServerSocket(port, 0, InetAddress.getByName(hostname)));
+        serverSocket = sslCtx.getServerSocketFactory().createServerSocket(port, 0, InetAddress.getByName(hostname));
+        serverChannel = null;
+        selector = null;
+        workers = null;
+        startThread("FE remote server");
+    }
+
+    private void startThread(String name)
+    {
+        serverThread = new Thread(this, name);
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    private static ExecutorService createWorkers()
+    {
+        return Executors.newFixedThreadPool(Math.max(1, workerThreads), new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "FE remote worker " + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
      * Terminates the server
      */
-    public synchronized void close()
+    public void close()
     {
+        RemoteResponse<?> shutdownMessage = RemoteResponse.success("shutdown", 0, "Server shutting down");
+        for (Session session : getSessionsCopy())
+        {
+            session.trySendMessage(shutdownMessage);
+            session.close();
+        }
+        running = false;
         try
         {
-            RemoteResponse<?> shutdownMessage = RemoteResponse.success("shutdown", 0, "Server shutting down");
-            for (Session session : sessions)
-            {
-                session.trySendMessage(shutdownMessage);
-                session.close();
-            }
-            serverSocket.close();
+            if (serverChannel != null)
+                selector.wakeup();
+            else
+                serverSocket.close();
         }
         catch (IOException e)
         {
@@ -85,6 +151,14 @@ public class Server implements Runnable
      */
     @Override
     public void run()
+    {
+        if (serverChannel != null)
+            runSelector();
+        else
+            runAccept();
+    }
+
+    private void runAccept()
     {
         while (true)
         {
@@ -92,7 +166,7 @@ public class Server implements Runnable
             {
                 cleanSessions();
                 Socket s = serverSocket.accept();
-                Session session = new Session(s);
+                Session session = new SocketSession(this, s);
                 synchronized (this)
                 {
                     sessions.add(session);
@@ -111,6 +185,120 @@ public class Server implements Runnable
         }
     }
 
+    private void runSelector()
+    {
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        try
+        {
+            while (running)
+            {
+                selector.select();
+                processUpdates();
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();)
+                {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid())
+                        continue;
+                    if (key.isAcceptable())
+                    {
+                        accept();
+                        continue;
+                    }
+                    ChannelSession session = (ChannelSession) key.attachment();
+                    if (key.isReadable())
+                        session.handleRead(readBuffer);
+                    if (key.isValid() && key.isWritable())
+                        session.handleWrite();
+                    session.updateInterest();
+                }
+            }
+            // Write out the shutdown messages as far as possible
+            processUpdates();
+        }
+        catch (IOException e)
+        {
+            LoggingHandler.felog.error("[remote] Selector error: " + e.getMessage());
+        }
+        finally
+        {
+            for (Session session : getSessionsCopy())
+                ((ChannelSession) session).closeNow();
+            try
+            {
+                selector.close();
+                serverChannel.close();
+            }
+            catch (IOException e)
+            {
+                /* ignore */
+            }
+            workers.shutdown();
+        }
+    }
+
+    private void accept() throws IOException
+    {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null)
+        {
+            try
+            {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                ChannelSession session = new ChannelSession(this, channel);
+                session.register(channel.register(selector, SelectionKey.OP_READ, session));
+                synchronized (this)
+                {
+                    sessions.add(session);
+                }
+            }
+            catch (IOException e)
+            {
+                LoggingHandler.felog.debug("[remote] Error accepting connection: " + e.getMessage());
+                channel.close();
+            }
+        }
+    }
+
+    private void processUpdates()
+    {
+        ChannelSession session;
+        while ((session = pendingUpdates.poll()) != null)
+        {
+            // Cleared first, so output queued from now on requests another update
+            session.clearUpdatePending();
+            session.handleWrite();
+            session.updateInterest();
+        }
+    }
+
+    /**
+     * Makes the selector thread write pending output and update the state of the session. Each session is queued at
+     * most once.
+     */
+    void requestUpdate(ChannelSession session)
+    {
+        if (!session.markUpdatePending())
+            return;
+        pendingUpdates.add(session);
+        selector.wakeup();
+    }
+
+    /**
+     * Runs a task on the worker pool
+     */
+    void execute(Runnable task)
+    {
+        workers.execute(task);
+    }
+
+    synchronized void sessionClosed(Session session)
+    {
+        if (sessions.remove(session))
+            RemoteCommandSender.unload(session);
+    }
+
     public synchronized void cleanSessions()
     {
         for (Iterator<Session> it = sessions.iterator(); it.hasNext();)
@@ -132,13 +320,18 @@ public class Server implements Runnable
         return sessions;
     }
 
+    private synchronized List<Session> getSessionsCopy()
+    {
+        return new ArrayList<>(sessions);
+    }
+
     /**
      * @return the session
      */
     public synchronized Session getSession(UserIdent ident)
     {
         for (Session session : sessions)
-            if (session.getUserIdent().equals(ident))
+            if (ident.equals(session.getUserIdent()))
                 return session;
         return null;
     }
@@ -2,11 +2,15 @@ package com.forgeessentials.remote;
 
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
-import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 
 import com.forgeessentials.api.APIRegistry;
@@ -19,69 +23,119 @@ import com.forgeessentials.api.remote.RemoteRequest;
 import com.forgeessentials.api.remote.RemoteRequest.JsonRemoteRequest;
 import com.forgeessentials.api.remote.RemoteResponse;
 import com.forgeessentials.api.remote.RemoteSession;
+import com.forgeessentials.api.remote.data.DataBinary;
 import com.forgeessentials.util.output.LoggingHandler;
 import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 
 /**
- *
+ * Handles the remote protocol of one connection. The transport is implemented by {@link ChannelSession} and
+ * {@link SocketSession}.
  */
-public class Session implements Runnable, RemoteSession
+public abstract class Session implements RemoteSession
 {
 
-    private static final String SEPARATOR = "\n\n\n";
+    public static final String SEPARATOR = "\n\n\n";
 
-    private final Socket socket;
-
-    private final Thread thread;
-
-    private UserIdent ident;
-
-    /**
-     * @param socket
-     */
-    public Session(Socket socket)
+    public static enum SlowClientPolicy
     {
-        this.socket = socket;
-        this.thread = new Thread(this);
-        this.thread.start();
+        /** Messages which do not fit into the send queue are dropped */
+        DROP,
+        /** Sessions whose send queue is full are closed */
+        DISCONNECT;
     }
 
-    /*
-     * Main session loop
+    /**
+     * Encodings for messages sent to the client. Requests are always JSON messages followed by {@link #SEPARATOR}.
+     * <p>
+     * Frames start with a 6 byte header: frame type, flags and the big-endian length of the frame content.
+     * {@link #FRAME_JSON} frames contain one JSON message, compressed with deflate if {@link #FLAG_DEFLATE} is set.
+     * {@link #FRAME_BINARY} frames contain the length of a JSON message, the JSON message with the content type as data,
+     * and the raw data.
      */
-    @Override
-    public void run()
+    public static enum Encoding
     {
-        try
+        /** JSON messages followed by {@link Session#SEPARATOR} */
+        JSON,
+        /** Length-prefixed frames */
+        FRAME,
+        /** Length-prefixed frames, with large JSON messages compressed */
+        FRAME_DEFLATE;
+
+        public String getId()
         {
-            final SocketStreamSplitter sss = new SocketStreamSplitter(socket.getInputStream(), SEPARATOR);
-            while (true)
-            {
-                try
-                {
-                    final String msg = sss.readNext();
-                    if (msg == null)
-                    {
-                        // LoggingHandler.felog.warn("[remote] Connection closed: " + getRemoteHostname());
-                        break;
-                    }
-                    processMessage(msg);
-                }
-                catch (IOException e)
-                {
-                    LoggingHandler.felog.debug("[remote] Socket error: " + e.getMessage());
-                    break;
-                }
-            }
+            return name().toLowerCase();
         }
-        catch (IOException e)
+
+        public static Encoding fromId(String id)
         {
-            LoggingHandler.felog.warn("[remote] Error opening input stream.");
+            for (Encoding encoding : values())
+                if (encoding.getId().equals(id))
+                    return encoding;
+            return null;
         }
-        close();
     }
 
+    public static final byte FRAME_JSON = 0;
+
+    public static final byte FRAME_BINARY = 1;
+
+    public static final int FLAG_DEFLATE = 1;
+
+    public static final int FRAME_HEADER_SIZE = 6;
+
+    /* Smaller JSON messages are not worth compressing */
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    private static final byte[] SEPARATOR_BYTES = SEPARATOR.getBytes(StandardCharsets.UTF_8);
+
+    private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<Deflater>() {
+        @Override
+        protected Deflater initialValue()
+        {
+            return new Deflater(Deflater.DEFAULT_COMPRESSION);
+        }
+    };
+
+    public static int maxQueuedBytes = 1024 * 1024;
+
+    public static SlowClientPolicy slowClientPolicy = SlowClientPolicy.DISCONNECT;
+
+    protected final Server server;
+
+    protected final InetSocketAddress address;
+
+    private UserIdent ident;
+
+    /* Encoded messages waiting to be written. Guarded by itself. */
+    private final ArrayDeque<ByteBuffer> outbox = new ArrayDeque<>();
+
+    private int queuedBytes;
+
+    private int droppedMessages;
+
+    private volatile Encoding encoding = Encoding.JSON;
+
+    /**
+     * @param server
+     * @param address
+     */
+    public Session(Server server, InetSocketAddress address)
+    {
+        this.server = server;
+        this.address = address;
+    }
+
+    /**
+     * Called after a message was queued, to make the I/O thread write it
+     */
+    protected abstract void outputQueued();
+
+    /**
+     * Closes the connection without writing the queued messages
+     */
+    protected abstract void abort();
+
     /**
      * All received messages start being processed here
      * 
@@ -182,11 +236,11 @@ public class Session implements Runnable, RemoteSession
      * @see com.forgeessentials.api.remote.RemoteSession#sendMessage(java.lang.Object)
      */
     @Override
-    public synchronized void sendMessage(RemoteResponse<?> message) throws IOException
+    public void sendMessage(RemoteResponse<?> message) throws IOException
     {
-        OutputStreamWriter ow = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
-        ow.write(getGson().toJson(message) + SEPARATOR);
-        ow.flush();
+        if (isClosed())
+            throw new IOException("Session closed");
+        enqueue(message);
     }
 
     /*
@@ -201,8 +255,7 @@ public class Session implements Runnable, RemoteSession
             return false;
         try
         {
-            sendMessage(message);
-            return true;
+            return enqueue(message);
         }
         catch (IOException e)
         {
@@ -210,6 +263,210 @@ public class Session implements Runnable, RemoteSession
         }
     }
 
+    /**
+     * Encodes the message into pooled buffers and adds it to the send queue
+     *
+     * @return false, if the message was dropped because the send queue is full
+     * @throws IOException
+     *             if the session was closed because the send queue is full
+     */
+    protected boolean enqueue(RemoteResponse<?> message) throws IOException
+    {
+        PooledOutputStream out;
+        boolean full;
+        while (true)
+        {
+            Encoding usedEncoding = encoding;
+            out = encode(message, usedEncoding);
+            synchronized (outbox)
+            {
+                // Encode again if the encoding was switched in the meantime
+                if (usedEncoding != encoding)
+                {
+                    out.release();
+                    continue;
+                }
+                // A single message larger than the limit is still sent when nothing else is queued
+                full = queuedBytes > 0 && queuedBytes + out.size() > maxQueuedBytes;
+                if (full)
+                    droppedMessages++;
+                else
+                {
+                    outbox.addAll(out.getBuffers());
+                    queuedBytes += out.size();
+                }
+                break;
+            }
+        }
+        if (full)
+        {
+            out.release();
+            if (slowClientPolicy == SlowClientPolicy.DROP)
+                return false;
+            LoggingHandler.felog.warn(String.format("[remote] Send queue full. Terminating session to %s", getRemoteAddress()));
+            abort();
+            throw new IOException("Send queue full");
+        }
+        outputQueued();
+        return true;
+    }
+
+    protected PooledOutputStream encode(RemoteResponse<?> message, Encoding encoding) throws IOException
+    {
+        PooledOutputStream out = new PooledOutputStream();
+        DataBinary binary = message.data instanceof DataBinary ? (DataBinary) message.data : null;
+        if (encoding == Encoding.JSON)
+        {
+            if (binary != null)
+                message = RemoteResponse.transform(message, binary.toBase64());
+            writeJson(out, message);
+            out.write(SEPARATOR_BYTES);
+            return out;
+        }
+
+        out.write(new byte[FRAME_HEADER_SIZE]);
+        if (binary != null)
+        {
+            // Binary frame: JSON length, JSON message without data, raw data
+            out.write(new byte[4]);
+            writeJson(out, RemoteResponse.transform(message, binary.type));
+            out.putInt(FRAME_HEADER_SIZE, out.size() - FRAME_HEADER_SIZE - 4);
+            out.write(binary.data);
+            setFrameHeader(out, FRAME_BINARY, 0);
+            return out;
+        }
+
+        writeJson(out, message);
+        if (encoding == Encoding.FRAME_DEFLATE && out.size() - FRAME_HEADER_SIZE >= COMPRESSION_THRESHOLD)
+        {
+            PooledOutputStream compressed = new PooledOutputStream();
+            compressed.write(new byte[FRAME_HEADER_SIZE]);
+            Deflater deflater = DEFLATERS.get();
+            deflater.reset();
+            DeflaterOutputStream dos = new DeflaterOutputStream(compressed, deflater, BufferPool.CHUNK_SIZE);
+            out.writeTo(dos, FRAME_HEADER_SIZE);
+            dos.finish();
+            if (compressed.size() < out.size())
+            {
+                out.release();
+                setFrameHeader(compressed, FRAME_JSON, FLAG_DEFLATE);
+                return compressed;
+            }
+            compressed.release();
+        }
+        setFrameHeader(out, FRAME_JSON, 0);
+        return out;
+    }
+
+    private void writeJson(PooledOutputStream out, RemoteResponse<?> message) throws IOException
+    {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        getGson().toJson(message, writer);
+        writer.flush();
+    }
+
+    private static void setFrameHeader(PooledOutputStream out, byte type, int flags)
+    {
+        out.putByte(0, type);
+        out.putByte(1, (byte) flags);
+        out.putInt(2, out.size() - FRAME_HEADER_SIZE);
+    }
+
+    /**
+     * Returns the encoding used for messages sent to the client
+     */
+    public Encoding getEncoding()
+    {
+        return encoding;
+    }
+
+    /**
+     * Switches the encoding of messages sent to the client. Messages which were sent before are not affected.
+     */
+    public void setEncoding(Encoding encoding)
+    {
+        synchronized (outbox)
+        {
+            this.encoding = encoding;
+        }
+    }
+
+    /**
+     * Copies the first queued buffers into the array without removing them
+     *
+     * @return the number of buffers
+     */
+    protected int peekOutput(ByteBuffer[] target)
+    {
+        synchronized (outbox)
+        {
+            int count = 0;
+            for (Iterator<ByteBuffer> it = outbox.iterator(); it.hasNext() && count < target.length;)
+                target[count++] = it.next();
+            return count;
+        }
+    }
+
+    /**
+     * Removes the completely written buffers from the head of the queue
+     */
+    protected void consumeOutput()
+    {
+        synchronized (outbox)
+        {
+            while (!outbox.isEmpty() && !outbox.peek().hasRemaining())
+            {
+                ByteBuffer buffer = outbox.poll();
+                queuedBytes -= buffer.limit();
+                BufferPool.release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Drops all queued messages
+     */
+    protected void discardOutput()
+    {
+        synchronized (outbox)
+        {
+            for (ByteBuffer buffer : outbox)
+                BufferPool.release(buffer);
+            outbox.clear();
+            queuedBytes = 0;
+        }
+    }
+
+    public boolean hasOutput()
+    {
+        synchronized (outbox)
+        {
+            return !outbox.isEmpty();
+        }
+    }
+
+    /**
+     * Returns the number of bytes waiting to be sent
+     */
+    public int getQueuedBytes()
+    {
+        synchronized (outbox)
+        {
+            return queuedBytes;
+        }
+    }
+
+    /**
+     * Returns the number of messages dropped because the send queue was full
+     */
+    public int getDroppedMessages()
+    {
+        synchronized (outbox)
+        {
+            return droppedMessages;
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -231,7 +488,7 @@ public class Session implements Runnable, RemoteSession
     @Override
     public String getRemoteHostname()
     {
-        return ((InetSocketAddress) socket.getRemoteSocketAddress()).getHostName();
+        return address.getHostName();
     }
 
     /*
@@ -242,7 +499,7 @@ public class Session implements Runnable, RemoteSession
     @Override
     public String getRemoteAddress()
     {
-        return ((InetSocketAddress) socket.getRemoteSocketAddress()).getAddress().getHostAddress();
+        return address.getAddress().getHostAddress();
     }
 
     /*
@@ -256,22 +513,6 @@ public class Session implements Runnable, RemoteSession
         return ident;
     }
 
-    /**
-     * Terminates the session
-     */
-    @Override
-    public void close()
-    {
-        try
-        {
-            socket.close();
-        }
-        catch (IOException e)
-        {
-            /* ignore */
-        }
-    }
-
     /**
      * Terminates the session
      * 
@@ -296,17 +537,6 @@ public class Session implements Runnable, RemoteSession
         close();
     }
 
-    /*
-     * (non-Javadoc)
-     * 
-     * @see com.forgeessentials.api.remote.RemoteSession#isClosed()
-     */
-    @Override
-    public boolean isClosed()
-    {
-        return socket.isClosed();
-    }
-
     /**
      * Get the Gson instance from ModuleRemote
      */
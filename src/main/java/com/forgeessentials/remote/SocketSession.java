@@ -0,0 +1,181 @@
+package com.forgeessentials.remote;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.forgeessentials.util.output.LoggingHandler;
+
+/**
+ * Session on a blocking socket with its own reader and writer thread. Used for SSL connections.
+ */
+public class SocketSession extends Session implements Runnable
+{
+
+    private static final int MAX_BATCH = 64;
+
+    private final Socket socket;
+
+    private final Thread thread;
+
+    private final Thread writerThread;
+
+    private final Object writeLock = new Object();
+
+    private volatile boolean closeRequested;
+
+    /**
+     * @param server
+     * @param socket
+     */
+    public SocketSession(Server server, Socket socket)
+    {
+        super(server, (InetSocketAddress) socket.getRemoteSocketAddress());
+        this.socket = socket;
+        this.thread = new Thread(this, "FE remote session " + getRemoteAddress());
+        this.thread.setDaemon(true);
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                writeLoop();
+            }
+        }, "FE remote writer " + getRemoteAddress());
+        this.writerThread.setDaemon(true);
+        this.thread.start();
+        this.writerThread.start();
+    }
+
+    /*
+     * Main session loop
+     */
+    @Override
+    public void run()
+    {
+        try
+        {
+            final SocketStreamSplitter sss = new SocketStreamSplitter(socket.getInputStream(), SEPARATOR, Server.maxMessageSize);
+            while (!closeRequested)
+            {
+                try
+                {
+                    final String msg = sss.readNext();
+                    if (msg == null)
+                        break;
+                    processMessage(msg);
+                }
+                catch (IOException e)
+                {
+                    LoggingHandler.felog.debug("[remote] Socket error: " + e.getMessage());
+                    break;
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            LoggingHandler.felog.warn("[remote] Error opening input stream.");
+        }
+        close();
+        server.sessionClosed(this);
+    }
+
+    /**
+     * Writes queued messages in batches and closes the socket once the session was closed and all messages were sent
+     */
+    private void writeLoop()
+    {
+        ByteBuffer[] buffers = new ByteBuffer[MAX_BATCH];
+        try
+        {
+            OutputStream os = socket.getOutputStream();
+            while (!socket.isClosed())
+            {
+                int count = peekOutput(buffers);
+                if (count == 0)
+                {
+                    synchronized (writeLock)
+                    {
+                        if (closeRequested && !hasOutput())
+                            break;
+                        if (!hasOutput())
+                            writeLock.wait(1000);
+                    }
+                    continue;
+                }
+                for (int i = 0; i < count; i++)
+                {
+                    ByteBuffer buffer = buffers[i];
+                    os.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                    buffer.position(buffer.limit());
+                }
+                os.flush();
+                Arrays.fill(buffers, 0, count, null);
+                consumeOutput();
+            }
+        }
+        catch (IOException e)
+        {
+            LoggingHandler.felog.debug("[remote] Socket error: " + e.getMessage());
+        }
+        catch (InterruptedException e)
+        {
+            /* closing */
+        }
+        discardOutput();
+        closeSocket();
+    }
+
+    @Override
+    protected void outputQueued()
+    {
+        synchronized (writeLock)
+        {
+            writeLock.notifyAll();
+        }
+    }
+
+    @Override
+    protected void abort()
+    {
+        closeRequested = true;
+        writerThread.interrupt();
+        closeSocket();
+    }
+
+    private void closeSocket()
+    {
+        try
+        {
+            socket.close();
+        }
+        catch (IOException e)
+        {
+            /* ignore */
+        }
+    }
+
+    /**
+     * Terminates the session after all queued messages were written
+     */
+    @Override
+    public void close()
+    {
+        closeRequested = true;
+        outputQueued();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see com.forgeessentials.api.remote.RemoteSession#isClosed()
+     */
+    @Override
+    public boolean isClosed()
+    {
+        return closeRequested || socket.isClosed();
+    }
+
+}
@@ -2,51 +2,169 @@ package com.forgeessentials.remote;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
- *
+ * Splits a stream of UTF-8 bytes into messages at a separator.
+ * <p>
+ * The separator search continues where the previous search stopped, so every received byte is only scanned once. The
+ * size of a single message is limited to {@link #maxMessageSize} bytes.
  */
 public class SocketStreamSplitter
 {
 
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    /* Buffers grown above this size are dropped again once they are empty */
+    private static final int RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
     private final InputStream is;
 
-    private final InputStreamReader reader;
+    private final byte[] separator;
+
+    private final int maxMessageSize;
+
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
 
-    private final String separator;
+    private byte[] readBuffer;
 
-    private final StringBuilder buffer = new StringBuilder();
+    /* Start of the current message */
+    private int start;
+
+    /* End of the buffered data */
+    private int end;
+
+    /* Position the next separator search starts at */
+    private int scanPos;
+
+    public SocketStreamSplitter(String separator, int maxMessageSize)
+    {
+        this(null, separator, maxMessageSize);
+    }
 
     public SocketStreamSplitter(InputStream is, String separator)
+    {
+        this(is, separator, Integer.MAX_VALUE / 2);
+    }
+
+    public SocketStreamSplitter(InputStream is, String separator, int maxMessageSize)
     {
         this.is = is;
-        this.reader = new InputStreamReader(is);
-        this.separator = separator;
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+        this.maxMessageSize = maxMessageSize;
     }
 
+    /* ------------------------------------------------------------ */
+
+    /**
+     * Appends received data
+     */
+    public void feed(ByteBuffer data)
+    {
+        int length = data.remaining();
+        ensureCapacity(length);
+        data.get(buffer, end, length);
+        end += length;
+    }
+
+    /**
+     * Appends received data
+     */
+    public void feed(byte[] data, int offset, int length)
+    {
+        ensureCapacity(length);
+        System.arraycopy(data, offset, buffer, end, length);
+        end += length;
+    }
+
+    /**
+     * Returns the next complete message or null, if no complete message was received yet
+     *
+     * @throws IOException
+     *             if the current message exceeds the maximum message size
+     */
+    public String next() throws IOException
+    {
+        int limit = end - separator.length;
+        for (int i = Math.max(scanPos, start); i <= limit; i++)
+        {
+            if (buffer[i] != separator[0] || !matchesSeparator(i))
+                continue;
+            String message = new String(buffer, start, i - start, StandardCharsets.UTF_8);
+            start = i + separator.length;
+            scanPos = start;
+            if (start == end)
+                clear();
+            return message;
+        }
+        scanPos = Math.max(start, limit + 1);
+        if (scanPos - start > maxMessageSize)
+            throw new IOException(String.format("Message exceeds maximum size of %d bytes", maxMessageSize));
+        return null;
+    }
+
+    /**
+     * Blocks until the next message was read from the input stream
+     *
+     * @return the message or null, if the stream was closed
+     */
     public String readNext() throws IOException
     {
-        int separatorPos = buffer.toString().indexOf(separator);
-        while (separatorPos < 0)
+        if (readBuffer == null)
+            readBuffer = new byte[READ_BUFFER_SIZE];
+        while (true)
         {
-            // First wait for data to arrive
-            final int available = is.available();
-            final int count = available > 0 ? available : 1;
-            final char[] buf = new char[count];
-            final int read = reader.read(buf, 0, count);
-            buffer.append(buf);
-
-            // Check if new data contained separator
-            separatorPos = buffer.toString().indexOf(separator);
-            if (separatorPos < 0 && read < 0)
+            String message = next();
+            if (message != null)
+                return message;
+            int read = is.read(readBuffer);
+            if (read < 0)
                 return null;
+            feed(readBuffer, 0, read);
         }
+    }
+
+    /**
+     * Returns the number of buffered bytes which do not belong to a complete message yet
+     */
+    public int getBufferedSize()
+    {
+        return end - start;
+    }
+
+    /* ------------------------------------------------------------ */
+
+    private boolean matchesSeparator(int pos)
+    {
+        for (int i = 1; i < separator.length; i++)
+            if (buffer[pos + i] != separator[i])
+                return false;
+        return true;
+    }
 
-        // Cut out the data that will be processed
-        final String data = buffer.substring(0, separatorPos);
-        buffer.delete(0, separatorPos + separator.length());
-        return data;
+    private void ensureCapacity(int length)
+    {
+        if (buffer.length - end >= length)
+            return;
+        int size = end - start;
+        byte[] target = buffer;
+        if (buffer.length < size + length)
+            target = new byte[Math.max(buffer.length * 2, size + length)];
+        System.arraycopy(buffer, start, target, 0, size);
+        buffer = target;
+        scanPos -= start;
+        end = size;
+        start = 0;
+    }
+
+    private void clear()
+    {
+        start = end = scanPos = 0;
+        if (buffer.length > RETAINED_BUFFER_SIZE)
+            buffer = new byte[INITIAL_BUFFER_SIZE];
     }
 
 }
@@ -1,6 +1,8 @@
 package com.forgeessentials.remote.handler;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -13,6 +15,7 @@ import com.forgeessentials.api.remote.RemoteResponse;
 import com.forgeessentials.api.remote.RemoteSession;
 import com.forgeessentials.remote.ModuleRemote;
 import com.forgeessentials.remote.RemoteMessageID;
+import com.forgeessentials.remote.Session.Encoding;
 import com.google.gson.JsonElement;
 
 @FERemoteHandler(id = RemoteMessageID.QUERY_REMOTE_CAPABILITIES)
@@ -38,6 +41,8 @@ public class QueryRemoteCapabilitiesHandler extends GenericRemoteHandler<JsonEle
             if (p == null || APIRegistry.perms.checkUserPermission(session.getUserIdent(), p))
                 response.handlers.add(handler.getKey());
         }
+        for (Encoding encoding : Encoding.values())
+            response.encodings.add(encoding.getId());
         return new RemoteResponse<QueryRemoteCapabilitiesHandler.Response>(request, response);
     }
 
@@ -46,6 +51,11 @@ public class QueryRemoteCapabilitiesHandler extends GenericRemoteHandler<JsonEle
 
         public Set<String> handlers = new HashSet<>();
 
+        /**
+         * Encodings which can be selected with {@link RemoteMessageID#SET_ENCODING}
+         */
+        public List<String> encodings = new ArrayList<>();
+
     }
 
 }
@@ -0,0 +1,47 @@
+package com.forgeessentials.remote.handler;
+
+import java.io.IOException;
+
+import com.forgeessentials.api.remote.FERemoteHandler;
+import com.forgeessentials.api.remote.GenericRemoteHandler;
+import com.forgeessentials.api.remote.RemoteRequest;
+import com.forgeessentials.api.remote.RemoteResponse;
+import com.forgeessentials.api.remote.RemoteSession;
+import com.forgeessentials.remote.RemoteMessageID;
+import com.forgeessentials.remote.Session;
+import com.forgeessentials.remote.Session.Encoding;
+
+/**
+ * Switches the encoding of messages sent to the client. The response is still sent in the previous encoding, all
+ * following messages use the new one.
+ */
+@FERemoteHandler(id = RemoteMessageID.SET_ENCODING)
+public class SetEncodingHandler extends GenericRemoteHandler<String>
+{
+
+    public SetEncodingHandler()
+    {
+        super(null, String.class);
+    }
+
+    @Override
+    protected RemoteResponse<?> handleData(RemoteSession session, RemoteRequest<String> request)
+    {
+        if (!(session instanceof Session))
+            error("session does not support encodings");
+        Encoding encoding = Encoding.fromId(request.data);
+        if (encoding == null)
+            error("unknown encoding");
+        try
+        {
+            session.sendMessage(success(request));
+        }
+        catch (IOException e)
+        {
+            return new RemoteResponse.Ignore();
+        }
+        ((Session) session).setEncoding(encoding);
+        return new RemoteResponse.Ignore();
+    }
+
+}
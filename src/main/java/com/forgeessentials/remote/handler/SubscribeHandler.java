@@ -0,0 +1,77 @@
+package com.forgeessentials.remote.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.remote.FERemoteHandler;
+import com.forgeessentials.api.remote.GenericRemoteHandler;
+import com.forgeessentials.api.remote.RemoteRequest;
+import com.forgeessentials.api.remote.RemoteResponse;
+import com.forgeessentials.api.remote.RemoteSession;
+import com.forgeessentials.api.remote.RemoteTopic;
+import com.forgeessentials.remote.ModuleRemote;
+import com.forgeessentials.remote.RemoteMessageID;
+import com.forgeessentials.remote.handler.SubscribeHandler.Request;
+import com.forgeessentials.remote.subscription.SubscriptionManager;
+
+/**
+ * Subscribes to or unsubscribes from a topic. Without data, the topics available to the user are returned.
+ */
+@FERemoteHandler(id = RemoteMessageID.SUBSCRIBE)
+public class SubscribeHandler extends GenericRemoteHandler<Request>
+{
+
+    public SubscribeHandler()
+    {
+        super(null, Request.class);
+    }
+
+    @Override
+    protected RemoteResponse<?> handleData(RemoteSession session, RemoteRequest<Request> request)
+    {
+        SubscriptionManager manager = ModuleRemote.getInstance().getSubscriptionManager();
+        if (request.data == null)
+        {
+            List<String> available = new ArrayList<>();
+            for (RemoteTopic topic : manager.getTopics())
+                if (canSubscribe(session, topic))
+                    available.add(topic.getId());
+            return new RemoteResponse<Object>(request, available);
+        }
+
+        RemoteTopic topic = manager.getTopic(request.data.topic);
+        if (topic == null)
+            error("unknown topic");
+        if (!request.data.enable)
+        {
+            if (!manager.unsubscribe(session, topic.getId()))
+                error("not subscribed to " + topic.getId());
+            return success(request);
+        }
+        if (!canSubscribe(session, topic))
+            error(MSG_NO_PERMISSION);
+        manager.subscribe(session, topic, request.data.interval);
+        return success(request);
+    }
+
+    private static boolean canSubscribe(RemoteSession session, RemoteTopic topic)
+    {
+        return topic.getPermission() == null || APIRegistry.perms.checkUserPermission(session.getUserIdent(), topic.getPermission());
+    }
+
+    public static class Request
+    {
+
+        public String topic;
+
+        public boolean enable = true;
+
+        /**
+         * Sampling interval in milliseconds
+         */
+        public int interval;
+
+    }
+
+}
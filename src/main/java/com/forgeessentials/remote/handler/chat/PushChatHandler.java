@@ -20,6 +20,7 @@ import com.forgeessentials.api.remote.RemoteSession;
 import com.forgeessentials.remote.RemoteMessageID;
 import com.forgeessentials.remote.handler.chat.PushChatHandler.Request;
 import com.forgeessentials.remote.network.ChatResponse;
+import com.forgeessentials.remote.subscription.SubscriptionManager;
 import com.forgeessentials.util.output.ChatOutputHandler.ChatFormat;
 
 @FERemoteHandler(id = RemoteMessageID.PUSH_CHAT)
@@ -84,6 +85,8 @@ public class PushChatHandler extends GenericRemoteHandler<Request>
                 session.trySendMessage(messages[format.ordinal()]);
             }
         }
+        if (APIRegistry.remoteManager.hasSubscribers(SubscriptionManager.TOPIC_CHAT))
+            APIRegistry.remoteManager.publish(SubscriptionManager.TOPIC_CHAT, new ChatResponse(username, ChatFormat.PLAINTEXT.format(message)));
     }
 
     public static void onMessage(ITextComponent message, String username)
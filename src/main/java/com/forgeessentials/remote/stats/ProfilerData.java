@@ -0,0 +1,35 @@
+package com.forgeessentials.remote.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import net.minecraft.server.MinecraftServer;
+
+import com.forgeessentials.util.TickProfiler;
+import com.forgeessentials.util.TickProfiler.Section;
+import com.forgeessentials.util.TickProfiler.Stats;
+
+/**
+ * Tick time statistics of the server, each dimension and the FE handlers in milliseconds
+ */
+public class ProfilerData
+{
+
+    public Stats server;
+
+    public Map<String, Stats> dimensions = new LinkedHashMap<>();
+
+    public Map<String, Stats> handlers = new LinkedHashMap<>();
+
+    public ProfilerData(MinecraftServer server)
+    {
+        this.server = TickProfiler.getStats(server.tickTimeArray, server.tickTimeArray.length);
+        for (Entry<Integer, long[]> entry : new TreeMap<>(server.worldTickTimes).entrySet())
+            dimensions.put(entry.getKey().toString(), TickProfiler.getStats(entry.getValue(), entry.getValue().length));
+        for (Section section : TickProfiler.getSections())
+            handlers.put(section.getName(), section.getStats());
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.forgeessentials.remote.stats;
+
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.server.permission.DefaultPermissionLevel;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.remote.FERemoteHandler;
+import com.forgeessentials.api.remote.GenericRemoteHandler;
+import com.forgeessentials.api.remote.RemoteRequest;
+import com.forgeessentials.api.remote.RemoteResponse;
+import com.forgeessentials.api.remote.RemoteSession;
+import com.forgeessentials.remote.RemoteMessageID;
+import com.google.gson.JsonElement;
+
+@FERemoteHandler(id = RemoteMessageID.QUERY_PROFILER)
+public class QueryProfilerHandler extends GenericRemoteHandler<JsonElement>
+{
+
+    public static final String PERM = QueryStatsHandler.PERM + ".profiler";
+
+    public QueryProfilerHandler()
+    {
+        super(PERM, JsonElement.class);
+        APIRegistry.perms.registerPermission(PERM, DefaultPermissionLevel.OP, "Allows querying tick time statistics of dimensions and FE handlers");
+    }
+
+    @Override
+    protected RemoteResponse<?> handleData(RemoteSession session, RemoteRequest<JsonElement> request)
+    {
+        return new RemoteResponse<Object>(request, new ProfilerData(FMLCommonHandler.instance().getMinecraftServerInstance()));
+    }
+
+}
@@ -4,7 +4,11 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Timer;
 
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+
 import com.forgeessentials.util.ServerUtil;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.ServerEventHandler;
 
 public class StatsManager extends ServerEventHandler
@@ -30,6 +34,14 @@ public class StatsManager extends ServerEventHandler
                 return ServerUtil.getPlayerList().size();
             }
         });
+        addStatTracker("ticktime", new StatTracker<Double>(10, 60 * 60) {
+            @Override
+            public Double getValue()
+            {
+                MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+                return server == null ? 0.0 : TickProfiler.getStats(server.tickTimeArray, server.tickTimeArray.length).mean;
+            }
+        });
     }
 
     public static void addStatTracker(String id, StatTracker<?> tracker)
@@ -0,0 +1,39 @@
+package com.forgeessentials.remote.subscription;
+
+import java.util.List;
+
+/**
+ * Data pushed to the subscribers of a topic
+ */
+public class PushData
+{
+
+    public String topic;
+
+    /**
+     * If set, {@link #data} only contains the changed entries of the map sent before
+     */
+    public boolean delta;
+
+    public Object data;
+
+    /**
+     * Keys of map entries which were removed since the last push
+     */
+    public List<Object> removed;
+
+    public PushData(String topic, Object data)
+    {
+        this.topic = topic;
+        this.data = data;
+    }
+
+    public PushData(String topic, Object data, List<Object> removed)
+    {
+        this.topic = topic;
+        this.data = data;
+        this.removed = removed;
+        this.delta = true;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.forgeessentials.remote.subscription;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.forgeessentials.api.remote.RemoteSession;
+
+/**
+ * Subscription of a session to a topic. For sampled topics it remembers the last pushed value to compute deltas.
+ */
+public class Subscription
+{
+
+    private final RemoteSession session;
+
+    private final String topic;
+
+    /* Sampling interval in ticks */
+    private int interval;
+
+    private long nextTick;
+
+    private boolean sent;
+
+    private Object lastValue;
+
+    public Subscription(RemoteSession session, String topic, int interval)
+    {
+        this.session = session;
+        this.topic = topic;
+        this.interval = interval;
+    }
+
+    public RemoteSession getSession()
+    {
+        return session;
+    }
+
+    public String getTopic()
+    {
+        return topic;
+    }
+
+    public int getInterval()
+    {
+        return interval;
+    }
+
+    public void setInterval(int interval)
+    {
+        this.interval = interval;
+    }
+
+    /**
+     * Checks if the subscription is due in this tick and schedules the next sample
+     */
+    public boolean isDue(long tick)
+    {
+        if (tick < nextTick)
+            return false;
+        nextTick = tick + interval;
+        return true;
+    }
+
+    /**
+     * Compares the value with the one pushed before
+     *
+     * @return the data to push or null, if nothing changed
+     */
+    public PushData update(Object value)
+    {
+        if (sent && value instanceof Map && lastValue instanceof Map)
+        {
+            Map<?, ?> current = (Map<?, ?>) value;
+            Map<?, ?> last = (Map<?, ?>) lastValue;
+            Map<Object, Object> changed = new LinkedHashMap<>();
+            for (Entry<?, ?> entry : current.entrySet())
+                if (!last.containsKey(entry.getKey()) || !Objects.equals(entry.getValue(), last.get(entry.getKey())))
+                    changed.put(entry.getKey(), entry.getValue());
+            List<Object> removed = null;
+            for (Object key : last.keySet())
+            {
+                if (current.containsKey(key))
+                    continue;
+                if (removed == null)
+                    removed = new ArrayList<>();
+                removed.add(key);
+            }
+            lastValue = value;
+            if (changed.isEmpty() && removed == null)
+                return null;
+            return new PushData(topic, changed, removed);
+        }
+        if (sent && Objects.equals(value, lastValue))
+            return null;
+        sent = true;
+        lastValue = value;
+        return new PushData(topic, value);
+    }
+
+}
@@ -0,0 +1,344 @@
+package com.forgeessentials.remote.subscription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.server.permission.DefaultPermissionLevel;
+
+import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.permissions.Zone;
+import com.forgeessentials.api.remote.RemoteHandler;
+import com.forgeessentials.api.remote.RemoteResponse;
+import com.forgeessentials.api.remote.RemoteSession;
+import com.forgeessentials.api.remote.RemoteTopic;
+import com.forgeessentials.remote.RemoteMessageID;
+import com.forgeessentials.remote.handler.chat.PushChatHandler;
+import com.forgeessentials.remote.stats.ProfilerData;
+import com.forgeessentials.util.TickProfiler;
+import com.forgeessentials.util.events.ServerEventHandler;
+
+/**
+ * Keeps the topic subscriptions of remote sessions. Sampled topics are sampled at the end of a server tick, at most
+ * once per tick for all due subscribers.
+ */
+public class SubscriptionManager extends ServerEventHandler
+{
+
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", SubscriptionManager.class);
+
+    public static final String PERM = RemoteHandler.PERM_REMOTE + ".subscribe";
+
+    public static final String TOPIC_TPS = "tps";
+    public static final String TOPIC_TICK_TIME = "tick_time";
+    public static final String TOPIC_ENTITIES = "entities";
+    public static final String TOPIC_MEMORY = "memory";
+    public static final String TOPIC_CHAT = "chat";
+    public static final String TOPIC_PLAYERS = "players";
+    public static final String TOPIC_PROFILER = "profiler";
+
+    public static final int MS_PER_TICK = 50;
+
+    private final Map<String, RemoteTopic> topics = new LinkedHashMap<>();
+
+    private final Map<String, List<Subscription>> subscriptions = new HashMap<>();
+
+    private long tick;
+
+    public SubscriptionManager()
+    {
+        registerTopic(new RemoteTopic(TOPIC_TPS, PERM + "." + TOPIC_TPS) {
+            @Override
+            public boolean isSampled()
+            {
+                return true;
+            }
+
+            @Override
+            public Object sample()
+            {
+                double tickTime = mean(getServer().tickTimeArray) * 1.0E-6D;
+                Map<String, Double> values = new LinkedHashMap<>();
+                values.put("tps", round(Math.min(20, 1000 / Math.max(tickTime, 1.0E-3D))));
+                values.put("tick", round(tickTime));
+                return values;
+            }
+        });
+        registerTopic(new RemoteTopic(TOPIC_TICK_TIME, PERM + "." + TOPIC_TICK_TIME) {
+            @Override
+            public boolean isSampled()
+            {
+                return true;
+            }
+
+            @Override
+            public Object sample()
+            {
+                Map<String, Double> values = new LinkedHashMap<>();
+                for (Entry<Integer, long[]> entry : getServer().worldTickTimes.entrySet())
+                    values.put(entry.getKey().toString(), round(mean(entry.getValue()) * 1.0E-6D));
+                return values;
+            }
+        });
+        registerTopic(new RemoteTopic(TOPIC_ENTITIES, PERM + "." + TOPIC_ENTITIES) {
+            @Override
+            public boolean isSampled()
+            {
+                return true;
+            }
+
+            @Override
+            public Object sample()
+            {
+                Map<String, Integer> values = new LinkedHashMap<>();
+                for (WorldServer world : DimensionManager.getWorlds())
+                    values.put(Integer.toString(world.provider.getDimension()), world.loadedEntityList.size());
+                return values;
+            }
+        });
+        registerTopic(new RemoteTopic(TOPIC_MEMORY, PERM + "." + TOPIC_MEMORY) {
+            @Override
+            public boolean isSampled()
+            {
+                return true;
+            }
+
+            @Override
+            public Object sample()
+            {
+                Runtime runtime = Runtime.getRuntime();
+                Map<String, Long> values = new LinkedHashMap<>();
+                values.put("used", (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+                values.put("total", runtime.totalMemory() / (1024 * 1024));
+                values.put("max", runtime.maxMemory() / (1024 * 1024));
+                return values;
+            }
+        });
+        registerTopic(new RemoteTopic(TOPIC_PROFILER, PERM + "." + TOPIC_PROFILER) {
+            @Override
+            public boolean isSampled()
+            {
+                return true;
+            }
+
+            @Override
+            public int getMinInterval()
+            {
+                return 5000;
+            }
+
+            @Override
+            public Object sample()
+            {
+                return new ProfilerData(getServer());
+            }
+        });
+        registerTopic(new RemoteTopic(TOPIC_CHAT, PushChatHandler.PERM));
+        registerTopic(new RemoteTopic(TOPIC_PLAYERS, PERM + "." + TOPIC_PLAYERS));
+    }
+
+    /* ------------------------------------------------------------ */
+
+    /**
+     * Registers a topic. A topic registered again with the same id replaces the previous one.
+     */
+    public synchronized void registerTopic(RemoteTopic topic)
+    {
+        topics.put(topic.getId(), topic);
+        String perm = topic.getPermission();
+        if (perm != null && APIRegistry.perms.getServerZone().getRootZone().getGroupPermission(Zone.GROUP_DEFAULT, perm) == null)
+            APIRegistry.perms.registerPermission(perm, DefaultPermissionLevel.OP, "Allows subscribing to remote topic " + topic.getId());
+    }
+
+    public synchronized RemoteTopic getTopic(String id)
+    {
+        return topics.get(id);
+    }
+
+    public synchronized Collection<RemoteTopic> getTopics()
+    {
+        return new ArrayList<>(topics.values());
+    }
+
+    /**
+     * Subscribes the session to the topic or changes the interval of an existing subscription
+     *
+     * @param interval
+     *            sampling interval in milliseconds, ignored for topics which are not sampled
+     */
+    public synchronized void subscribe(RemoteSession session, RemoteTopic topic, int interval)
+    {
+        int ticks = (Math.max(interval, topic.getMinInterval()) + MS_PER_TICK - 1) / MS_PER_TICK;
+        List<Subscription> list = subscriptions.get(topic.getId());
+        if (list == null)
+        {
+            list = new ArrayList<>();
+            subscriptions.put(topic.getId(), list);
+        }
+        for (Subscription subscription : list)
+        {
+            if (subscription.getSession() == session)
+            {
+                subscription.setInterval(Math.max(1, ticks));
+                return;
+            }
+        }
+        list.add(new Subscription(session, topic.getId(), Math.max(1, ticks)));
+    }
+
+    /**
+     * @return false, if the session was not subscribed to the topic
+     */
+    public synchronized boolean unsubscribe(RemoteSession session, String topic)
+    {
+        List<Subscription> list = subscriptions.get(topic);
+        if (list == null)
+            return false;
+        for (Iterator<Subscription> it = list.iterator(); it.hasNext();)
+        {
+            if (it.next().getSession() == session)
+            {
+                it.remove();
+                if (list.isEmpty())
+                    subscriptions.remove(topic);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean hasSubscribers(String topic)
+    {
+        return subscriptions.containsKey(topic);
+    }
+
+    /**
+     * Pushes data to all subscribers of the topic
+     */
+    public synchronized void publish(String topic, Object data)
+    {
+        List<Subscription> list = subscriptions.get(topic);
+        if (list == null)
+            return;
+        RemoteResponse<PushData> message = new RemoteResponse<>(RemoteMessageID.PUSH, new PushData(topic, data));
+        for (Iterator<Subscription> it = list.iterator(); it.hasNext();)
+        {
+            RemoteSession session = it.next().getSession();
+            if (session.isClosed())
+                it.remove();
+            else
+                session.trySendMessage(message);
+        }
+        if (list.isEmpty())
+            subscriptions.remove(topic);
+    }
+
+    /* ------------------------------------------------------------ */
+
+    @SubscribeEvent
+    public synchronized void serverTickEvent(TickEvent.ServerTickEvent event)
+    {
+        if (event.phase == TickEvent.Phase.START)
+            return;
+        long start = TickProfiler.start();
+        tick++;
+        for (Iterator<Entry<String, List<Subscription>>> it = subscriptions.entrySet().iterator(); it.hasNext();)
+        {
+            Entry<String, List<Subscription>> entry = it.next();
+            RemoteTopic topic = topics.get(entry.getKey());
+            if (topic == null || !topic.isSampled())
+                continue;
+            boolean sampled = false;
+            Object value = null;
+            for (Iterator<Subscription> its = entry.getValue().iterator(); its.hasNext();)
+            {
+                Subscription subscription = its.next();
+                if (subscription.getSession().isClosed())
+                {
+                    its.remove();
+                    continue;
+                }
+                if (!subscription.isDue(tick))
+                    continue;
+                if (!sampled)
+                {
+                    value = topic.sample();
+                    sampled = true;
+                }
+                PushData data = subscription.update(value);
+                if (data != null)
+                    subscription.getSession().trySendMessage(new RemoteResponse<>(RemoteMessageID.PUSH, data));
+            }
+            if (entry.getValue().isEmpty())
+                it.remove();
+        }
+        TICK_SECTION.end(start);
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void playerLoggedInEvent(PlayerEvent.PlayerLoggedInEvent event)
+    {
+        if (hasSubscribers(TOPIC_PLAYERS))
+            publish(TOPIC_PLAYERS, new PlayerEventData("join", event.player));
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void playerLoggedOutEvent(PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        if (hasSubscribers(TOPIC_PLAYERS))
+            publish(TOPIC_PLAYERS, new PlayerEventData("leave", event.player));
+    }
+
+    /* ------------------------------------------------------------ */
+
+    private static MinecraftServer getServer()
+    {
+        return FMLCommonHandler.instance().getMinecraftServerInstance();
+    }
+
+    private static double mean(long[] values)
+    {
+        long sum = 0;
+        for (long value : values)
+            sum += value;
+        return values.length == 0 ? 0 : (double) sum / values.length;
+    }
+
+    private static double round(double value)
+    {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    public static class PlayerEventData
+    {
+
+        public String event;
+
+        public String username;
+
+        public String uuid;
+
+        public PlayerEventData(String event, EntityPlayer player)
+        {
+            this.event = event;
+            this.username = player.getName();
+            this.uuid = player.getPersistentID().toString();
+        }
+
+    }
+
+}
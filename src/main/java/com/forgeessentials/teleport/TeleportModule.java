@@ -132,5 +132,7 @@ public class TeleportModule extends ConfigLoaderBase
         String portalBlockId = config.get(Configuration.CATEGORY_GENERAL, "portalBlock", "minecraft:glass_pane", "Name of the block to use as material for new portals.\n"
                 + "Does not override vanilla nether/end portals.\nSetting this to 'minecraft:portal' is currently not supported.").getString();
         PortalManager.portalBlock = Block.REGISTRY.getObject(new ResourceLocation(portalBlockId));
+        PortalManager.frameBlocksPerTick = Math.max(1, config.get(Configuration.CATEGORY_GENERAL, "portalFrameBlocksPerTick", 4096,
+                "Maximum number of portal blocks placed or removed per tick. Larger portal frames are built over multiple ticks.").getInt());
     }
 }
@@ -0,0 +1,120 @@
+package com.forgeessentials.teleport.portal;
+
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.DimensionManager;
+
+import com.forgeessentials.commons.selections.Point;
+import com.forgeessentials.core.misc.TaskRegistry.TickTask;
+
+/**
+ * Builds or destroys the frame of a portal, limited to {@link PortalManager#frameBlocksPerTick} blocks per tick
+ */
+public class PortalFrameTask implements TickTask
+{
+
+    private final Portal portal;
+
+    private final boolean build;
+
+    private final Point low;
+
+    private final Point high;
+
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+    private int x;
+
+    private int y;
+
+    private int z;
+
+    private boolean cancelled;
+
+    public PortalFrameTask(Portal portal, boolean build)
+    {
+        this.portal = portal;
+        this.build = build;
+        this.low = portal.getPortalArea().getLowPoint();
+        this.high = portal.getPortalArea().getHighPoint();
+        this.x = low.getX();
+        this.y = low.getY();
+        this.z = low.getZ();
+    }
+
+    /**
+     * Runs the task until the block budget is used up
+     *
+     * @return true, if the frame is complete
+     */
+    @Override
+    public boolean tick()
+    {
+        boolean done = cancelled || update();
+        if (done)
+            PortalManager.getInstance().frameTaskDone(this);
+        return done;
+    }
+
+    private boolean update()
+    {
+        World world = DimensionManager.getWorld(portal.getPortalArea().getDimension());
+        if (world == null)
+            return true;
+        for (int i = 0; i < PortalManager.frameBlocksPerTick; i++)
+        {
+            if (x > high.getX())
+                return true;
+            pos.setPos(x, y, z);
+            Block block = world.getBlockState(pos).getBlock();
+            if (build)
+            {
+                if (block != PortalManager.portalBlock)
+                    world.setBlockState(pos, PortalManager.portalBlock.getDefaultState());
+            }
+            else if (block == PortalManager.portalBlock || block == Blocks.PORTAL)
+            {
+                world.setBlockState(pos, Blocks.AIR.getDefaultState());
+            }
+            if (++z > high.getZ())
+            {
+                z = low.getZ();
+                if (++y > high.getY())
+                {
+                    y = low.getY();
+                    x++;
+                }
+            }
+        }
+        return x > high.getX();
+    }
+
+    @Override
+    public boolean editsBlocks()
+    {
+        return true;
+    }
+
+    public void cancel()
+    {
+        cancelled = true;
+    }
+
+    public Portal getPortal()
+    {
+        return portal;
+    }
+
+    /**
+     * Returns the number of blocks in the frame
+     */
+    public static long getSize(Portal portal)
+    {
+        Point low = portal.getPortalArea().getLowPoint();
+        Point high = portal.getPortalArea().getHighPoint();
+        return (long) (high.getX() - low.getX() + 1) * (high.getY() - low.getY() + 1) * (high.getZ() - low.getZ() + 1);
+    }
+
+}
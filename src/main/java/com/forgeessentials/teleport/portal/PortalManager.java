@@ -1,15 +1,17 @@
 package com.forgeessentials.teleport.portal;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import net.minecraft.block.Block;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.init.Blocks;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.World;
-import net.minecraftforge.common.DimensionManager;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.event.world.BlockEvent.BreakEvent;
 import net.minecraftforge.fe.event.entity.EntityPortalEvent;
@@ -17,7 +19,9 @@ import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.EventPriority;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
+import com.forgeessentials.commons.selections.Point;
 import com.forgeessentials.commons.selections.WorldPoint;
+import com.forgeessentials.core.misc.TaskRegistry;
 import com.forgeessentials.core.misc.TeleportHelper;
 import com.forgeessentials.data.v2.DataManager;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerStoppedEvent;
@@ -29,8 +33,27 @@ public class PortalManager extends ServerEventHandler
 
     private static PortalManager instance;
 
+    /**
+     * Portals spanning more chunks than this are not put into the chunk index, but tested on every lookup instead
+     */
+    public static final int MAX_INDEX_CHUNKS = 1024;
+
+    private static final List<Portal> EMPTY = Collections.emptyList();
+
     protected Map<String, Portal> portals = new HashMap<>();
 
+    /* Portals by dimension and chunk key */
+    private Map<Integer, Map<Long, List<Portal>>> portalIndex = new HashMap<>();
+
+    private List<Portal> largePortals = new ArrayList<>();
+
+    private Map<Portal, PortalFrameTask> frameTasks = new IdentityHashMap<>();
+
+    /**
+     * Frames with more blocks than this are built over multiple ticks
+     */
+    public static int frameBlocksPerTick = 4096;
+
     // private static boolean mixinLoaded = false;
 
     public static Block portalBlock = Blocks.PORTAL;
@@ -61,8 +84,13 @@ public class PortalManager extends ServerEventHandler
     public void load()
     {
         portals = DataManager.getInstance().loadAll(Portal.class);
+        portalIndex.clear();
+        largePortals.clear();
         for (Portal portal : portals.values())
+        {
+            index(portal);
             buildPortalFrame(portal);
+        }
     }
 
     public void save()
@@ -76,13 +104,20 @@ public class PortalManager extends ServerEventHandler
     {
         WorldPoint after = e.after.toWorldPoint();
         WorldPoint before = e.before.toWorldPoint();
-        for (Portal portal : portals.values())
+        if (largePortals.isEmpty() && portalIndex.isEmpty())
+            return;
+        for (Portal portal : getCandidates(after))
+            checkPortal(e, portal, after, before);
+        for (Portal portal : largePortals)
+            checkPortal(e, portal, after, before);
+    }
+
+    private static void checkPortal(PlayerMoveEvent e, Portal portal, WorldPoint after, WorldPoint before)
+    {
+        if (portal.getPortalArea().contains(after) && !portal.getPortalArea().contains(before))
         {
-            if (portal.getPortalArea().contains(after) && !portal.getPortalArea().contains(before))
-            {
-                if (!MinecraftForge.EVENT_BUS.post(new EntityPortalEvent(e.getEntity(), after.getWorld(), after.getBlockPos(), portal.target.getDimension(), portal.target.getBlockPos()))) {
-                    TeleportHelper.doTeleport((EntityPlayerMP) e.getEntityPlayer(), portal.target.toWarpPoint(e.getEntityPlayer().rotationPitch, e.getEntityPlayer().rotationYaw));
-                }
+            if (!MinecraftForge.EVENT_BUS.post(new EntityPortalEvent(e.getEntity(), after.getWorld(), after.getBlockPos(), portal.target.getDimension(), portal.target.getBlockPos()))) {
+                TeleportHelper.doTeleport((EntityPlayerMP) e.getEntityPlayer(), portal.target.toWarpPoint(e.getEntityPlayer().rotationPitch, e.getEntityPlayer().rotationYaw));
             }
         }
     }
@@ -100,12 +135,90 @@ public class PortalManager extends ServerEventHandler
 
     public Portal getPortalAt(WorldPoint point)
     {
-        for (Portal portal : portals.values())
+        for (Portal portal : getCandidates(point))
+            if (portal.getPortalArea().contains(point))
+                return portal;
+        for (Portal portal : largePortals)
             if (portal.getPortalArea().contains(point))
                 return portal;
         return null;
     }
 
+    /**
+     * Returns the indexed portals which overlap the chunk of the point
+     */
+    private List<Portal> getCandidates(WorldPoint point)
+    {
+        Map<Long, List<Portal>> chunks = portalIndex.get(point.getDimension());
+        if (chunks == null)
+            return EMPTY;
+        List<Portal> candidates = chunks.get(ChunkPos.asLong(point.getX() >> 4, point.getZ() >> 4));
+        return candidates == null ? EMPTY : candidates;
+    }
+
+    private static boolean isLarge(Portal portal)
+    {
+        Point low = portal.getPortalArea().getLowPoint();
+        Point high = portal.getPortalArea().getHighPoint();
+        return (long) ((high.getX() >> 4) - (low.getX() >> 4) + 1) * ((high.getZ() >> 4) - (low.getZ() >> 4) + 1) > MAX_INDEX_CHUNKS;
+    }
+
+    private void index(Portal portal)
+    {
+        if (isLarge(portal))
+        {
+            largePortals.add(portal);
+            return;
+        }
+        Map<Long, List<Portal>> chunks = portalIndex.get(portal.getPortalArea().getDimension());
+        if (chunks == null)
+        {
+            chunks = new HashMap<>();
+            portalIndex.put(portal.getPortalArea().getDimension(), chunks);
+        }
+        Point low = portal.getPortalArea().getLowPoint();
+        Point high = portal.getPortalArea().getHighPoint();
+        for (int x = low.getX() >> 4; x <= high.getX() >> 4; x++)
+            for (int z = low.getZ() >> 4; z <= high.getZ() >> 4; z++)
+            {
+                long key = ChunkPos.asLong(x, z);
+                List<Portal> bucket = chunks.get(key);
+                if (bucket == null)
+                {
+                    bucket = new ArrayList<>(2);
+                    chunks.put(key, bucket);
+                }
+                bucket.add(portal);
+            }
+    }
+
+    private void unindex(Portal portal)
+    {
+        if (isLarge(portal))
+        {
+            largePortals.remove(portal);
+            return;
+        }
+        Map<Long, List<Portal>> chunks = portalIndex.get(portal.getPortalArea().getDimension());
+        if (chunks == null)
+            return;
+        Point low = portal.getPortalArea().getLowPoint();
+        Point high = portal.getPortalArea().getHighPoint();
+        for (int x = low.getX() >> 4; x <= high.getX() >> 4; x++)
+            for (int z = low.getZ() >> 4; z <= high.getZ() >> 4; z++)
+            {
+                long key = ChunkPos.asLong(x, z);
+                List<Portal> bucket = chunks.get(key);
+                if (bucket == null)
+                    continue;
+                bucket.remove(portal);
+                if (bucket.isEmpty())
+                    chunks.remove(key);
+            }
+        if (chunks.isEmpty())
+            portalIndex.remove(portal.getPortalArea().getDimension());
+    }
+
     // @SubscribeEvent
     // public void serverTick(ServerTickEvent e)
     // {
@@ -144,52 +257,66 @@ public class PortalManager extends ServerEventHandler
 
     public void remove(String name)
     {
-        destroyPortalFrame(portals.remove(name));
+        Portal portal = portals.remove(name);
+        if (portal != null)
+        {
+            unindex(portal);
+            destroyPortalFrame(portal);
+        }
         DataManager.getInstance().delete(Portal.class, name);
     }
 
     public void add(String name, Portal portal)
     {
-        portals.put(name, portal);
+        Portal oldPortal = portals.put(name, portal);
+        if (oldPortal != null)
+            unindex(oldPortal);
+        index(portal);
         DataManager.getInstance().save(portal, name);
         buildPortalFrame(portal);
     }
 
-    private static void buildPortalFrame(Portal portal)
+    private void buildPortalFrame(Portal portal)
     {
-        if (!portal.hasFrame())
-            return;
-        World world = DimensionManager.getWorld(portal.getPortalArea().getDimension());
-        if (world != null)
-        {
-            for (int ix = portal.getPortalArea().getLowPoint().getX(); ix <= portal.getPortalArea().getHighPoint().getX(); ix++)
-                for (int iy = portal.getPortalArea().getLowPoint().getY(); iy <= portal.getPortalArea().getHighPoint().getY(); iy++)
-                    for (int iz = portal.getPortalArea().getLowPoint().getZ(); iz <= portal.getPortalArea().getHighPoint().getZ(); iz++)
-                    {
-                        BlockPos pos = new BlockPos(ix, iy, iz);
-                        if (world.getBlockState(pos).getBlock() != portalBlock)
-                            world.setBlockState(pos, portalBlock.getDefaultState());
-                    }
-        }
+        updatePortalFrame(portal, true);
+    }
+
+    private void destroyPortalFrame(Portal portal)
+    {
+        updatePortalFrame(portal, false);
     }
 
-    private static void destroyPortalFrame(Portal portal)
+    /**
+     * Builds or destroys the frame of a portal. Small frames are updated right away, larger ones by a
+     * {@link PortalFrameTask} over multiple ticks.
+     */
+    private void updatePortalFrame(Portal portal, boolean build)
     {
+        PortalFrameTask runningTask = frameTasks.remove(portal);
+        if (runningTask != null)
+        {
+            runningTask.cancel();
+            TaskRegistry.remove(runningTask);
+        }
         if (!portal.hasFrame())
             return;
-        World world = DimensionManager.getWorld(portal.getPortalArea().getDimension());
-        if (world != null)
+        PortalFrameTask task = new PortalFrameTask(portal, build);
+        if (PortalFrameTask.getSize(portal) <= frameBlocksPerTick)
         {
-            for (int ix = portal.getPortalArea().getLowPoint().getX(); ix <= portal.getPortalArea().getHighPoint().getX(); ix++)
-                for (int iy = portal.getPortalArea().getLowPoint().getY(); iy <= portal.getPortalArea().getHighPoint().getY(); iy++)
-                    for (int iz = portal.getPortalArea().getLowPoint().getZ(); iz <= portal.getPortalArea().getHighPoint().getZ(); iz++)
-                    {
-                        BlockPos pos = new BlockPos(ix, iy, iz);
-                        Block block = world.getBlockState(pos).getBlock();
-                        if (block == portalBlock || block == Blocks.PORTAL)
-                            world.setBlockState(pos, Blocks.AIR.getDefaultState());
-                    }
+            task.tick();
+            return;
         }
+        frameTasks.put(portal, task);
+        TaskRegistry.schedule(task);
+    }
+
+    /**
+     * Called by a {@link PortalFrameTask} once it is done
+     */
+    void frameTaskDone(PortalFrameTask task)
+    {
+        if (frameTasks.get(task.getPortal()) == task)
+            frameTasks.remove(task.getPortal());
     }
 
 }
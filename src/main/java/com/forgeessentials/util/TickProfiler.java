@@ -0,0 +1,263 @@
+package com.forgeessentials.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the time spent in FE handlers per server tick.
+ * <p>
+ * Each {@link Section} sums up the time measured during the current tick. At the end of the tick the sum is stored in
+ * a ring of the last {@link #WINDOW} ticks, from which the percentiles are computed.
+ * <p>
+ * Sections are measured independently and can overlap. For example, a permission lookup made by a tick handler counts
+ * towards both sections, so the sum of all sections can exceed the actual tick time.
+ *
+ * <pre>
+ * long start = TickProfiler.start();
+ * ...
+ * SECTION.end(start);
+ * </pre>
+ */
+public final class TickProfiler
+{
+
+    public static final int WINDOW = 20 * 60;
+
+    /**
+     * Off by default, because permission lookups are measured as well and they are the hottest path of the mod
+     */
+    public static volatile boolean enabled = false;
+
+    private static final Map<String, Section> sections = new ConcurrentHashMap<>();
+
+    private static final Map<Class<?>, Section> classSections = new ConcurrentHashMap<>();
+
+    private static volatile Thread serverThread;
+
+    private TickProfiler()
+    {
+        /* static */
+    }
+
+    /**
+     * Returns the start time for {@link Section#end(long)} or 0, if profiling is disabled
+     */
+    public static long start()
+    {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Like {@link #start()}, but also returns 0 if not called on the server thread. Used for code that can also run on
+     * other threads, whose time would not count towards the tick.
+     */
+    public static long startOnServerThread()
+    {
+        return enabled && Thread.currentThread() == serverThread ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns the section with the given name, creating it if needed
+     */
+    public static Section section(String name)
+    {
+        Section section = sections.get(name);
+        if (section == null)
+        {
+            section = new Section(name);
+            Section existing = sections.putIfAbsent(name, section);
+            if (existing != null)
+                section = existing;
+        }
+        return section;
+    }
+
+    /**
+     * Returns the section named after the class, like "task:PortalFrameTask"
+     */
+    public static Section section(String prefix, Class<?> type)
+    {
+        Section section = classSections.get(type);
+        if (section == null)
+        {
+            String name = type.getName();
+            section = section(prefix + ':' + name.substring(name.lastIndexOf('.') + 1));
+            classSections.put(type, section);
+        }
+        return section;
+    }
+
+    /**
+     * Stores the times of the current tick. Called once at the end of every server tick.
+     */
+    public static void tickEnd()
+    {
+        serverThread = Thread.currentThread();
+        if (!enabled)
+            return;
+        for (Section section : sections.values())
+            section.tickEnd();
+    }
+
+    /**
+     * Returns all sections, sorted by their mean time per tick
+     */
+    public static List<Section> getSections()
+    {
+        List<Section> result = new ArrayList<>(sections.values());
+        final Map<Section, Stats> stats = new HashMap<>();
+        for (Section section : result)
+            stats.put(section, section.getStats());
+        Collections.sort(result, new Comparator<Section>() {
+            @Override
+            public int compare(Section a, Section b)
+            {
+                return Double.compare(stats.get(b).mean, stats.get(a).mean);
+            }
+        });
+        return result;
+    }
+
+    public static void reset()
+    {
+        for (Section section : sections.values())
+            section.reset();
+    }
+
+    /**
+     * Computes the statistics of the first count values
+     *
+     * @param values
+     *            nanoseconds per tick
+     */
+    public static Stats getStats(long[] values, int count)
+    {
+        if (count <= 0)
+            return new Stats(0, 0, 0, 0, 0);
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long value : sorted)
+            sum += value;
+        return new Stats(toMs(sum / (double) count), toMs(percentile(sorted, 0.5)), toMs(percentile(sorted, 0.95)), toMs(percentile(sorted, 0.99)),
+                toMs(sorted[count - 1]));
+    }
+
+    private static long percentile(long[] sorted, double p)
+    {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double toMs(double nanos)
+    {
+        return Math.round(nanos * 1.0E-4D) / 100.0;
+    }
+
+    /* ------------------------------------------------------------ */
+
+    public static class Section
+    {
+
+        private final String name;
+
+        private final LongAdder time = new LongAdder();
+
+        private final LongAdder calls = new LongAdder();
+
+        private final long[] ticks = new long[WINDOW];
+
+        private final long[] tickCalls = new long[WINDOW];
+
+        private int index;
+
+        private int size;
+
+        public Section(String name)
+        {
+            this.name = name;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Adds the time since the start returned by {@link TickProfiler#start()}
+         */
+        public void end(long start)
+        {
+            if (start == 0)
+                return;
+            time.add(System.nanoTime() - start);
+            calls.increment();
+        }
+
+        private synchronized void tickEnd()
+        {
+            ticks[index] = time.sumThenReset();
+            tickCalls[index] = calls.sumThenReset();
+            index = (index + 1) % WINDOW;
+            if (size < WINDOW)
+                size++;
+        }
+
+        private synchronized void reset()
+        {
+            time.reset();
+            calls.reset();
+            index = size = 0;
+        }
+
+        public synchronized Stats getStats()
+        {
+            Stats stats = TickProfiler.getStats(ticks, size);
+            long callSum = 0;
+            for (int i = 0; i < size; i++)
+                callSum += tickCalls[i];
+            stats.calls = size == 0 ? 0 : Math.round(callSum * 100.0 / size) / 100.0;
+            return stats;
+        }
+
+    }
+
+    /**
+     * Statistics of the time per tick in milliseconds
+     */
+    public static class Stats
+    {
+
+        public double mean;
+
+        public double p50;
+
+        public double p95;
+
+        public double p99;
+
+        public double max;
+
+        /**
+         * Average number of measured calls per tick
+         */
+        public double calls;
+
+        public Stats(double mean, double p50, double p95, double p99, double max)
+        {
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+    }
+
+}
@@ -4,10 +4,13 @@ import java.util.HashMap;
 import java.util.UUID;
 
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.MathHelper;
 import net.minecraftforge.common.MinecraftForge;
 
 import com.forgeessentials.commons.selections.WarpPoint;
+import com.forgeessentials.core.FEConfig;
 import com.forgeessentials.core.misc.TeleportHelper;
+import com.forgeessentials.util.TickProfiler;
 
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.PlayerEvent;
@@ -17,30 +20,142 @@ import net.minecraftforge.fml.relauncher.Side;
 public class ForgeEssentialsEventFactory extends ServerEventHandler
 {
 
-    private HashMap<UUID, WarpPoint> lastPlayerPosition = new HashMap<>();
+    private static final TickProfiler.Section PLAYER_TICK_SECTION = TickProfiler.section("playertick", ForgeEssentialsEventFactory.class);
+
+    /**
+     * Position of a player in the last tick. It is updated in place, so players who do not move do not cause any
+     * allocations.
+     */
+    private static class PlayerPosition
+    {
+
+        private int dimension;
+
+        private double x;
+
+        private double y;
+
+        private double z;
+
+        private float pitch;
+
+        private float yaw;
+
+        private int blockX;
+
+        private int blockY;
+
+        private int blockZ;
+
+        /* Position of the last fired move event */
+        private double moveX;
+
+        private double moveY;
+
+        private double moveZ;
+
+        public void update(EntityPlayerMP player)
+        {
+            dimension = player.dimension;
+            x = player.posX;
+            y = player.posY;
+            z = player.posZ;
+            pitch = player.rotationPitch;
+            yaw = player.rotationYaw;
+            blockX = MathHelper.floor(x);
+            blockY = MathHelper.floor(y);
+            blockZ = MathHelper.floor(z);
+        }
+
+        public void markMoved()
+        {
+            moveX = x;
+            moveY = y;
+            moveZ = z;
+        }
+
+        public boolean isChanged(EntityPlayerMP player)
+        {
+            return player.posX != x || player.posY != y || player.posZ != z || player.rotationPitch != pitch || player.rotationYaw != yaw;
+        }
+
+        /**
+         * Checks if the player changed the dimension or block position, or moved further than
+         * {@link FEConfig#significantMoveDistance} since the last move event
+         */
+        public boolean isSignificantMove(EntityPlayerMP player)
+        {
+            if (player.dimension != dimension || MathHelper.floor(player.posX) != blockX || MathHelper.floor(player.posY) != blockY
+                    || MathHelper.floor(player.posZ) != blockZ)
+                return true;
+            if (FEConfig.significantMoveDistance <= 0)
+                return false;
+            double dx = player.posX - moveX;
+            double dy = player.posY - moveY;
+            double dz = player.posZ - moveZ;
+            return dx * dx + dy * dy + dz * dz >= FEConfig.significantMoveDistance * FEConfig.significantMoveDistance;
+        }
+
+        public WarpPoint toWarpPoint()
+        {
+            return new WarpPoint(dimension, x, y, z, pitch, yaw);
+        }
+
+    }
+
+    private HashMap<UUID, PlayerPosition> lastPlayerPosition = new HashMap<>();
 
     @SubscribeEvent
     public void playerTickEvent(TickEvent.PlayerTickEvent e)
     {
         if (e.side != Side.SERVER || e.phase == TickEvent.Phase.START)
             return;
-        EntityPlayerMP player = (EntityPlayerMP) e.player;
-        WarpPoint before = lastPlayerPosition.get(player.getPersistentID());
-        WarpPoint current = new WarpPoint(e.player);
+        long start = TickProfiler.start();
+        checkPlayerMove((EntityPlayerMP) e.player);
+        PLAYER_TICK_SECTION.end(start);
+    }
+
+    private void checkPlayerMove(EntityPlayerMP player)
+    {
+        PlayerPosition last = lastPlayerPosition.get(player.getPersistentID());
+        if (last == null)
+        {
+            last = new PlayerPosition();
+            last.update(player);
+            last.markMoved();
+            lastPlayerPosition.put(player.getPersistentID(), last);
+            return;
+        }
 
-        if (before != null && !player.isDead && player.world != null && !before.equals(current))
+        if (player.isDead || player.world == null || !last.isSignificantMove(player))
         {
-            PlayerMoveEvent event = new PlayerMoveEvent(player, before, current);
-            MinecraftForge.EVENT_BUS.post(event);
-            if (event.isCanceled())
+            if (!player.isDead && last.isChanged(player))
             {
-                // Check, if the position was not changed by one of the event handlers
-                if (current.equals(new WarpPoint(e.player)))
-                    // Move the player to his last position
-                    TeleportHelper.doTeleport(player, before);
+                PlayerMinorMoveEvent event = new PlayerMinorMoveEvent(player);
+                MinecraftForge.EVENT_BUS.post(event);
+                if (event.isCanceled())
+                {
+                    TeleportHelper.doTeleport(player, last.toWarpPoint());
+                    return;
+                }
             }
+            last.update(player);
+            return;
+        }
+
+        WarpPoint before = last.toWarpPoint();
+        WarpPoint current = new WarpPoint(player);
+        PlayerMoveEvent event = new PlayerMoveEvent(player, before, current);
+        MinecraftForge.EVENT_BUS.post(event);
+        if (event.isCanceled())
+        {
+            // Check, if the position was not changed by one of the event handlers
+            if (current.equals(new WarpPoint(player)))
+                // Move the player to his last position
+                TeleportHelper.doTeleport(player, before);
         }
-        lastPlayerPosition.put(player.getPersistentID(), new WarpPoint(e.player));
+        last.update(player);
+        last.markMoved();
     }
 
     @SubscribeEvent
@@ -0,0 +1,20 @@
+package com.forgeessentials.util.events;
+
+import net.minecraft.entity.player.EntityPlayer;
+
+import net.minecraftforge.fml.common.eventhandler.Cancelable;
+
+/**
+ * Fired when a player looks around or moves within a block, which does not fire a {@link PlayerMoveEvent}. Cancelling
+ * the event resets the player to the position and view of the last tick.
+ */
+@Cancelable
+public class PlayerMinorMoveEvent extends FEPlayerEvent
+{
+
+    public PlayerMinorMoveEvent(EntityPlayer player)
+    {
+        super(player);
+    }
+
+}
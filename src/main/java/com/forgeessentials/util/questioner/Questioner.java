@@ -13,12 +13,15 @@ import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
 
 import com.forgeessentials.core.misc.FECommandManager;
 import com.forgeessentials.core.misc.Translator;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.ServerEventHandler;
 import com.forgeessentials.util.output.ChatOutputHandler;
 
 public class Questioner extends ServerEventHandler
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", Questioner.class);
+
     public static final String MSG_STILL_ACTIVE = "Error. There is still an unanswered question left";
 
     private static Map<ICommandSender, QuestionData> questions = new HashMap<>();
@@ -137,7 +140,11 @@ public class Questioner extends ServerEventHandler
     public void tickStart(TickEvent.ServerTickEvent event)
     {
         if (event.phase == Phase.START)
+        {
+            long start = TickProfiler.start();
             tick();
+            TICK_SECTION.end(start);
+        }
     }
 
 }
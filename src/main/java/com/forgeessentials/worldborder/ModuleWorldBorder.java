@@ -1,10 +1,12 @@
 package com.forgeessentials.worldborder;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.world.World;
@@ -12,12 +14,15 @@ import net.minecraft.world.WorldServer;
 import net.minecraftforge.event.world.WorldEvent;
 
 import com.forgeessentials.api.APIRegistry;
+import com.forgeessentials.api.UserIdent;
+import com.forgeessentials.api.permissions.PermissionEvent;
 import com.forgeessentials.commons.selections.Point;
+import com.forgeessentials.commons.selections.WarpPoint;
 import com.forgeessentials.core.ForgeEssentials;
 import com.forgeessentials.core.misc.FECommandManager;
 import com.forgeessentials.core.moduleLauncher.FEModule;
 import com.forgeessentials.data.v2.DataManager;
-import com.forgeessentials.util.ServerUtil;
+import com.forgeessentials.util.TickProfiler;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleInitEvent;
 import com.forgeessentials.util.events.FEModuleEvent.FEModuleServerInitEvent;
 import com.forgeessentials.util.events.PlayerMoveEvent;
@@ -27,6 +32,7 @@ import com.forgeessentials.worldborder.effect.EffectBlock;
 
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedOutEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.server.permission.DefaultPermissionLevel;
 import net.minecraftforge.server.permission.PermissionAPI;
@@ -35,6 +41,8 @@ import net.minecraftforge.server.permission.PermissionAPI;
 public class ModuleWorldBorder extends ServerEventHandler
 {
 
+    private static final TickProfiler.Section TICK_SECTION = TickProfiler.section("tick", ModuleWorldBorder.class);
+
     public static final String PERM = "fe.worldborder";
     public static final String PERM_ADMIN = PERM + ".admin";
     public static final String PERM_BYPASS = PERM + ".bypass";
@@ -46,6 +54,70 @@ public class ModuleWorldBorder extends ServerEventHandler
     //TODO: Consider changing the key type to World so the code is not tightly coupled to internal Minecraft logic
     private Map<WorldServer, WorldBorder> borders = new HashMap<>();
 
+    /**
+     * Per-player cache of the bypass permission and the distance the player can move without reaching any border
+     * effect
+     */
+    private static class PlayerBorderState
+    {
+
+        private Boolean bypass;
+
+        private WorldBorder border;
+
+        private int borderVersion;
+
+        private int dimension;
+
+        private double x;
+
+        private double z;
+
+        private double safeDistance;
+
+        /* Reused on every check */
+        private final Set<WorldBorderEffect> newActiveEffects = new HashSet<>();
+
+        public boolean hasBypass(EntityPlayerMP player)
+        {
+            if (bypass == null)
+                bypass = PermissionAPI.hasPermission(player, PERM_BYPASS);
+            return bypass;
+        }
+
+        public void setSafe(WorldBorder border, WarpPoint point, double safeDistance)
+        {
+            if (safeDistance < 1)
+            {
+                this.border = null;
+                return;
+            }
+            this.border = border;
+            this.borderVersion = border.getVersion();
+            this.dimension = point.getDimension();
+            this.x = point.getX();
+            this.z = point.getZ();
+            this.safeDistance = safeDistance;
+        }
+
+        public boolean isSafe(WorldBorder border, WarpPoint point)
+        {
+            if (this.border != border || borderVersion != border.getVersion() || dimension != point.getDimension())
+                return false;
+            double dx = point.getX() - x;
+            double dz = point.getZ() - z;
+            return dx * dx + dz * dz < safeDistance * safeDistance;
+        }
+
+    }
+
+    private Map<UUID, PlayerBorderState> playerStates = new HashMap<>();
+
+    /**
+     * Players with active border effects. Keyed by UUID, because the player entity is replaced on respawn.
+     */
+    private Set<UUID> playersWithEffects = new HashSet<>();
+
     public ModuleWorldBorder()
     {
         super();
@@ -95,7 +167,13 @@ public class ModuleWorldBorder extends ServerEventHandler
         WorldBorder border = getBorder(event.after.getWorld());
         if (border != null && border.isEnabled())
         {
+            PlayerBorderState state = getState(player);
+            if (state.isSafe(border, event.after))
+                return;
+
             double minBorderDistance = Double.MAX_VALUE;
+            // Lower bound of the border distance, which holds for the whole safe area around the player
+            double minSafeDistance = Double.MAX_VALUE;
             switch (border.getShape())
             {
             case BOX:
@@ -106,25 +184,27 @@ public class ModuleWorldBorder extends ServerEventHandler
                 minBorderDistance = Math.min(minBorderDistance, event.after.getZ() - p1.getZ());
                 minBorderDistance = Math.min(minBorderDistance, p2.getX() - event.after.getX());
                 minBorderDistance = Math.min(minBorderDistance, p2.getZ() - event.after.getZ());
+                minSafeDistance = minBorderDistance;
                 break;
             }
             case ELLIPSOID:
             case CYLINDER:
             {
-                Point delta = event.after.toWorldPoint();
-                delta.setY(border.getCenter().getY());
-                delta.subtract(border.getCenter());
-                int x0 = delta.getX();
-                int z0 = delta.getZ();
+                double a = border.getSize().getX();
+                double b = border.getSize().getZ();
+                double x0 = event.after.getBlockX() - border.getCenter().getX();
+                double z0 = event.after.getBlockZ() - border.getCenter().getZ();
                 if (x0 != 0 || z0 != 0)
                 {
-                    int a = border.getSize().getX();
-                    int b = border.getSize().getZ();
+                    // Distance to the border along the line from the center through the player
                     double iM = a * b / Math.sqrt(a * a * z0 * z0 + b * b * x0 * x0);
-                    Point p1 = new Point(iM * x0, delta.getY(), iM * z0);
-
-                    minBorderDistance = Math.min(minBorderDistance, p1.length() - delta.length());
+                    minBorderDistance = Math.min(minBorderDistance, (iM - 1) * Math.sqrt(x0 * x0 + z0 * z0));
                 }
+                // The ellipse contains its inscribed circle, so the border distance of any point is at least the
+                // distance of that point to the circle. Subtract 2 for the rounding to block coordinates above.
+                double dx = event.after.getX() - border.getCenter().getX();
+                double dz = event.after.getZ() - border.getCenter().getZ();
+                minSafeDistance = Math.min(a, b) - Math.sqrt(dx * dx + dz * dz) - 2;
                 break;
             }
             default:
@@ -134,15 +214,21 @@ public class ModuleWorldBorder extends ServerEventHandler
             }
 
             // Check which effects are active
-            Set<WorldBorderEffect> newActiveEffects = new HashSet<>();
-            if (!PermissionAPI.hasPermission(player, PERM_BYPASS))
+            Set<WorldBorderEffect> newActiveEffects = state.newActiveEffects;
+            newActiveEffects.clear();
+            double maxTriggerDistance = 0;
+            boolean bypass = state.hasBypass(player);
+            if (!bypass)
             {
                 if (minBorderDistance <= 0)
                     new EffectBlock().playerMove(border, event);
 
                 for (WorldBorderEffect effect : border.getEffects())
+                {
+                    maxTriggerDistance = Math.max(maxTriggerDistance, effect.getTriggerDistance());
                     if (minBorderDistance <= effect.getTriggerDistance())
                         newActiveEffects.add(effect);
+                }
             }
 
             // Deactivate old effects and update current ones
@@ -166,9 +252,24 @@ public class ModuleWorldBorder extends ServerEventHandler
             // Add new effects
             for (WorldBorderEffect effect : newActiveEffects)
             {
-                activeEffects.add(effect);
-                effect.activate(border, player);
-                effect.playerMove(border, event);
+                if (activeEffects.add(effect))
+                {
+                    effect.activate(border, player);
+                    effect.playerMove(border, event);
+                }
+            }
+            newActiveEffects.clear();
+
+            if (activeEffects.isEmpty())
+            {
+                playersWithEffects.remove(player.getPersistentID());
+                double safeDistance = bypass ? Double.MAX_VALUE : minSafeDistance - maxTriggerDistance;
+                state.setSafe(border, event.after, safeDistance);
+            }
+            else
+            {
+                playersWithEffects.add(player.getPersistentID());
+                state.border = null;
             }
         }
     }
@@ -176,9 +277,18 @@ public class ModuleWorldBorder extends ServerEventHandler
     @SubscribeEvent
     public void serverTickEvent(TickEvent.ServerTickEvent event)
     {
-        // Tick effects
-        for (EntityPlayerMP player : ServerUtil.getPlayerList())
+        if (playersWithEffects.isEmpty())
+            return;
+        long start = TickProfiler.start();
+        // Tick effects. Iterate over a copy, because effects may kick players.
+        for (UUID uuid : new ArrayList<>(playersWithEffects))
         {
+            EntityPlayerMP player = UserIdent.getPlayerByUuid(uuid);
+            if (player == null)
+            {
+                playersWithEffects.remove(uuid);
+                continue;
+            }
             WorldBorder border = getBorder(player.world);
             if (border != null && border.isEnabled())
             {
@@ -192,8 +302,68 @@ public class ModuleWorldBorder extends ServerEventHandler
                 }
             }
         }
+        TICK_SECTION.end(start);
+    }
+
+    @SubscribeEvent
+    public void playerLoggedOutEvent(PlayerLoggedOutEvent event)
+    {
+        playerStates.remove(event.player.getPersistentID());
+        playersWithEffects.remove(event.player.getPersistentID());
+    }
+
+    /* ------------------------------------------------------------ */
+    /* Bypass permission changes */
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.User.ModifyPermission event)
+    {
+        invalidateState(event.ident);
+    }
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.User.ModifyGroups event)
+    {
+        invalidateState(event.ident);
+    }
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.Group.ModifyPermission event)
+    {
+        playerStates.clear();
+    }
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.Group.Delete event)
+    {
+        playerStates.clear();
+    }
+
+    @SubscribeEvent
+    public void permissionChange(PermissionEvent.AfterLoad event)
+    {
+        playerStates.clear();
+    }
+
+    private void invalidateState(UserIdent ident)
+    {
+        if (ident != null && ident.hasUuid())
+            playerStates.remove(ident.getUuid());
+    }
+
+    private PlayerBorderState getState(EntityPlayerMP player)
+    {
+        PlayerBorderState state = playerStates.get(player.getPersistentID());
+        if (state == null)
+        {
+            state = new PlayerBorderState();
+            playerStates.put(player.getPersistentID(), state);
+        }
+        return state;
     }
 
+    /* ------------------------------------------------------------ */
+
     public WorldBorder getBorder(World world)
     {
         WorldBorder border = borders.get(world);
@@ -39,6 +39,12 @@ public class WorldBorder implements Loadable
     @Expose(serialize = false)
     private Map<EntityPlayer, Set<WorldBorderEffect>> activeEffects = new WeakHashMap<>();
 
+    /**
+     * Incremented on every change, so cached distances to the border can be discarded
+     */
+    @Expose(serialize = false)
+    private int version;
+
     public WorldBorder(Point center, int xSize, int zSize, int dimID)
     {
         this.center = center;
@@ -67,6 +73,7 @@ public class WorldBorder implements Loadable
     public void setEnabled(boolean enabled)
     {
         this.enabled = enabled;
+        version++;
     }
 
     public Point getCenter()
@@ -94,6 +101,7 @@ public class WorldBorder implements Loadable
     public void addEffect(WorldBorderEffect effect)
     {
         effects.add(effect);
+        version++;
     }
 
     public List<WorldBorderEffect> getEffects()
@@ -109,6 +117,7 @@ public class WorldBorder implements Loadable
     public void setShape(AreaShape shape)
     {
         this.shape = shape;
+        version++;
     }
 
     public AreaBase getArea()
@@ -127,6 +136,7 @@ public class WorldBorder implements Loadable
                 center.getY() + size.getY(), //
                 center.getZ() + size.getZ());
         area = new AreaBase(minP, maxP);
+        version++;
     }
 
     public Set<WorldBorderEffect> getOrCreateActiveEffects(EntityPlayer player)
@@ -145,8 +155,14 @@ public class WorldBorder implements Loadable
         return activeEffects.get(player);
     }
 
+    public int getVersion()
+    {
+        return version;
+    }
+
     public void save()
     {
+        version++;
         // TODO: Better way to identify dimensions
         String key = Integer.toString(dimID);
         DataManager.getInstance().save(this, key);
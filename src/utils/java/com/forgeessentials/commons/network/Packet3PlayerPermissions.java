@@ -2,67 +2,113 @@ package com.forgeessentials.commons.network;
 
 import io.netty.buffer.ByteBuf;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.BitSet;
 
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 
+/**
+ * Sends denied place / break ids to the client. Unless {@link #reset} is set, the ids are applied as a delta to the
+ * state known by the client.
+ * <p>
+ * Id sets are encoded as a varint count, followed by the varint gaps between the ascending ids.
+ */
 public class Packet3PlayerPermissions implements IMessage
 {
 
     public boolean reset;
 
-    public Set<Integer> placeIds;
+    public BitSet placeIds;
 
-    public Set<Integer> breakIds;
+    public BitSet breakIds;
+
+    /**
+     * Place ids which are not denied anymore
+     */
+    public BitSet removedPlaceIds;
 
     public Packet3PlayerPermissions()
     {
-        placeIds = new HashSet<Integer>();
-        breakIds = new HashSet<Integer>();
+        placeIds = new BitSet();
+        breakIds = new BitSet();
+        removedPlaceIds = new BitSet();
+    }
+
+    public Packet3PlayerPermissions(boolean reset, BitSet placeIds, BitSet breakeIds)
+    {
+        this(reset, placeIds, breakeIds, null);
     }
 
-    public Packet3PlayerPermissions(boolean reset, Set<Integer> placeIds, Set<Integer> breakeIds)
+    public Packet3PlayerPermissions(boolean reset, BitSet placeIds, BitSet breakeIds, BitSet removedPlaceIds)
     {
         this.reset = reset;
-        this.placeIds = placeIds;
-        this.breakIds = breakeIds;
+        this.placeIds = placeIds == null ? new BitSet() : placeIds;
+        this.breakIds = breakeIds == null ? new BitSet() : breakeIds;
+        this.removedPlaceIds = removedPlaceIds == null ? new BitSet() : removedPlaceIds;
     }
 
     @Override
     public void fromBytes(ByteBuf buf)
     {
         reset = buf.readBoolean();
-
-        int count = buf.readShort();
-        for (int i = 0; i < count; i++)
-            placeIds.add(buf.readInt());
-
-        count = buf.readShort();
-        for (int i = 0; i < count; i++)
-            breakIds.add(buf.readInt());
+        readIds(buf, placeIds);
+        readIds(buf, breakIds);
+        readIds(buf, removedPlaceIds);
     }
 
     @Override
     public void toBytes(ByteBuf buf)
     {
         buf.writeBoolean(reset);
-        if (placeIds != null)
+        writeIds(buf, placeIds);
+        writeIds(buf, breakIds);
+        writeIds(buf, removedPlaceIds);
+    }
+
+    private static void writeIds(ByteBuf buf, BitSet ids)
+    {
+        writeVarInt(buf, ids.cardinality());
+        int last = 0;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1))
         {
-            buf.writeShort(placeIds.size());
-            for (int id : placeIds)
-                buf.writeInt(id);
+            writeVarInt(buf, id - last);
+            last = id;
         }
-        else
-            buf.writeShort(0);
-        if (breakIds != null)
+    }
+
+    private static void readIds(ByteBuf buf, BitSet ids)
+    {
+        int count = readVarInt(buf);
+        int id = 0;
+        for (int i = 0; i < count; i++)
+        {
+            id += readVarInt(buf);
+            ids.set(id);
+        }
+    }
+
+    private static void writeVarInt(ByteBuf buf, int value)
+    {
+        while ((value & ~0x7F) != 0)
+        {
+            buf.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuf buf)
+    {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do
         {
-            buf.writeShort(breakIds.size());
-            for (int id : breakIds)
-                buf.writeInt(id);
+            b = buf.readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
         }
-        else
-            buf.writeShort(0);
+        while ((b & 0x80) != 0);
+        return value;
     }
 
 }